@@ -0,0 +1,65 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Shared runner for the benchmarks.
+ * Every case runs in its own JVM so the profile of one case cannot slow down the next,
+ * is warmed up until C2 has compiled it and is then timed over many rounds.
+ * Each round returns a value that is summed into a checksum, which keeps the JIT from throwing the work away.
+ */
+final class BenchmarkHarness {
+
+    /**
+     * One round of a benchmark
+     */
+    interface Case {
+        double run() throws Exception;
+    }
+
+    private BenchmarkHarness(){
+    }
+
+    /**
+     * Runs one case of a benchmark class in a new JVM and reads back its time per round
+     * @param benchmark the class whose main runs a single case when given its name
+     * @param name the case to run
+     * @return nanoseconds per round
+     */
+    static double fork(Class<?> benchmark, String name) throws IOException, InterruptedException{
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), benchmark.getName(), name)
+                .redirectErrorStream(true).start();
+        String line;
+        String last = null;
+        try(BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream()))){
+            while((line = out.readLine()) != null){
+                last = line;
+            }
+        }
+        if(process.waitFor() != 0 || last == null){
+            throw new IOException(name + " failed: " + last);
+        }
+        return Double.parseDouble(last);
+    }
+
+    /**
+     * Times a case in this JVM and prints the checksum and then the nanoseconds per round for fork to read
+     */
+    static void measure(Case benchmark, int warmupRounds, int measuredRounds) throws Exception{
+        double checksum = 0.0;
+        for(int i = 0; i < warmupRounds; i++){
+            checksum += benchmark.run();
+        }
+        long start = System.nanoTime();
+        for(int i = 0; i < measuredRounds; i++){
+            checksum += benchmark.run();
+        }
+        double nanos = (double) (System.nanoTime() - start) / measuredRounds;
+        System.err.println("checksum " + checksum);
+        System.out.println(nanos);
+    }
+}
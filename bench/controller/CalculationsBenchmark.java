@@ -0,0 +1,105 @@
+package controller;
+
+import controller.Calculations.Units;
+import java.util.Random;
+
+/**
+ * Compares the scalar and block Calculations calls on a block of 10k samples, for every conversion.
+ * Run with: java -cp out controller.CalculationsBenchmark
+ */
+public class CalculationsBenchmark {
+    private static final int BLOCK = 10_000;
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 50_000;
+
+    private static final double[] src = new double[BLOCK];
+    private static final double[] dst = new double[BLOCK];
+    private static String unitSystem = "Metric";
+    private static int round;
+
+    //in scalar, block pairs
+    private static final String[] CASES = {"scalarLength", "blockLength", "scalarForce", "blockForce",
+            "scalarPressure", "blockPressure", "scalarStrain", "blockStrain", "scalarStress", "blockStress"};
+
+    public static void main(String[] args) throws Exception{
+        if(args.length == 1){
+            runCase(args[0]);
+            return;
+        }
+
+        double[] nanos = new double[CASES.length];
+        for(int c = 0; c < CASES.length; c++){
+            nanos[c] = BenchmarkHarness.fork(CalculationsBenchmark.class, CASES[c]);
+            System.out.printf("%-16s %10.0f ns per block, %6.3f ns per sample%n", CASES[c], nanos[c], nanos[c] / BLOCK);
+        }
+        for(int c = 0; c < CASES.length; c += 2){
+            System.out.printf("%-16s speedup: %.2fx%n", CASES[c + 1].substring("block".length()), nanos[c] / nanos[c + 1]);
+        }
+    }
+
+    private static void runCase(String name) throws Exception{
+        Random random = new Random(4100);
+        for(int i = 0; i < BLOCK; i++){
+            src[i] = random.nextDouble() * 10.0;
+        }
+        Runnable benchmark;
+        switch(name){
+            case "scalarLength": benchmark = CalculationsBenchmark::scalarLength; break;
+            case "blockLength": benchmark = () -> Calculations.convertLength(Units.METRIC, Units.ENGLISH, src, dst, 0, BLOCK); break;
+            case "scalarForce": benchmark = CalculationsBenchmark::scalarForce; break;
+            case "blockForce": benchmark = () -> Calculations.convertForce(Units.ENGLISH, Units.METRIC, src, dst, 0, BLOCK); break;
+            case "scalarPressure": benchmark = CalculationsBenchmark::scalarPressure; break;
+            case "blockPressure": benchmark = () -> Calculations.convertPressure(Units.ENGLISH, Units.METRIC, src, dst, 0, BLOCK); break;
+            case "scalarStrain": benchmark = CalculationsBenchmark::scalarStrain; break;
+            case "blockStrain": benchmark = () -> Calculations.calculateStrain(src, dst, 0, BLOCK, 2.0); break;
+            case "scalarStress": benchmark = CalculationsBenchmark::scalarStress; break;
+            case "blockStress": benchmark = CalculationsBenchmark::blockStress; break;
+            default: throw new IllegalArgumentException("Unknown case " + name);
+        }
+        BenchmarkHarness.measure(() -> {
+            benchmark.run();
+            return dst[round++ % BLOCK];
+        }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+    }
+
+    private static void scalarLength(){
+        for(int i = 0; i < BLOCK; i++){
+            dst[i] = Calculations.convertLength(Units.METRIC, Units.ENGLISH, src[i]);
+        }
+    }
+
+    private static void scalarForce(){
+        for(int i = 0; i < BLOCK; i++){
+            dst[i] = Calculations.convertForce(Units.ENGLISH, Units.METRIC, src[i]);
+        }
+    }
+
+    private static void scalarPressure(){
+        for(int i = 0; i < BLOCK; i++){
+            dst[i] = Calculations.convertPressure(Units.ENGLISH, Units.METRIC, src[i]);
+        }
+    }
+
+    private static void scalarStrain(){
+        for(int i = 0; i < BLOCK; i++){
+            dst[i] = Calculations.calculateStrain(src[i], 2.0);
+        }
+    }
+
+    //the per point path GraphUpdater took before the channel transforms, the unit system is only known at run time
+    private static void scalarStress(){
+        for(int i = 0; i < BLOCK; i++){
+            double force = 1000.0 * (src[i] - 0.01);
+            if(unitSystem.equals("Metric")){
+                force = Calculations.convertForce(Units.ENGLISH, Units.METRIC, force);
+            }else{
+                force /= 1000;
+            }
+            dst[i] = Calculations.calculateStress(force, 0.125);
+        }
+    }
+
+    private static void blockStress(){
+        Calculations.offsetAndScale(src, dst, 0, BLOCK, 0.01, 1000.0 * Calculations.forceFactor(Units.ENGLISH, Units.METRIC) / 0.125);
+    }
+}
@@ -0,0 +1,169 @@
+package controller;
+
+import model.AITask;
+import model.MaterialCurve;
+import model.SampleBlock;
+import model.SampleStore;
+import model.SimulatedAITask;
+import org.jfree.data.xy.XYSeries;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Times every step of the processing hot path on samples from the simulated DAQ, so it runs without hardware:
+ * reading a block, averaging it the way getChannelData does, the moving average filter, a whole point through
+ * PointProcessor, appending a run to the old XYSeries against the SampleStore, and exporting a run as CSV.
+ * Run with: java -cp out controller.PipelineBenchmark, or give a case name to run just that case.
+ */
+public class PipelineBenchmark {
+    private static final int SAMPLES_PER_POINT = AITask.INPUT_BUFFER_SIZE;
+    private static final int READ_SAMPLES = SAMPLES_PER_POINT * AITask.MAX_BLOCKS_PER_READ; //an unpaced read fills the whole block
+    private static final int RUN_POINTS = 1_000_000; //a long test at 20 points per second is under a million
+
+    private static final String[] CASES = {"simulatedRead", "blockAverage", "movingAverage", "processPoint",
+            "xySeriesAppend", "storeAppend", "csvExport"};
+
+    private static SimulatedAITask task;
+    private static final double[] force = new double[SAMPLES_PER_POINT];
+    private static final double[] length = new double[SAMPLES_PER_POINT];
+    private static final double[] strains = new double[RUN_POINTS];
+    private static final double[] stresses = new double[RUN_POINTS];
+
+    public static void main(String[] args) throws Exception{
+        if(args.length == 1){
+            runCase(args[0]);
+            return;
+        }
+        for(String name : CASES){
+            double nanos = BenchmarkHarness.fork(PipelineBenchmark.class, name);
+            System.out.printf("%-16s %s%n", name, describe(name, nanos));
+        }
+    }
+
+    /*
+     * Formats a time per round in the unit that suits the case
+     */
+    private static String describe(String name, double nanos){
+        switch(name){
+            case "simulatedRead":
+            case "blockAverage":
+                return String.format("%10.0f ns per read of %d samples per channel", nanos, READ_SAMPLES);
+            case "xySeriesAppend":
+            case "storeAppend":
+            case "csvExport":
+                return String.format("%10.2f ms per %,d points, %6.1f ns per point", nanos / 1e6, RUN_POINTS, nanos / RUN_POINTS);
+            default:
+                return String.format("%10.0f ns per point, %6.3f ns per sample", nanos, nanos / SAMPLES_PER_POINT);
+        }
+    }
+
+    private static void runCase(String name) throws Exception{
+        setUp();
+        switch(name){
+            case "simulatedRead":
+                BenchmarkHarness.measure(() -> task.readAvailable(), 20_000, 20_000);
+                break;
+            case "blockAverage":
+                SampleBlock block = task.getBlock();
+                BenchmarkHarness.measure(() -> block.average(AITask.FORCE_CHANNEL) + block.average(AITask.LENGTH_CHANNEL), 200_000, 500_000);
+                break;
+            case "movingAverage":
+                SampleFilter filter = new MovingAverageFilter(SAMPLES_PER_POINT * 5);
+                double[] scratch = new double[SAMPLES_PER_POINT];
+                BenchmarkHarness.measure(() -> {
+                    System.arraycopy(force, 0, scratch, 0, SAMPLES_PER_POINT);
+                    filter.process(scratch, 0, SAMPLES_PER_POINT);
+                    return scratch[SAMPLES_PER_POINT - 1];
+                }, 200_000, 500_000);
+                break;
+            case "processPoint":
+                PointProcessor processor = new PointProcessor(1000.0, 0.1);
+                processor.setSpecimen("Metric", 0.125, 2.0);
+                BenchmarkHarness.measure(() -> {
+                    processor.process(force, length, SAMPLES_PER_POINT);
+                    return processor.getStress() + processor.getStrain();
+                }, 100_000, 200_000);
+                break;
+            case "xySeriesAppend":
+                BenchmarkHarness.measure(PipelineBenchmark::xySeriesAppend, 10, 10);
+                break;
+            case "storeAppend":
+                BenchmarkHarness.measure(PipelineBenchmark::storeAppend, 10, 10);
+                break;
+            case "csvExport":
+                SampleStore store = new SampleStore();
+                for(int i = 0; i < RUN_POINTS; i++){
+                    store.append(i / 20.0, 0.0, 0.0, stresses[i], strains[i]);
+                }
+                CountingStream out = new CountingStream();
+                BenchmarkHarness.measure(() -> {
+                    CsvRecorder.writeRows(store.view(), out);
+                    return out.count;
+                }, 3, 5);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown case " + name);
+        }
+    }
+
+    /*
+     * Starts an unpaced simulated task and takes one point of samples and a run of points from it
+     */
+    private static void setUp() throws Exception{
+        task = new SimulatedAITask(AITask.SAMPLES_PER_SECOND, 0.005, MaterialCurve.idealized(10000, 40, 45, 0.12), 60);
+        task.setPaced(false);
+        task.createAIChannel(AITask.FORCE_CHANNEL, AITask.Mode.DIFFERENTIAL);
+        task.createAIChannel(AITask.LENGTH_CHANNEL, AITask.Mode.RSE);
+        task.readyToRun();
+        task.start();
+        int points = 0;
+        while(points < RUN_POINTS){
+            int samples = task.readAvailable();
+            SampleBlock block = task.getBlock();
+            if(points == 0){
+                for(int i = 0; i < SAMPLES_PER_POINT; i++){
+                    force[i] = block.get(AITask.FORCE_CHANNEL, i);
+                    length[i] = block.get(AITask.LENGTH_CHANNEL, i);
+                }
+            }
+            for(int i = 0; i < samples && points < RUN_POINTS; i++, points++){
+                stresses[points] = block.get(AITask.FORCE_CHANNEL, i) * 10;
+                strains[points] = block.get(AITask.LENGTH_CHANNEL, i) * 0.01;
+            }
+        }
+    }
+
+    //how the chart kept every point before the SampleStore
+    private static double xySeriesAppend(){
+        XYSeries series = new XYSeries("Stress", false, true);
+        for(int i = 0; i < RUN_POINTS; i++){
+            series.add(strains[i], stresses[i]);
+        }
+        return series.getItemCount();
+    }
+
+    private static double storeAppend(){
+        SampleStore store = new SampleStore();
+        for(int i = 0; i < RUN_POINTS; i++){
+            store.append(i / 20.0, 0.0, 0.0, stresses[i], strains[i]);
+        }
+        return store.size();
+    }
+
+    /*
+     * Throws the bytes away so the export is timed without the disk
+     */
+    private static class CountingStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b){
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException{
+            count += len;
+        }
+    }
+}
@@ -149,4 +149,137 @@ public class Calculations {
         }
         return Math.PI * (diameter/2) * (diameter/2);
     }
+
+    /**
+     * Factor that converts a length from one unit system to another, resolve it once and reuse it
+     * @param startingUnits the current unit system
+     * @param endingUnits the unit system wanted
+     * @return what a length in the starting units is multiplied by
+     */
+    public static double lengthFactor(Units startingUnits, Units endingUnits){
+        return convertLength(startingUnits, endingUnits, 1.0);
+    }
+
+    /**
+     * Factor that converts a force from one unit system to another, resolve it once and reuse it
+     * @param startingUnits the current unit system
+     * @param endingUnits the unit system wanted
+     * @return what a force in the starting units is multiplied by
+     */
+    public static double forceFactor(Units startingUnits, Units endingUnits){
+        return convertForce(startingUnits, endingUnits, 1.0);
+    }
+
+    /**
+     * Factor that converts a pressure from one unit system to another, resolve it once and reuse it
+     * @param startingUnits the current unit system
+     * @param endingUnits the unit system wanted
+     * @return what a pressure in the starting units is multiplied by
+     */
+    public static double pressureFactor(Units startingUnits, Units endingUnits){
+        return convertPressure(startingUnits, endingUnits, 1.0);
+    }
+
+    /**
+     * Converts a block of length values from one unit system to another.
+     * The unit pair is resolved once, src and dst may be the same array.
+     * @param startingUnits the current unit system of the values
+     * @param endingUnits the unit system wanted
+     * @param src values in the starting unit system
+     * @param dst receives the converted values at the same indices
+     * @param off index of the first value
+     * @param len number of values
+     */
+    public static void convertLength(Units startingUnits, Units endingUnits, double[] src, double[] dst, int off, int len){
+        scale(src, dst, off, len, lengthFactor(startingUnits, endingUnits));
+    }
+
+    /**
+     * Converts a block of force values from one unit system to another.
+     * The unit pair is resolved once, src and dst may be the same array.
+     * @param startingUnits the current unit system of the values
+     * @param endingUnits the unit system wanted
+     * @param src values in the starting unit system
+     * @param dst receives the converted values at the same indices
+     * @param off index of the first value
+     * @param len number of values
+     */
+    public static void convertForce(Units startingUnits, Units endingUnits, double[] src, double[] dst, int off, int len){
+        scale(src, dst, off, len, forceFactor(startingUnits, endingUnits));
+    }
+
+    /**
+     * Converts a block of pressure values from one unit system to another.
+     * The unit pair is resolved once, src and dst may be the same array.
+     * @param startingUnits the current unit system of the values
+     * @param endingUnits the unit system wanted
+     * @param src values in the starting unit system
+     * @param dst receives the converted values at the same indices
+     * @param off index of the first value
+     * @param len number of values
+     */
+    public static void convertPressure(Units startingUnits, Units endingUnits, double[] src, double[] dst, int off, int len){
+        scale(src, dst, off, len, pressureFactor(startingUnits, endingUnits));
+    }
+
+    /**
+     * Calculate strain for a block of elongations
+     * @param src elongations measured
+     * @param dst receives the strains at the same indices
+     * @param off index of the first value
+     * @param len number of values
+     * @param gaugeLength the gauge length
+     */
+    public static void calculateStrain(double[] src, double[] dst, int off, int len, double gaugeLength){
+        scale(src, dst, off, len, 1.0 / gaugeLength);
+    }
+
+    /**
+     * Calculate stress for a block of forces
+     * @param src forces measured
+     * @param dst receives the stresses at the same indices
+     * @param off index of the first value
+     * @param len number of values
+     * @param area area calculated
+     */
+    public static void calculateStress(double[] src, double[] dst, int off, int len, double area){
+        scale(src, dst, off, len, 1.0 / area);
+    }
+
+    /**
+     * Applies factor * (value - offset) to a block, the form every volts to stress or strain step reduces to
+     * once the zero, the volts to units constant, the unit system and the geometry are combined into one factor
+     * @param src input values
+     * @param dst receives the results at the same indices
+     * @param off index of the first value
+     * @param len number of values
+     * @param offset subtracted from each value first
+     * @param factor what each value is then multiplied by
+     */
+    public static void offsetAndScale(double[] src, double[] dst, int off, int len, double offset, double factor){
+        checkBlock(src, dst, off, len);
+        //simple counted loop over arrays with no calls so C2 turns it into SIMD code
+        for(int i = off; i < off + len; i++){
+            dst[i] = (src[i] - offset) * factor;
+        }
+    }
+
+    /*
+     * Multiplies a block by a constant
+     */
+    private static void scale(double[] src, double[] dst, int off, int len, double factor){
+        checkBlock(src, dst, off, len);
+        for(int i = off; i < off + len; i++){
+            dst[i] = src[i] * factor;
+        }
+    }
+
+    /*
+     * Checks the range once up front, which also lets the JIT drop the bounds checks in the loops
+     */
+    private static void checkBlock(double[] src, double[] dst, int off, int len){
+        if(off < 0 || len < 0 || off + len > src.length || off + len > dst.length){
+            throw new IndexOutOfBoundsException("Block " + off + ".." + (off + len) + " is outside the arrays");
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package controller;
+
+/**
+ * Affine map from a channel voltage straight to stress or strain, (volts - zero) * factor.
+ * The zero offset, volts to units constant, unit conversion, kip scaling and specimen geometry
+ * are folded into the factor once when collection starts, so converting a point is one subtract and one multiply.
+ */
+public final class ChannelTransform {
+    private final double zero;
+    private final double factor;
+
+    /**
+     * @param zero voltage that maps to 0
+     * @param factor output units per volt
+     */
+    public ChannelTransform(double zero, double factor){
+        this.zero = zero;
+        this.factor = factor;
+    }
+
+    /**
+     * Builds the force channel to stress transform
+     * @param zero force channel voltage that reads as no force
+     * @param lbsPerVolt force channel volts to pounds constant
+     * @param metric true for MPa, false for KSI
+     * @param area cross section area of the specimen in square mm or square inches
+     */
+    public static ChannelTransform stress(double zero, double lbsPerVolt, boolean metric, double area){
+        double unitsPerPound = metric ? Calculations.forceFactor(Calculations.Units.ENGLISH, Calculations.Units.METRIC) : 1.0 / 1000; //newtons or kips
+        return new ChannelTransform(zero, Calculations.calculateStress(lbsPerVolt * unitsPerPound, area));
+    }
+
+    /**
+     * Builds the elongation channel to strain transform
+     * @param zero elongation channel voltage that reads as no elongation
+     * @param inchesPerVolt elongation channel volts to inches constant
+     * @param metric true when the gauge length is in mm, false for inches
+     * @param gaugeLength gauge length of the specimen
+     */
+    public static ChannelTransform strain(double zero, double inchesPerVolt, boolean metric, double gaugeLength){
+        double unitsPerInch = metric ? Calculations.lengthFactor(Calculations.Units.ENGLISH, Calculations.Units.METRIC) : 1.0;
+        return new ChannelTransform(zero, Calculations.calculateStrain(inchesPerVolt * unitsPerInch, gaugeLength));
+    }
+
+    public double apply(double volts){
+        return (volts - zero) * factor;
+    }
+
+    /**
+     * Applies the transform to a block, src and dst may be the same array
+     */
+    public void apply(double[] src, double[] dst, int off, int len){
+        Calculations.offsetAndScale(src, dst, off, len, zero, factor);
+    }
+
+    public double getZero() {
+        return zero;
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+}
@@ -0,0 +1,58 @@
+package controller;
+
+import model.PipelineLatency;
+import view.DecimatedDataset;
+import javax.swing.Timer;
+
+/**
+ * Pushes new samples to the chart at a fixed frame rate instead of once per sample.
+ * Everything the GraphUpdater stored since the last frame reaches the datasets in a single
+ * update on the event dispatch thread, so the repaint rate does not depend on the acquisition rate.
+ */
+public class ChartRefresher {
+    public static final int DEFAULT_FRAMES_PER_SECOND = 30;
+    public static final int MAX_FRAMES_PER_SECOND = 120;
+
+    private final DecimatedDataset[] datasets;
+    private final PipelineLatency latency;
+    private final Timer timer;
+
+    /**
+     * @param framesPerSecond how often the chart may repaint, clamped to 1..MAX_FRAMES_PER_SECOND
+     * @param latency told every time the datasets pull in new points
+     * @param datasets the datasets to update
+     */
+    public ChartRefresher(int framesPerSecond, PipelineLatency latency, DecimatedDataset... datasets){
+        this.datasets = datasets.clone();
+        this.latency = latency;
+        int fps = Math.max(1, Math.min(MAX_FRAMES_PER_SECOND, framesPerSecond));
+        timer = new Timer(1000 / fps, e -> update());
+        timer.setCoalesce(true); //a late frame is skipped rather than queued up
+    }
+
+    /**
+     * Starts refreshing, called when data collection starts
+     */
+    public void start(){
+        timer.start();
+    }
+
+    /**
+     * Stops refreshing and shows whatever arrived since the last frame
+     */
+    public void stop(){
+        timer.stop();
+        update();
+    }
+
+    private void update(){
+        for(DecimatedDataset dataset : datasets){
+            dataset.update();
+        }
+        latency.chartUpdated();
+    }
+
+    public int getFramesPerSecond(){
+        return 1000 / timer.getDelay();
+    }
+}
@@ -0,0 +1,131 @@
+package controller;
+
+import model.PointRecorder;
+import model.SampleStore;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Writes the strain,stress points of a run to a csv file while the run is going.
+ * Rows are formatted into a byte buffer and written out once it fills up or a second has passed,
+ * so a crash during a test loses at most the last second and exporting is only a file copy.
+ * The processing thread appends, any thread may flush, copy or close.
+ */
+public class CsvRecorder implements PointRecorder {
+    public static final String HEADER = "Strain,Stress\n";
+    public static final int DECIMALS = 6;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ROW_LENGTH = 2 * 400; //long enough for the two widest values Formatter writes
+    private static final long FLUSH_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private long lastFlush = System.nanoTime();
+
+    /**
+     * Creates the file, replacing anything already there, and writes the header
+     */
+    public CsvRecorder(File file) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.put(HEADER.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Creates a recorder with a time stamped name in a directory
+     * @param directory directory to record into, made if it does not exist
+     */
+    public static CsvRecorder create(File directory) throws IOException {
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("Cannot create " + directory);
+        }
+        String name = "run-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv";
+        return new CsvRecorder(new File(directory, name));
+    }
+
+    /**
+     * Appends the strain,stress row of a point, writing the buffer out when it is full or has not been written for a second
+     */
+    @Override
+    public synchronized void append(double time, double forceVolts, double elongationVolts, double stress, double strain, double strainRate, double stressRate) throws IOException {
+        if(buffer.remaining() < MAX_ROW_LENGTH){
+            writeBuffer();
+        }
+        int position = buffer.position();
+        position = DecimalFormatter.format(strain, DECIMALS, bytes, position);
+        bytes[position++] = ',';
+        position = DecimalFormatter.format(stress, DECIMALS, bytes, position);
+        bytes[position++] = '\n';
+        buffer.position(position);
+
+        if(System.nanoTime() - lastFlush > FLUSH_INTERVAL_NANOS){
+            writeBuffer();
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        writeBuffer();
+    }
+
+    /*
+     * Hands the buffered rows to the operating system
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+        lastFlush = System.nanoTime();
+    }
+
+    /**
+     * Copies everything recorded so far, header included, to a stream
+     */
+    public synchronized void copyTo(OutputStream out) throws IOException {
+        writeBuffer();
+        Files.copy(file.toPath(), out);
+    }
+
+    /**
+     * Writes the same rows the recorder would from the points in a store, used when the
+     * recorded values no longer match the store, such as after a unit change
+     */
+    public static void writeRows(SampleStore.View data, OutputStream out) throws IOException {
+        byte[] row = new byte[MAX_ROW_LENGTH];
+        out.write(HEADER.getBytes(StandardCharsets.US_ASCII));
+        for(int i = 0; i < data.size(); i++){
+            int position = DecimalFormatter.format(data.get(SampleStore.Column.STRAIN, i), DECIMALS, row, 0);
+            row[position++] = ',';
+            position = DecimalFormatter.format(data.get(SampleStore.Column.STRESS, i), DECIMALS, row, position);
+            row[position++] = '\n';
+            out.write(row, 0, position);
+        }
+    }
+
+    /**
+     * Writes out the buffer and closes the file, the recording stays on disk
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if(channel.isOpen()){
+            writeBuffer();
+            channel.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
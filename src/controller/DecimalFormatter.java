@@ -0,0 +1,71 @@
+package controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes doubles as fixed point ASCII straight into a byte array.
+ * Gives the same text as String.format("%.6f"), apart from values sitting exactly on a rounding tie,
+ * without going through Formatter, which allocates several objects and parses the pattern for every value.
+ */
+public final class DecimalFormatter {
+    public static final int MAX_DECIMALS = 9;
+    //larger values go through Formatter
+    private static final double FAST_LIMIT = 1e9;
+    private static final long[] POWERS = {1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L};
+
+    private DecimalFormatter(){
+    }
+
+    /**
+     * Writes value rounded half up to the given number of decimals
+     * @param value the value to write
+     * @param decimals digits after the decimal point, 0 to MAX_DECIMALS
+     * @param dst where to write
+     * @param offset index of the first byte to write
+     * @return the index after the last byte written
+     */
+    public static int format(double value, int decimals, byte[] dst, int offset){
+        if(decimals < 0 || decimals > MAX_DECIMALS){
+            throw new IllegalArgumentException("decimals must be between 0 and " + MAX_DECIMALS);
+        }
+        if(!(Math.abs(value) < FAST_LIMIT)){
+            //NaN, infinity and huge values are rare enough to take the slow path
+            byte[] text = String.format(Locale.ROOT, "%." + decimals + "f", value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(text, 0, dst, offset, text.length);
+            return offset + text.length;
+        }
+
+        long scale = POWERS[decimals];
+        long scaled = (long) (Math.abs(value) * scale + 0.5);
+        if(Double.doubleToRawLongBits(value) < 0){
+            dst[offset++] = '-';
+        }
+        offset = writeDigits(scaled / scale, dst, offset);
+        if(decimals > 0){
+            dst[offset++] = '.';
+            long fraction = scaled % scale;
+            for(int i = offset + decimals - 1; i >= offset; i--){
+                dst[i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            offset += decimals;
+        }
+        return offset;
+    }
+
+    /*
+     * Writes a non negative integer without leading zeros
+     */
+    private static int writeDigits(long value, byte[] dst, int offset){
+        int digits = 1;
+        while(digits < POWERS.length && value >= POWERS[digits]){
+            digits++;
+        }
+        for(int i = offset + digits - 1; i >= offset; i--){
+            dst[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+}
@@ -1,12 +1,14 @@
 package controller;
 
-import org.jfree.data.xy.XYSeries;
+import model.SampleStore;
 import view.ExportWindow;
 import javax.swing.*;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Sets up and controls the functions of the ExportWindow
@@ -15,14 +17,14 @@ public class ExportController {
     private final ExportWindow exportWindow;
     protected boolean isUnsaved;
     private File file;
-    private final XYSeries xySeries;
+    private final SampleStore store;
     private final MainController mainController;
     private final InputController inputController;
 
-    public ExportController(XYSeries xySeries, MainController mainController, InputController inputController){
+    public ExportController(SampleStore store, MainController mainController, InputController inputController){
         exportWindow = new ExportWindow();
         isUnsaved = false;
-        this.xySeries = xySeries;
+        this.store = store;
         this.mainController = mainController;
         this.inputController = inputController;
 
@@ -45,7 +47,6 @@ public class ExportController {
      */
     private void writeToFile(){
         exportWindow.setVisible(false);
-        PrintWriter outfile = null;
 
         JFileChooser fc = new JFileChooser();
         int r = fc.showSaveDialog(null);
@@ -56,36 +57,36 @@ public class ExportController {
            }
         }
 
-        try {
-           if(file != null) {
-               outfile = new PrintWriter(new FileOutputStream(file));
-               if (isExportValuesSelected()) {//unit system, input values, gauge length
-                   double gaugeLength = Calculations.convertLength(mainController.stringToUnits(mainController.getUnitSystem()), mainController.stringToUnits(inputController.getUnitSystem()), mainController.getGaugeLength());
-                   double width = Calculations.convertLength(mainController.stringToUnits(mainController.getUnitSystem()), mainController.stringToUnits(inputController.getUnitSystem()), mainController.getWidth());
-                   double depth = Calculations.convertLength(mainController.stringToUnits(mainController.getUnitSystem()), mainController.stringToUnits(inputController.getUnitSystem()), mainController.getDepth());
-                   double diameter = Calculations.convertLength(mainController.stringToUnits(mainController.getUnitSystem()), mainController.stringToUnits(inputController.getUnitSystem()), mainController.getDiameter());
-                   outfile.write("Unit System: " + inputController.getUnitSystem() + "\n");
-                   outfile.write("Gauge Length: " + gaugeLength + "\n");
-                   if (inputController.isRectangularSelected()) {
-                       outfile.write("Width: " + width + "\n");
-                       outfile.write("Depth: " + depth + "\n");
-                   } else {
-                       outfile.write("Diameter: " + diameter + "\n");
-                   }
-                   outfile.write("\n");
-               }
-               double[][] data = xySeries.toArray();
-               outfile.write("Strain,Stress\n");
-               for (int i = 0; i < data[0].length; i++) {
-                   outfile.format("%.6f,%.6f%n", data[0][i], data[1][i]);
-               }
-           }
-        } catch (FileNotFoundException fileNotFoundException) {
-           fileNotFoundException.printStackTrace();
-        }finally{
-           if(outfile != null) {
-               outfile.close();
-           }
+        if(file != null) {
+            try (OutputStream outfile = new BufferedOutputStream(new FileOutputStream(file))) {
+                if (isExportValuesSelected()) {//unit system, input values, gauge length
+                    double gaugeLength = Calculations.convertLength(mainController.stringToUnits(mainController.getUnitSystem()), mainController.stringToUnits(inputController.getUnitSystem()), mainController.getGaugeLength());
+                    double width = Calculations.convertLength(mainController.stringToUnits(mainController.getUnitSystem()), mainController.stringToUnits(inputController.getUnitSystem()), mainController.getWidth());
+                    double depth = Calculations.convertLength(mainController.stringToUnits(mainController.getUnitSystem()), mainController.stringToUnits(inputController.getUnitSystem()), mainController.getDepth());
+                    double diameter = Calculations.convertLength(mainController.stringToUnits(mainController.getUnitSystem()), mainController.stringToUnits(inputController.getUnitSystem()), mainController.getDiameter());
+                    StringBuilder header = new StringBuilder();
+                    header.append("Unit System: ").append(inputController.getUnitSystem()).append("\n");
+                    header.append("Gauge Length: ").append(gaugeLength).append("\n");
+                    if (inputController.isRectangularSelected()) {
+                        header.append("Width: ").append(width).append("\n");
+                        header.append("Depth: ").append(depth).append("\n");
+                    } else {
+                        header.append("Diameter: ").append(diameter).append("\n");
+                    }
+                    header.append("\n");
+                    outfile.write(header.toString().getBytes(StandardCharsets.US_ASCII));
+                }
+
+                //the recording already holds the rows unless the units were changed after the run
+                CsvRecorder recorder = mainController.getRecorder();
+                if (recorder != null && inputController.getUnitSystem().equals(mainController.getUnitSystem())) {
+                    recorder.copyTo(outfile);
+                } else {
+                    CsvRecorder.writeRows(store.view(), outfile);
+                }
+            } catch (IOException exception) {
+                exception.printStackTrace();
+            }
         }
         isUnsaved = false;
     }
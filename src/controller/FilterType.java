@@ -0,0 +1,65 @@
+package controller;
+
+import model.AITask;
+
+/**
+ * The smoothing that can be picked for a channel in the settings window.
+ * Every type is sized by a window in milliseconds so switching types keeps roughly the same amount of smoothing.
+ */
+public enum FilterType {
+    NONE("None"),
+    MOVING_AVERAGE("Moving Average"),
+    IIR("Single Pole IIR"),
+    FIR("Low Pass FIR"),
+    MEDIAN("Running Median");
+
+    public static final FilterType DEFAULT = MOVING_AVERAGE;
+    //the fixed five point sliding average used before the filter could be picked
+    public static final double DEFAULT_WINDOW_MILLIS = 1000.0 * AITask.UPDATES_PER_SECOND / AITask.BLOCKS_PER_SECOND;
+
+    private final String displayName;
+
+    FilterType(String displayName){
+        this.displayName = displayName;
+    }
+
+    /**
+     * Creates a filter of this type
+     * @param windowMillis how much of the signal the filter looks at, the time constant for IIR
+     * @param sampleRate samples per second of the channel
+     * @return the filter, NONE gives an average over one point's samples which is the block average every point gets anyway
+     */
+    public SampleFilter create(double windowMillis, double sampleRate){
+        int samples = Math.max(1, (int) Math.round(windowMillis / 1000.0 * sampleRate));
+        switch(this){
+            case MOVING_AVERAGE:
+                return new MovingAverageFilter(samples);
+            case IIR:
+                return new IirFilter(windowMillis / 1000.0, sampleRate);
+            case FIR:
+                return new FirFilter(samples);
+            case MEDIAN:
+                return new MedianFilter(samples);
+            default:
+                return new MovingAverageFilter(Math.max(1, (int) sampleRate / AITask.BLOCKS_PER_SECOND));
+        }
+    }
+
+    /**
+     * Reads a type written with name(), as stored in settings.cfg and run files
+     * @return the type, or DEFAULT when the name is missing or unknown
+     */
+    public static FilterType parse(String name){
+        for(FilterType type : values()){
+            if(type.name().equals(name)){
+                return type;
+            }
+        }
+        return DEFAULT;
+    }
+
+    @Override
+    public String toString(){
+        return displayName;
+    }
+}
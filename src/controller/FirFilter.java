@@ -0,0 +1,104 @@
+package controller;
+
+import java.util.Arrays;
+
+/**
+ * Windowed sinc low pass. The kernel is computed once, a Hamming windowed sinc normalized to unity gain,
+ * and the history is kept twice over so every output is one straight dot product the JIT can vectorize.
+ * The output lags the input by half the kernel, (taps - 1) / 2 samples.
+ */
+public class FirFilter implements SampleFilter {
+    public static final int MAX_TAPS = 4095;
+    //cutoff in cycles per kernel length, the lowest that still gets the Hamming window's full stop band
+    private static final double CUTOFF_CYCLES = 4.0;
+
+    private final double[] kernel;
+    private final double[] history; //each sample stored at i and i + taps
+    private int next = 0;
+    private boolean started = false;
+
+    /**
+     * Creates a low pass whose kernel spans the given number of samples, up to MAX_TAPS.
+     * The cutoff is CUTOFF_CYCLES over the kernel length, so a longer kernel smooths harder.
+     * @param samples samples the kernel should span, rounded up to an odd number
+     */
+    public FirFilter(int samples){
+        this(kernelLength(samples), CUTOFF_CYCLES / kernelLength(samples));
+    }
+
+    /**
+     * @param taps length of the kernel, odd so the delay is a whole number of samples
+     * @param cutoff cutoff frequency in cycles per sample, at most 0.5
+     */
+    public FirFilter(int taps, double cutoff){
+        if(taps < 1 || taps % 2 == 0){
+            throw new IllegalArgumentException("An FIR kernel needs an odd number of taps, got " + taps);
+        }
+        kernel = lowPass(taps, Math.min(0.5, cutoff));
+        history = new double[2 * taps];
+    }
+
+    /*
+     * Rounds a window to an odd kernel length no longer than MAX_TAPS
+     */
+    private static int kernelLength(int samples){
+        return Math.min(MAX_TAPS, Math.max(1, samples) | 1);
+    }
+
+    /*
+     * Hamming windowed sinc with its taps summing to one
+     */
+    private static double[] lowPass(int taps, double cutoff){
+        double[] kernel = new double[taps];
+        int middle = taps / 2;
+        double sum = 0.0;
+        for(int i = 0; i < taps; i++){
+            int n = i - middle;
+            double sinc = n == 0 ? 2.0 * cutoff : Math.sin(2.0 * Math.PI * cutoff * n) / (Math.PI * n);
+            double window = taps == 1 ? 1.0 : 0.54 - 0.46 * Math.cos(2.0 * Math.PI * i / (taps - 1));
+            kernel[i] = sinc * window;
+            sum += kernel[i];
+        }
+        for(int i = 0; i < taps; i++){
+            kernel[i] /= sum;
+        }
+        return kernel;
+    }
+
+    @Override
+    public void process(double[] data, int offset, int length){
+        if(length <= 0){
+            return;
+        }
+        int taps = kernel.length;
+        if(!started){
+            //act as if the first sample had always been there instead of ramping up from zero
+            Arrays.fill(history, data[offset]);
+            started = true;
+        }
+        int end = offset + length;
+        for(int i = offset; i < end; i++){
+            history[next] = data[i];
+            history[next + taps] = data[i];
+            if(++next == taps){
+                next = 0;
+            }
+            //history[next .. next + taps) is oldest to newest, the kernel is symmetric so no reversal is needed
+            double total = 0.0;
+            for(int k = 0; k < taps; k++){
+                total += kernel[k] * history[next + k];
+            }
+            data[i] = total;
+        }
+    }
+
+    @Override
+    public void reset(){
+        next = 0;
+        started = false;
+    }
+
+    public int getTaps(){
+        return kernel.length;
+    }
+}
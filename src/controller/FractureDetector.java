@@ -0,0 +1,125 @@
+package controller;
+
+import model.RunEvent;
+
+/**
+ * Tracks the ultimate tensile strength and finds the fracture as the points of a test arrive.
+ * The ultimate is simply the highest stress so far. A fracture is a drop of at least dropFraction of the ultimate
+ * from the highest stress of the last windowPoints points, so a slow necking decline is not taken for a break.
+ * The recent highest stress comes from a monotonic queue, which makes every point O(1) amortized.
+ * Points are added on the processing thread, the results can be read from any thread.
+ */
+public class FractureDetector {
+    public static final double DEFAULT_DROP_FRACTION = 0.4;
+    public static final int DEFAULT_WINDOW_POINTS = 10;
+
+    private final double dropFraction;
+    private final int windowPoints;
+    //recent points with stress decreasing from head to tail, any point below a later one can never be the maximum
+    private final long[] queuePoints;
+    private final double[] queueStress;
+    private int head;
+    private int length;
+    private volatile RunEvent ultimate; //null before the first point
+    private volatile RunEvent fracture; //null until the specimen breaks
+
+    /**
+     * @param dropFraction how much of the ultimate the stress has to fall by to count as a fracture
+     * @param windowPoints how many points the fall has to happen within
+     */
+    public FractureDetector(double dropFraction, int windowPoints){
+        if(dropFraction <= 0.0 || dropFraction > 1.0){
+            throw new IllegalArgumentException("Drop fraction must be above 0 and at most 1");
+        }
+        if(windowPoints < 1){
+            throw new IllegalArgumentException("Window must be at least one point");
+        }
+        this.dropFraction = dropFraction;
+        this.windowPoints = windowPoints;
+        queuePoints = new long[windowPoints + 1];
+        queueStress = new double[windowPoints + 1];
+    }
+
+    /**
+     * Adds the latest point
+     * @param point index of the point in the run
+     * @param time seconds since the start of the run
+     * @param strain strain of the point
+     * @param stress stress of the point
+     * @param armed whether a fracture can be found yet, false until the elastic region has been fitted so noise
+     *              around zero load is never taken for a break
+     * @return true if the specimen broke at this point
+     */
+    public boolean add(long point, double time, double strain, double stress, boolean armed){
+        if(fracture != null){
+            return false;
+        }
+        RunEvent peak = ultimate;
+        if(peak == null || stress > peak.getStress()){
+            peak = new RunEvent(RunEvent.Type.ULTIMATE, point, time, strain, stress);
+            ultimate = peak;
+        }
+
+        //drop points that left the window from the head and points this one outranks from the tail
+        while(length > 0 && queuePoints[head] <= point - windowPoints - 1){
+            head = (head + 1) % queuePoints.length;
+            length--;
+        }
+        while(length > 0 && queueStress[(head + length - 1) % queueStress.length] <= stress){
+            length--;
+        }
+        int tail = (head + length) % queuePoints.length;
+        queuePoints[tail] = point;
+        queueStress[tail] = stress;
+        length++;
+
+        double recentHigh = queueStress[head];
+        if(armed && peak.getStress() > 0.0 && recentHigh - stress >= dropFraction * peak.getStress()){
+            fracture = new RunEvent(RunEvent.Type.FRACTURE, point, time, strain, stress);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Converts what was found to other stress units
+     */
+    public void scaleStress(double factor){
+        ultimate = scale(ultimate, factor);
+        fracture = scale(fracture, factor);
+        for(int i = 0; i < queueStress.length; i++){
+            queueStress[i] *= factor;
+        }
+    }
+
+    private static RunEvent scale(RunEvent event, double factor){
+        if(event == null){
+            return null;
+        }
+        return new RunEvent(event.getType(), event.getPoint(), event.getTime(), event.getStrain(), event.getStress() * factor);
+    }
+
+    /**
+     * Forgets everything, for the start of a new run
+     */
+    public void reset(){
+        head = 0;
+        length = 0;
+        ultimate = null;
+        fracture = null;
+    }
+
+    /**
+     * @return the point with the highest stress so far, its stress is the ultimate tensile strength, or null before the first point
+     */
+    public RunEvent getUltimate(){
+        return ultimate;
+    }
+
+    /**
+     * @return the point the specimen broke at, or null if it has not broken
+     */
+    public RunEvent getFracture(){
+        return fracture;
+    }
+}
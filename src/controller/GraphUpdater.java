@@ -2,56 +2,143 @@ package controller;
 
 import kirkwood.nidaq.access.NiDaqException;
 import model.AITask;
-import org.jfree.data.xy.XYSeries;
+import model.AcquisitionEngine;
+import model.AcquisitionMetrics;
+import model.ChannelStatistics;
+import model.PipelineLatency;
+import model.PipelineLatency.Stage;
+import model.PointRecorder;
+import model.RunEvent;
+import model.RunHeader;
+import model.SampleRingBuffer;
+import model.SampleStore;
+import model.TareCollector;
+import view.DecimatedDataset;
+import view.SettingsView;
 import controller.Calculations.Units;
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Live graphs data
+ * Live graphs data.
+ * The acquisition thread only copies samples into a ring buffer,
+ * this thread does the filtering, conversions and graphing so a slow repaint never stalls the DAQ read.
  */
 public class GraphUpdater extends Thread{
-    private final XYSeries series;
+    private static final int RING_SECONDS = 2; //how long processing can stall before samples are dropped
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long TARE_TIMEOUT_MILLIS = 5000;
+    private static final double POST_FRACTURE_SECONDS = 0.5; //how much of the run after the break is still recorded
+    public static final double DEFAULT_MAX_RUN_SECONDS = 3600;
+
+    private final DecimatedDataset dataset;
+    private final SampleStore store;
     private final AtomicBoolean done = new AtomicBoolean(false);
     private final AtomicBoolean run = new AtomicBoolean(false);
     private final AITask aiTask;
+    private final AcquisitionEngine engine;
+    private final ChannelStatistics statistics;
+    private final PipelineLatency latency;
+    private final ModulusEstimator modulus = new ModulusEstimator(ModulusEstimator.DEFAULT_WINDOW_POINTS);
+    private final YieldDetector yieldDetector = new YieldDetector();
+    private volatile FractureDetector fractureDetector = new FractureDetector(FractureDetector.DEFAULT_DROP_FRACTION, FractureDetector.DEFAULT_WINDOW_POINTS);
+    private volatile boolean stopOnFracture = true;
+    private volatile double maxRunSeconds = DEFAULT_MAX_RUN_SECONDS;
+    private final RateEstimator rates = new RateEstimator(RateEstimator.DEFAULT_WINDOW_POINTS);
+    private volatile RateMonitor rateMonitor = new RateMonitor(RateMonitor.DEFAULT_MIN_PER_MINUTE / 60, RateMonitor.DEFAULT_MAX_PER_MINUTE / 60, RateMonitor.DEFAULT_HOLD_POINTS);
+    private final SampleRingBuffer ringBuffer;
+    private final double[][] chunk;
+    private final int samplesPerPoint;
+    private long samplesProcessed; //sample clock index past the last processed sample, counted from the start of the run
+    private long clockOffset; //added to sample clock indexes to count from the start of the run
+    private long recordUntil; //samples of the run that are recorded, nothing past it is
+    private RunEvent.Type endReason; //why recordUntil was set
+    private boolean ended; //recordUntil was reached
+    private volatile PointRecorder[] recorders = new PointRecorder[0]; //where the current run is recorded
     private final MainController mainController;
-    private double stressZero = 0.0; //force 0 -> stress
-    private double strainZero = 0.0; //elongation -> strain (Extensometer)
-
-    private static double LBS_PER_VOLT;
-    private static double INCHES_PER_VOLT;
+    private final PointProcessor processor;
+    private Tare forceTare; //last tare applied, null before the first
+    private Tare elongationTare;
+    private final SettingsController settingsController;
+    private final AITask.Mode forceMode; //the modes the channels were created in
+    private final AITask.Mode elongationMode;
+    private volatile RunHeader recordedSettings; //null when the settings come from the windows
 
-    public GraphUpdater(XYSeries series, MainController mainController, SettingsController settingsController) throws NiDaqException {
-        aiTask = new AITask();
+    public GraphUpdater(AITask aiTask, DecimatedDataset dataset, SampleStore store, MainController mainController, SettingsController settingsController,
+                        PipelineLatency latency) throws NiDaqException {
+        this.aiTask = aiTask;
+        this.latency = latency;
+        forceMode = settingsController.getSettingsWindow().getForceMode();
+        elongationMode = settingsController.getSettingsWindow().getElongationMode();
         // DO NOT CHANGE THE ORDER OF THE NEXT 2 LINES
-        aiTask.createAIChannel(settingsController.getSettingsWindow().getForceChannel(), settingsController.getSettingsWindow().getForceMode()); //Force
-        aiTask.createAIChannel(settingsController.getSettingsWindow().getElongationChannel(), settingsController.getSettingsWindow().getElongationMode()); //Elongation
+        aiTask.createAIChannel(settingsController.getSettingsWindow().getForceChannel(), forceMode); //Force
+        aiTask.createAIChannel(settingsController.getSettingsWindow().getElongationChannel(), elongationMode); //Elongation
         aiTask.readyToRun();
 
-        LBS_PER_VOLT = settingsController.getSettingsWindow().getForceVoltage2UnitConstant();
-        INCHES_PER_VOLT = settingsController.getSettingsWindow().getElongationVoltage2UnitConstant();
+        processor = new PointProcessor(settingsController.getSettingsWindow().getForceVoltage2UnitConstant(),
+                settingsController.getSettingsWindow().getElongationVoltage2UnitConstant());
 
         this.mainController = mainController;
-        this.series = series;
+        this.settingsController = settingsController;
+        this.dataset = dataset;
+        this.store = store;
+
+        ringBuffer = new SampleRingBuffer(aiTask.getChannels(), (int) aiTask.getSampleRate() * RING_SECONDS);
+        samplesPerPoint = Math.max(1, (int) aiTask.getSampleRate() / AITask.BLOCKS_PER_SECOND);
+        chunk = new double[aiTask.getChannels()][samplesPerPoint];
+        engine = new AcquisitionEngine(aiTask);
+        //blocks read while taring are not part of the run
+        engine.addListener(block -> {
+            if(run.get()){
+                int written = ringBuffer.write(block);
+                if(written < block.size()){
+                    engine.getMetrics().dropped(block.size() - written);
+                }
+            }
+        });
+        statistics = new ChannelStatistics(aiTask.getChannels(), aiTask.getSampleRate(), ChannelStatistics.DEFAULT_WINDOW_SECONDS);
+        engine.addListener(statistics);
+        //last, so it covers every listener before it
+        engine.addListener(block -> latency.record(Stage.HANDOFF, System.nanoTime() - block.getAnchorNanos()));
+    }
+
+    /**
+     * Starts the acquisition thread and the processing thread, both wait until collect is called
+     */
+    @Override
+    public synchronized void start(){
+        engine.start();
+        super.start();
     }
 
     /**
      * Runs the graph updater thread.
-     * Adds data from National Instruments Chip to the series
+     * Takes the samples the acquisition thread left in the ring buffer and adds them to the store
      */
     @Override
     public void run() {
-        SlidingAverage forceAveraged = new SlidingAverage(AITask.UPDATES_PER_SECOND);
-        SlidingAverage elongationAveraged = new SlidingAverage(AITask.UPDATES_PER_SECOND);
-        while(!done.get()) {//call code from class that gets data from the chip.
+        while(!done.get()) {
             try {
                 if(!run.get()){
+                    //anything left over from before the pause belongs to the previous run
+                    ringBuffer.discard();
+                    flushRecorders();
                     synchronized (this){
-                        wait();
+                        while(!run.get() && !done.get()) {
+                            wait();
+                        }
+                    }
+                    if(store.isEmpty()){
+                        samplesProcessed = 0;
+                        clockOffset = 0;
+                        recordUntil = (long) (maxRunSeconds * aiTask.getSampleRate());
+                        endReason = RunEvent.Type.LIMIT;
+                        ended = false;
                     }
                 }
-
-                Thread.sleep(50);
             } catch (InterruptedException e) {
                 //do nothing
             }
@@ -60,24 +147,155 @@ public class GraphUpdater extends Thread{
                 return;
             }
 
-            aiTask.collectData();
-            double force = aiTask.getChannelData(0);
-            double length = aiTask.getChannelData(1); // raw voltage data
+            if(ringBuffer.size() < samplesPerPoint){
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
 
-            double forceValue = (LBS_PER_VOLT * (forceAveraged.addData(force)  - stressZero));
-            double elongationValue = (INCHES_PER_VOLT * (elongationAveraged.addData(length)  - strainZero));
+            int samples = ringBuffer.read(chunk, samplesPerPoint);
+            processChunk(samples);
+        }
+    }
 
-            if(mainController.getUnitSystem().equals("Metric")){
-                forceValue = Calculations.convertForce(Calculations.Units.ENGLISH, Calculations.Units.METRIC,forceValue);
-                elongationValue = Calculations.convertLength(Calculations.Units.ENGLISH, Calculations.Units.METRIC, elongationValue);
-            }else{
-                forceValue /= 1000;
+    /*
+     * Filters and averages one block worth of samples into a point on the graph and in the store
+     */
+    private void processChunk(int samples) {
+        long started = System.nanoTime();
+        long readNanos = ringBuffer.getReadLastNanos();
+        latency.record(Stage.QUEUE, started - readNanos);
+        processor.process(chunk[AITask.FORCE_CHANNEL], chunk[AITask.LENGTH_CHANNEL], samples);
+        double force = processor.getForceVolts();
+        double length = processor.getElongationVolts(); // raw voltage data
+        double stressValue = processor.getStress();
+        double strainValue = processor.getStrain();
+        long processed = System.nanoTime();
+        latency.record(Stage.PROCESS, processed - started);
+
+        //time comes from the sample clock, so samples lost on the way leave a gap instead of shifting what follows
+        long firstSample = ringBuffer.getReadFirstSample() + clockOffset;
+        if(firstSample < samplesProcessed){
+            //the clock was restarted, carry on from where the run was
+            clockOffset = samplesProcessed - ringBuffer.getReadFirstSample();
+            firstSample = samplesProcessed;
+        }
+        double time = firstSample / aiTask.getSampleRate();
+        rates.add(time, strainValue, stressValue);
+        double strainRate = rates.getStrainRate();
+        double stressRate = rates.getStressRate();
+        store.append(time, force, length, stressValue, strainValue, strainRate, stressRate);
+        long point = store.size() - 1;
+        modulus.add(strainValue, stressValue);
+        boolean yielded = yieldDetector.getYield() != null;
+        yieldDetector.add(strainValue, stressValue, modulus.getEstimate());
+        YieldDetector.Yield yield = yieldDetector.getYield();
+        if(!yielded && yield != null){
+            recordEvent(new RunEvent(RunEvent.Type.YIELD, point, time, yield.getStrain(), yield.getStress()));
+        }
+        //the band is for measuring the yield properties, from the elastic region up to the yield point
+        RateMonitor monitor = rateMonitor;
+        if(monitor.check(strainRate, modulus.getEstimate() != null && yield == null)){
+            recordEvent(new RunEvent(monitor.isOutOfBand() ? RunEvent.Type.RATE_OUT_OF_BAND : RunEvent.Type.RATE_IN_BAND,
+                    point, time, strainValue, stressValue));
+        }
+        FractureDetector fractures = fractureDetector;
+        if(fractures.add(point, time, strainValue, stressValue, modulus.getEstimate() != null)){
+            recordEvent(fractures.getUltimate());
+            recordEvent(fractures.getFracture());
+            //keep a little of what comes after the break, then the run is over
+            recordUntil = Math.min(recordUntil, firstSample + (long) (POST_FRACTURE_SECONDS * aiTask.getSampleRate()));
+            endReason = RunEvent.Type.FRACTURE;
+        }
+        samplesProcessed = firstSample + samples;
+
+        if(ended){
+            pointDone(readNanos, processed);
+            return;
+        }
+        for(PointRecorder recorder : recorders){
+            try {
+                recorder.appendSamples(chunk, samples, firstSample);
+                recorder.append(time, force, length, stressValue, strainValue, strainRate, stressRate);
+            } catch (IOException e) {
+                //keep collecting, the store still has every point
+                e.printStackTrace();
+                removeRecorder(recorder);
             }
+        }
+        if(samplesProcessed >= recordUntil){
+            endRun(point, time, strainValue, stressValue);
+        }
+        pointDone(readNanos, processed);
+    }
 
-            double stressValue = Calculations.calculateStress(forceValue, mainController.findArea());
-            double strainValue = Calculations.calculateStrain(elongationValue, mainController.getGaugeLength());
+    /*
+     * Times the rest of a point and hands it over to the chart side of the latency
+     */
+    private void pointDone(long readNanos, long processed){
+        long done = System.nanoTime();
+        latency.record(Stage.RECORD, done - processed);
+        latency.pointProcessed(readNanos, done);
+    }
 
-            series.add(strainValue, stressValue, true);
+    /*
+     * Stops recording once the specimen has broken or the run is as long as it may be,
+     * and stops collecting too unless a fracture should not stop it
+     */
+    private void endRun(long point, double time, double strain, double stress){
+        ended = true;
+        RunEvent.Type reason = endReason;
+        if(reason == RunEvent.Type.LIMIT){
+            recordEvent(new RunEvent(RunEvent.Type.LIMIT, point, time, strain, stress));
+        }
+        flushRecorders();
+        if(reason == RunEvent.Type.LIMIT || stopOnFracture){
+            run.set(false);
+            SwingUtilities.invokeLater(() -> mainController.autoStopped(reason));
+        }
+    }
+
+    /*
+     * Adds an event to the recordings of the run
+     */
+    private void recordEvent(RunEvent event){
+        if(ended){
+            return;
+        }
+        for(PointRecorder recorder : recorders){
+            try {
+                recorder.appendEvent(event);
+            } catch (IOException e) {
+                e.printStackTrace();
+                removeRecorder(recorder);
+            }
+        }
+    }
+
+    /*
+     * Stops recording to a recorder that failed
+     */
+    private void removeRecorder(PointRecorder failed){
+        PointRecorder[] current = recorders;
+        PointRecorder[] remaining = new PointRecorder[current.length - 1];
+        int next = 0;
+        for(PointRecorder recorder : current){
+            if(recorder != failed && next < remaining.length){
+                remaining[next++] = recorder;
+            }
+        }
+        recorders = remaining;
+    }
+
+    /*
+     * Writes out what the recorders have buffered so a pause leaves complete files on disk
+     */
+    private void flushRecorders(){
+        for(PointRecorder recorder : recorders){
+            try {
+                recorder.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
     }
 
@@ -86,16 +304,45 @@ public class GraphUpdater extends Thread{
      */
     public void pause(){
         run.set(false);
-        aiTask.pause();
-
+        engine.pause();
+        AcquisitionMetrics metrics = engine.getMetrics();
+        if(metrics.isLosingSamples()){
+            System.err.println("GraphUpdater: " + metrics.getOverruns() + " driver buffer overruns, " + metrics.getSamplesLost()
+                    + " samples lost by the driver, " + metrics.getSamplesDropped() + " dropped because processing fell behind.");
+        }
     }
 
     /**
      * Resumes the graph updater thread
      */
     public synchronized void collect(){
+        RunHeader recorded = recordedSettings;
+        if(recorded == null){
+            //inputs cannot change while collecting, so the processing thread can keep its own copy
+            processor.setSpecimen(mainController.getUnitSystem(), mainController.findArea(), mainController.getGaugeLength());
+        }
+        if(store.isEmpty()){
+            statistics.reset();
+            engine.getMetrics().reset();
+            latency.reset();
+            modulus.reset();
+            yieldDetector.reset();
+            fractureDetector.reset();
+            rates.reset();
+            rateMonitor.reset();
+            if(recorded != null){
+                //a replay of a run with everything it was recorded with
+                processor.setRecordedSettings(recorded);
+            }else{
+                //a new run starts with fresh filters, picking up any change made in the settings window
+                SettingsView settings = settingsController.getSettingsWindow();
+                processor.setFilters(settings.getForceFilter().create(settings.getForceFilterMillis(), aiTask.getSampleRate()),
+                        settings.getElongationFilter().create(settings.getElongationFilterMillis(), aiTask.getSampleRate()));
+            }
+        }
         run.set(true);
         notifyAll();
+        engine.collect();
     }
 
     /**
@@ -104,43 +351,181 @@ public class GraphUpdater extends Thread{
     public synchronized void terminate() {
         done.set(true);
         notifyAll();
+        engine.terminate();
     }
 
-    /*
-     * Updates the zero points for the voltages
+    /**
+     * Tares the channels: runs the acquisition with the machine idle until a window of raw samples has been
+     * captured and works out each channel's offset from it. Blocks, so call it off the event dispatch thread,
+     * and only while not collecting. The offsets are only used once passed to setZeros.
+     * @param seconds how much signal to tare on
+     * @return the force and elongation tares, in that order, not usable if the window did not fill in time
      */
-    protected void updateZeros(){
-        double forceTotal = 0.0;
-        double elongationTotal = 0.0;
-        aiTask.collectData();
-
-        for(int i = 0; i < AITask.UPDATES_PER_SECOND; i++){
-            double channel0 = aiTask.getChannelData(AITask.FORCE_CHANNEL);
-            double channel1 = aiTask.getChannelData(AITask.LENGTH_CHANNEL);
-
-            forceTotal += channel0;
-            elongationTotal += channel1;
+    public Tare[] tare(double seconds) throws InterruptedException {
+        TareCollector collector = new TareCollector(aiTask.getChannels(), Math.max(2, (int) (seconds * aiTask.getSampleRate())));
+        aiTask.setIdle(true);
+        engine.addListener(collector);
+        engine.collect();
+        boolean complete;
+        try {
+            //a read can wait up to a block, give the hardware a little longer before giving up on it
+            complete = collector.await((long) (seconds * 1000) + TARE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } finally {
+            engine.pause();
+            engine.removeListener(collector);
+            aiTask.setIdle(false);
         }
+        int count = collector.getCount();
+        return new Tare[]{Tare.of(collector.getSamples(AITask.FORCE_CHANNEL), count, complete, forceMode),
+                Tare.of(collector.getSamples(AITask.LENGTH_CHANNEL), count, complete, elongationMode)};
+    }
 
-        stressZero = forceTotal / AITask.UPDATES_PER_SECOND;
-        strainZero = elongationTotal / AITask.UPDATES_PER_SECOND;
+    /**
+     * Zeros the channels on the offsets of a tare
+     */
+    public void applyTare(Tare force, Tare elongation){
+        forceTare = force;
+        elongationTare = elongation;
+        processor.setZeros(force.getOffset(), elongation.getOffset());
     }
 
     /**
      * Updates the graph units based on starting and ending units
      * @param startingUnits the units that currently appear on the graph
      * @param endingUnits the units a user wants to convert to
-     * @param series that data in (x,y) format that is shown on the graph
      */
-    public void updateGraphUnits(Units startingUnits, Units endingUnits, XYSeries series){
-        for(int i = 0; i < series.getItemCount(); i++){
-            double yValue = series.getY(i).doubleValue();
-            yValue = Calculations.convertPressure(startingUnits, endingUnits, yValue);
-            series.updateByIndex(i, yValue);
-        }
+    public void updateGraphUnits(Units startingUnits, Units endingUnits){
+        double factor = Calculations.convertPressure(startingUnits, endingUnits, 1.0);
+        store.scale(SampleStore.Column.STRESS, factor);
+        store.scale(SampleStore.Column.STRESS_RATE, factor);
+        rates.scaleStress(factor);
+        modulus.scaleStress(factor);
+        yieldDetector.scaleStress(factor);
+        fractureDetector.scaleStress(factor);
+        dataset.rebuild();
+    }
+
+    /**
+     * Sets when a run ends by itself. Only call while not collecting.
+     * @param detector finds the fracture
+     * @param stopOnFracture whether to stop collecting shortly after the fracture, the recording ends there either way
+     * @param maxRunSeconds longest a run can be recorded for before it is stopped
+     */
+    public void setAutoStop(FractureDetector detector, boolean stopOnFracture, double maxRunSeconds){
+        this.fractureDetector = detector;
+        this.stopOnFracture = stopOnFracture;
+        this.maxRunSeconds = maxRunSeconds;
+    }
+
+    /**
+     * Sets the band the strain rate is checked against. Only call while not collecting.
+     */
+    public void setRateMonitor(RateMonitor monitor){
+        this.rateMonitor = monitor;
+    }
+
+    /**
+     * Makes every run take its constants, filters and specimen from a recorded run instead of the
+     * settings and input windows, so a replay reproduces it. Null goes back to the windows.
+     */
+    public void setRecordedSettings(RunHeader header){
+        recordedSettings = header;
+    }
+
+    /**
+     * @return the recorded run every run takes its settings from, null when they come from the windows
+     */
+    public RunHeader getRecordedSettings(){
+        return recordedSettings;
+    }
+
+    /**
+     * Sets where processed points are recorded while collecting
+     * @param recorders the recorders for the current run, none to stop recording
+     */
+    public void setRecorders(PointRecorder... recorders){
+        this.recorders = recorders.clone();
+    }
+
+    /**
+     * @return samples per second per channel of the acquisition task
+     */
+    public double getSampleRate() {
+        return aiTask.getSampleRate();
+    }
+
+    /**
+     * @return the force channel voltage that reads as zero force
+     */
+    public double getStressZero() {
+        return processor.getStressZero();
+    }
+
+    /**
+     * @return the elongation channel voltage that reads as zero elongation
+     */
+    public double getStrainZero() {
+        return processor.getStrainZero();
+    }
+
+    public Tare getForceTare() {
+        return forceTare;
+    }
+
+    public Tare getElongationTare() {
+        return elongationTare;
+    }
+
+    /**
+     * @return the conversions applied to every point, for settings that come from somewhere other than the settings window
+     */
+    public PointProcessor getProcessor() {
+        return processor;
+    }
+
+    /**
+     * @return live noise statistics of the raw channel voltages, updated on the acquisition thread
+     */
+    public ChannelStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return the live estimate of Young's modulus, in the stress units shown on the graph
+     */
+    public ModulusEstimator getModulus() {
+        return modulus;
+    }
+
+    /**
+     * @return the 0.2% offset yield point of the current run, in the stress units shown on the graph
+     */
+    public YieldDetector getYieldDetector() {
+        return yieldDetector;
+    }
+
+    /**
+     * @return the ultimate tensile strength and fracture of the current run, in the stress units shown on the graph
+     */
+    public FractureDetector getFractureDetector() {
+        return fractureDetector;
+    }
+
+    /**
+     * @return whether the strain rate of the current run is in its band
+     */
+    public RateMonitor getRateMonitor() {
+        return rateMonitor;
+    }
+
+    /**
+     * @return backlog, read sizes and lost samples of the acquisition, updated on the acquisition thread
+     */
+    public AcquisitionMetrics getAcquisitionMetrics() {
+        return engine.getMetrics();
     }
 
-    public XYSeries getSeries() {
-        return series;
+    public SampleRingBuffer getRingBuffer() {
+        return ringBuffer;
     }
 }
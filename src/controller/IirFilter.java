@@ -0,0 +1,50 @@
+package controller;
+
+/**
+ * Single pole low pass, y += alpha * (x - y), the cheapest smoothing there is and free of any window.
+ * The time constant plays the part of the window, a step is 63% through after one time constant.
+ */
+public class IirFilter implements SampleFilter {
+    private final double alpha;
+    private double output;
+    private boolean started = false;
+
+    /**
+     * @param timeConstant seconds for a step to get 63% of the way to its new value
+     * @param sampleRate samples per second of the channel
+     */
+    public IirFilter(double timeConstant, double sampleRate){
+        if(!(timeConstant > 0.0) || !(sampleRate > 0.0)){
+            throw new IllegalArgumentException("Time constant and sample rate must be positive");
+        }
+        alpha = 1.0 - Math.exp(-1.0 / (timeConstant * sampleRate));
+    }
+
+    @Override
+    public void process(double[] data, int offset, int length){
+        if(length <= 0){
+            return;
+        }
+        if(!started){
+            //start at the first sample instead of ramping up from zero
+            output = data[offset];
+            started = true;
+        }
+        double y = output;
+        int end = offset + length;
+        for(int i = offset; i < end; i++){
+            y += alpha * (data[i] - y);
+            data[i] = y;
+        }
+        output = y;
+    }
+
+    @Override
+    public void reset(){
+        started = false;
+    }
+
+    public double getAlpha(){
+        return alpha;
+    }
+}
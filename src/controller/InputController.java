@@ -1,5 +1,6 @@
 package controller;
 
+import model.RunHeader;
 import view.UserInputWindow;
 import controller.Calculations.Units;
 
@@ -33,7 +34,7 @@ public class InputController {
 
         inputWindow.getOkButton().addActionListener(e -> {
             inputWindow.setVisible(false);
-            if(mainController.getUpdater() == null || mainController.getUpdater().getSeries().isEmpty()){
+            if(mainController.getSampleStore().isEmpty()){
                 mainController.getMainWindow().getStartButton().setEnabled(true);
             }
             pullInputValues(); //actually store the inputs
@@ -84,7 +85,7 @@ public class InputController {
         double convertedValue;
         if (inputWindow.getUnitSelectionBox().getSelectedItem().equals("English")) {
             if(mainController.getUpdater() != null){
-                mainController.getUpdater().updateGraphUnits(inputWindow.getCurrentUnitSystem(), Units.ENGLISH, mainController.getMainWindow().getSeries());
+                mainController.getUpdater().updateGraphUnits(inputWindow.getCurrentUnitSystem(), Units.ENGLISH);
             }
             convertedValue = Calculations.convertLength(inputWindow.getCurrentUnitSystem(), Units.ENGLISH, getGaugeLengthInput());
             inputWindow.setCurrentUnitSystem(Units.ENGLISH);
@@ -100,7 +101,7 @@ public class InputController {
             inputWindow.getWidthLabel().setText("Width (in): ");
         }else {
             if(mainController.getUpdater() != null) {
-                mainController.getUpdater().updateGraphUnits(inputWindow.getCurrentUnitSystem(), Units.METRIC, mainController.getMainWindow().getSeries());
+                mainController.getUpdater().updateGraphUnits(inputWindow.getCurrentUnitSystem(), Units.METRIC);
             }
             convertedValue = Calculations.convertLength(inputWindow.getCurrentUnitSystem(), Units.METRIC, getGaugeLengthInput());
             inputWindow.setCurrentUnitSystem(Units.METRIC);
@@ -116,6 +117,7 @@ public class InputController {
             inputWindow.getWidthLabel().setText("Width (mm): ");
         }
         inputWindow.getGaugeLengthInputField().setText(String.format("%.10f", convertedValue));
+        mainController.updateReadouts(); //the modulus is shown in stress units
     }
 
     /**
@@ -150,6 +152,22 @@ public class InputController {
         unitSystem = (String) inputWindow.getUnitSelectionBox().getSelectedItem();
     }
 
+    /*
+     * Fills in and stores the specimen a recorded run was pulled with, so a replay shows and exports it
+     */
+    protected void loadRecordedInputs(RunHeader header){
+        inputWindow.getUnitSelectionBox().setSelectedItem(header.getUnitSystem());
+        inputWindow.getRectangularButton().setSelected(header.isRectangular());
+        inputWindow.getCircularButton().setSelected(!header.isRectangular());
+        inputWindow.getRectangularInputPanel().setVisible(header.isRectangular());
+        inputWindow.getCircularInputPanel().setVisible(!header.isRectangular());
+        inputWindow.getWidthInputField().setText(String.valueOf(header.getWidth()));
+        inputWindow.getDepthInputField().setText(String.valueOf(header.getDepth()));
+        inputWindow.getDiameterInputField().setText(String.valueOf(header.getDiameter()));
+        inputWindow.getGaugeLengthInputField().setText(String.format("%.10f", header.getGaugeLength()));
+        pullInputValues();
+    }
+
     /*
      * Updates the input fields to be what the stored values are
      * This will likely be reverting the fields back to what they were previously after the cancel is selected
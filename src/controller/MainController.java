@@ -2,21 +2,68 @@ package controller;
 
 import controller.Calculations.Units;
 import kirkwood.nidaq.access.NiDaqException;
+import model.AITask;
+import model.MaterialCurve;
+import model.NiAITask;
+import model.PipelineLatency;
+import model.ReplayAITask;
+import model.RunEvent;
+import model.RunFileReader;
+import model.RunFileWriter;
+import model.RunHeader;
+import model.SampleStore;
+import model.SimulatedAITask;
+import org.jfree.chart.event.ChartProgressEvent;
 import view.MainWindow;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import javax.swing.*;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Root of the entire program, controls all the main window functionality and some interactions between windows
  * NOTE: This should be the only main method ever actually run
  */
 public class MainController {
+    //-Dtensile.daq=simulated runs without hardware, -Dtensile.daq=<csv file> simulates a strain,stress curve,
+    //-Dtensile.daq=<run file> plays back a recorded run
+    private static final String DAQ_PROPERTY = "tensile.daq";
+    private static final String SIMULATED_RATE_PROPERTY = "tensile.daq.rate";
+    private static final String SIMULATED_NOISE_PROPERTY = "tensile.daq.noise";
+    private static final String SIMULATED_SECONDS_PROPERTY = "tensile.daq.seconds";
+    private static final String SIMULATED_PACED_PROPERTY = "tensile.daq.paced";
+    //-Dtensile.chart.fps=60 changes how often the chart repaints while collecting
+    private static final String CHART_FPS_PROPERTY = "tensile.chart.fps";
+    //-Dtensile.tare.seconds=5 changes how much signal the channels are zeroed on
+    private static final String TARE_SECONDS_PROPERTY = "tensile.tare.seconds";
+    //-Dtensile.fracture.drop=0.4 -Dtensile.fracture.points=10 set how far and how fast the stress has to fall to be a fracture,
+    //-Dtensile.autostop=false keeps collecting after a fracture, -Dtensile.run.maxseconds=3600 bounds the length of a run
+    private static final String FRACTURE_DROP_PROPERTY = "tensile.fracture.drop";
+    private static final String FRACTURE_POINTS_PROPERTY = "tensile.fracture.points";
+    private static final String AUTO_STOP_PROPERTY = "tensile.autostop";
+    private static final String MAX_RUN_SECONDS_PROPERTY = "tensile.run.maxseconds";
+    //-Dtensile.rate.min=0.009 -Dtensile.rate.max=0.021 set the strain rate band, per minute
+    private static final String MIN_RATE_PROPERTY = "tensile.rate.min";
+    private static final String MAX_RATE_PROPERTY = "tensile.rate.max";
+    //-Dtensile.latency.log=60 prints the pipeline latencies to the error stream this often while collecting, 0 turns it off
+    private static final String LATENCY_LOG_PROPERTY = "tensile.latency.log";
+    private static final int READOUT_INTERVAL_MS = 500; //how often the noise and modulus readouts update
+    private static final File RECORDING_DIRECTORY = new File("recordings"); //every run is written here as it happens
 
     private final MainWindow mainWindow;
     private final InputController inputController;
     private final SettingsController settingsController;
     private final ExportController exportController;
+    private final SampleStore sampleStore = new SampleStore(); //every point of the current run
+    private final ChartRefresher chartRefresher;
+    private final Timer readoutTimer = new Timer(READOUT_INTERVAL_MS, e -> updateReadouts());
+    private final PipelineLatency latency = new PipelineLatency(); //time from a DAQ read to the chart showing it
+    private final Timer latencyLogTimer; //null when the log is turned off
+    private CsvRecorder recorder; //csv recording of the current run, null before the first start
+    private RunFileWriter runWriter; //binary recording of the current run
     private boolean isStart = true;
     private GraphUpdater updater;
 
@@ -29,13 +76,26 @@ public class MainController {
 
     public MainController(){
         setLookAndFeel();
-        mainWindow = new MainWindow();
+        mainWindow = new MainWindow(sampleStore);
+        chartRefresher = new ChartRefresher(Integer.getInteger(CHART_FPS_PROPERTY, ChartRefresher.DEFAULT_FRAMES_PER_SECOND),
+                latency, mainWindow.getDataset(), mainWindow.getRateDataset());
+        mainWindow.getChart().addProgressListener(e -> {
+            if(e.getType() == ChartProgressEvent.DRAWING_FINISHED){
+                latency.chartPainted();
+            }
+        });
+        int latencyLogSeconds = Integer.getInteger(LATENCY_LOG_PROPERTY, 60);
+        latencyLogTimer = latencyLogSeconds > 0 ? new Timer(latencyLogSeconds * 1000, e -> System.err.print(latency.report())) : null;
         inputController = new InputController(this);
         settingsController = new SettingsController(inputController, this);
-        exportController = new ExportController(mainWindow.getSeries(), this, inputController);
+        exportController = new ExportController(sampleStore, this, inputController);
 
         mainWindow.getInput().addActionListener(e ->inputController.getInputWindow().setVisible(true));
         mainWindow.getSettings().addActionListener(e -> settingsController.getSettingsWindow().setVisible(true));
+        mainWindow.getDiagnostics().addActionListener(e -> {
+            mainWindow.getLatencyPanel().update(latency);
+            mainWindow.showDiagnostics();
+        });
 
         mainWindow.getReset().addActionListener(e -> {
             if(exportController.isUnsaved){
@@ -80,14 +140,36 @@ public class MainController {
             if(isStart){
                 try {
                     if (updater == null) {
-                        updater = new GraphUpdater(mainWindow.getSeries(), this, settingsController);
+                        AITask task = createAITask();
+                        updater = new GraphUpdater(task, mainWindow.getDataset(), sampleStore, this, settingsController, latency);
+                        updater.setAutoStop(new FractureDetector(
+                                        Double.parseDouble(System.getProperty(FRACTURE_DROP_PROPERTY, String.valueOf(FractureDetector.DEFAULT_DROP_FRACTION))),
+                                        Integer.getInteger(FRACTURE_POINTS_PROPERTY, FractureDetector.DEFAULT_WINDOW_POINTS)),
+                                Boolean.parseBoolean(System.getProperty(AUTO_STOP_PROPERTY, "true")),
+                                Double.parseDouble(System.getProperty(MAX_RUN_SECONDS_PROPERTY, String.valueOf(GraphUpdater.DEFAULT_MAX_RUN_SECONDS))));
+                        updater.setRateMonitor(new RateMonitor(
+                                Double.parseDouble(System.getProperty(MIN_RATE_PROPERTY, String.valueOf(RateMonitor.DEFAULT_MIN_PER_MINUTE))) / 60,
+                                Double.parseDouble(System.getProperty(MAX_RATE_PROPERTY, String.valueOf(RateMonitor.DEFAULT_MAX_PER_MINUTE))) / 60,
+                                RateMonitor.DEFAULT_HOLD_POINTS));
+                        if (task instanceof ReplayAITask) {
+                            //a replay is converted with the constants it was recorded with
+                            RunHeader header = ((ReplayAITask) task).getRun().getHeader();
+                            updater.getProcessor().setUnitsPerVolt(header.getForceUnitsPerVolt(), header.getElongationUnitsPerVolt());
+                            int option = JOptionPane.showOptionDialog(null, "Replay with the filters and specimen the run was recorded with,\nor with the current settings and inputs?", "Replay Settings", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE, null, new Object[]{"Recorded", "Current"}, JOptionPane.YES_OPTION);
+                            if (option != JOptionPane.NO_OPTION) {
+                                updater.setRecordedSettings(header);
+                            }
+                        }
                         updater.start();
                     }
+                    if (updater.getRecordedSettings() != null) {
+                        inputController.loadRecordedInputs(updater.getRecordedSettings());
+                    }
                     //if no input values at all give a warning
                     if (!inputController.haveInputs()) {
                         JOptionPane.showMessageDialog(null, "No cross section inputs given!", "Input Warning", JOptionPane.ERROR_MESSAGE);
                         //if the input values are from the previous round
-                    } else if (areInputsFromPreviousRun()) {
+                    } else if (updater.getRecordedSettings() == null && areInputsFromPreviousRun()) {
                         int option = JOptionPane.showOptionDialog(null, "Input values have not been changed.\nDo you want to update them?\n", "Input Confirmation", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE, null, new Object[]{"Update", "Continue"}, JOptionPane.YES_OPTION);
                         if (option == JOptionPane.NO_OPTION) {
                             getInputValues();
@@ -103,6 +185,11 @@ public class MainController {
                     updater = null;
                     JOptionPane.showMessageDialog(null, "Failed to start data collection.\nCheck that National Instruments device is connected via USB port, then restart this program.", "Device Connected?", JOptionPane.ERROR_MESSAGE);
                     disposeAll();
+                }catch (IllegalArgumentException exception){
+                    //a bad -Dtensile option or a run or curve file that cannot be read
+                    JOptionPane.showMessageDialog(null, "Failed to start data collection.\n" + exception.getMessage() + "\nCheck the -Dtensile options, then restart this program.", "Cannot Start", JOptionPane.ERROR_MESSAGE);
+                    disposeAll();
+                    updater = null;
                 }
             }else {
                 stopDataCollection();
@@ -140,6 +227,44 @@ public class MainController {
         }
     }
 
+    /*
+     * Picks the acquisition backend, the National Instruments chip unless a simulation or replay was asked for
+     */
+    private AITask createAITask(){
+        String daq = System.getProperty(DAQ_PROPERTY);
+        if(daq == null || daq.isEmpty()){
+            return new NiAITask();
+        }
+
+        boolean paced = Boolean.parseBoolean(System.getProperty(SIMULATED_PACED_PROPERTY, "true"));
+        if(daq.endsWith(".run")){
+            try {
+                ReplayAITask task = new ReplayAITask(RunFileReader.open(new File(daq)));
+                task.setPaced(paced);
+                return task;
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read the run to replay: " + daq, e);
+            }
+        }
+
+        double rate = Double.parseDouble(System.getProperty(SIMULATED_RATE_PROPERTY, String.valueOf(AITask.SAMPLES_PER_SECOND)));
+        double noise = Double.parseDouble(System.getProperty(SIMULATED_NOISE_PROPERTY, "0.005"));
+        double seconds = Double.parseDouble(System.getProperty(SIMULATED_SECONDS_PROPERTY, "60"));
+        MaterialCurve curve;
+        if(daq.equals("simulated")){
+            curve = MaterialCurve.idealized(10000, 40, 45, 0.12); //aluminum like curve in KSI
+        }else{
+            try {
+                curve = MaterialCurve.fromCsv(new File(daq));
+            } catch (FileNotFoundException e) {
+                throw new IllegalArgumentException("Cannot read the curve to simulate: " + daq, e);
+            }
+        }
+        SimulatedAITask task = new SimulatedAITask(rate, noise, curve, seconds);
+        task.setPaced(paced);
+        return task;
+    }
+
     /*
      * Disposes of all windows and terminates any current graphing to end the program
      */
@@ -151,22 +276,104 @@ public class MainController {
         if(updater != null){
             updater.terminate();
         }
+        closeRecorder();
     }
 
     /*
-     * Starts collecting data
+     * Tares the channels and then starts collecting data
      */
     private void startDataCollection(){
-        mainWindow.getStartButton().setText("Stop");
+        //read before any button changes, so a bad value leaves them as they were
+        double seconds = Double.parseDouble(System.getProperty(TARE_SECONDS_PROPERTY, String.valueOf(Tare.DEFAULT_SECONDS)));
+        mainWindow.getStartButton().setText("Taring...");
+        mainWindow.getStartButton().setEnabled(false);
         mainWindow.getClearButton().setEnabled(false);
         mainWindow.getInputButton().setEnabled(false);
         //do not allow any of these while data is being pulled
         mainWindow.getReset().setEnabled(false);
         mainWindow.getSettings().setEnabled(false);
         mainWindow.getInput().setEnabled(false);
-        updater.updateZeros();
-        updater.pause();
+
+        new SwingWorker<Tare[], Void>() {
+            @Override
+            protected Tare[] doInBackground() throws Exception {
+                return updater.tare(seconds);
+            }
+
+            @Override
+            protected void done() {
+                mainWindow.getStartButton().setEnabled(true);
+                try {
+                    Tare[] tares = get();
+                    if(acceptTare(tares[AITask.FORCE_CHANNEL], tares[AITask.LENGTH_CHANNEL])){
+                        updater.applyTare(tares[AITask.FORCE_CHANNEL], tares[AITask.LENGTH_CHANNEL]);
+                        beginCollecting();
+                        return;
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    e.printStackTrace();
+                }
+                cancelStart();
+            }
+        }.execute();
+    }
+
+    /*
+     * Refuses a tare the DAQ did not deliver, asks whether to go ahead when a channel was not steady while taring
+     */
+    private boolean acceptTare(Tare force, Tare elongation){
+        if(!force.isUsable() || !elongation.isUsable()){
+            JOptionPane.showMessageDialog(null, String.format("The DAQ did not deliver enough signal to tare the channels (%d samples), " +
+                    "check that it is connected and try again.", force.getSamples()), "Tare Failed", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        if(force.isStable() && elongation.isStable()){
+            return true;
+        }
+        int option = JOptionPane.showOptionDialog(null, "The signals were not steady while taring, make sure the specimen is not loaded.\n\n" +
+                String.format("Force: drift %.3f mV, noise %.3f mV%n", force.getDrift() * 1000, force.getNoise() * 1000) +
+                String.format("Elongation: drift %.3f mV, noise %.3f mV%n%n", elongation.getDrift() * 1000, elongation.getNoise() * 1000) +
+                "Do you want to use this tare anyway?", "Unstable Tare", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE, null, new Object[]{"Use Tare", "Cancel"}, JOptionPane.NO_OPTION);
+        return option == JOptionPane.YES_OPTION;
+    }
+
+    /*
+     * Puts the buttons back the way they were before start was pressed
+     */
+    private void cancelStart(){
+        mainWindow.getStartButton().setText("Start");
+        mainWindow.getInputButton().setEnabled(true);
+        mainWindow.getReset().setEnabled(true);
+        mainWindow.getSettings().setEnabled(true);
+        mainWindow.getInput().setEnabled(true);
+    }
+
+    /*
+     * Starts collecting data once the channels are tared
+     */
+    private void beginCollecting(){
+        mainWindow.getStartButton().setText("Stop");
+        if(recorder == null){
+            try {
+                recorder = CsvRecorder.create(RECORDING_DIRECTORY);
+                String csvName = recorder.getFile().getName();
+                runWriter = new RunFileWriter(new File(RECORDING_DIRECTORY, csvName.replace(".csv", ".run")), createRunHeader());
+            } catch (IOException e) {
+                //the run can still be exported from memory
+                e.printStackTrace();
+            }
+        }
+        if(recorder != null && runWriter != null){
+            updater.setRecorders(recorder, runWriter);
+        }else if(recorder != null){
+            updater.setRecorders(recorder);
+        }
         updater.collect();
+        chartRefresher.start();
+        readoutTimer.start();
+        if(latencyLogTimer != null){
+            latencyLogTimer.start();
+        }
         isStart = false;
         exportController.isUnsaved = true;
     }
@@ -189,13 +396,97 @@ public class MainController {
         if(updater != null) {
             updater.pause();
         }
+        chartRefresher.stop();
+        readoutTimer.stop();
+        if(latencyLogTimer != null){
+            latencyLogTimer.stop();
+        }
+        updateReadouts();
+    }
+
+    /**
+     * Shows the latest channel noise statistics and modulus
+     */
+    protected void updateReadouts(){
+        if(mainWindow.isDiagnosticsShowing()){
+            mainWindow.getLatencyPanel().update(latency);
+        }
+        if(updater == null){
+            return;
+        }
+        mainWindow.getStatisticsPanel().update(updater.getStatistics());
+        mainWindow.getAcquisitionPanel().update(updater.getAcquisitionMetrics(), updater.getSampleRate());
+        boolean metric = inputController.getInputWindow().getCurrentUnitSystem() == Units.METRIC;
+        ModulusEstimator.Estimate estimate = updater.getModulus().getEstimate();
+        if(estimate == null){
+            //every marker comes after the elastic fit
+            mainWindow.clearFit();
+            mainWindow.clearMarkers();
+        }else{
+            //stress is in MPa or ksi
+            String modulus = metric ? String.format("%.1f GPa", estimate.getModulus() / 1000) : String.format("%,.0f ksi", estimate.getModulus());
+            mainWindow.showFit(estimate.getModulus(), estimate.getIntercept(), estimate.getToStrain(),
+                    String.format("Elastic modulus E = %s (r\u00b2 = %.4f)", modulus, estimate.getRSquared()));
+        }
+
+        YieldDetector.Yield yield = updater.getYieldDetector().getYield();
+        if(yield != null){
+            mainWindow.showMarker("yield", yield.getStrain(), yield.getStress(),
+                    String.format(metric ? "0.2%% yield %.0f MPa" : "0.2%% yield %.1f ksi", yield.getStress()));
+        }
+        RateMonitor monitor = updater.getRateMonitor();
+        mainWindow.showRateBand(monitor.getMinRate(), monitor.getMaxRate());
+        int last = sampleStore.size() - 1;
+        double strainRate = last < 0 ? Double.NaN : sampleStore.get(SampleStore.Column.STRAIN_RATE, last);
+        if(Double.isNaN(strainRate)){
+            mainWindow.clearRates();
+        }else{
+            //E8 gives strain rates per minute
+            double stressRate = sampleStore.get(SampleStore.Column.STRESS_RATE, last);
+            mainWindow.showRates(String.format(metric ? "Strain rate %.4f /min, stress rate %.2f MPa/s" : "Strain rate %.4f /min, stress rate %.3f ksi/s",
+                    strainRate * 60, stressRate) + (monitor.isOutOfBand() ? String.format(" - outside %.3f to %.3f /min",
+                    monitor.getMinRate() * 60, monitor.getMaxRate() * 60) : ""), monitor.isOutOfBand());
+        }
+
+        RunEvent ultimate = updater.getFractureDetector().getUltimate();
+        if(estimate != null && ultimate != null){
+            mainWindow.showMarker("ultimate", ultimate.getStrain(), ultimate.getStress(),
+                    String.format(metric ? "UTS %.0f MPa" : "UTS %.1f ksi", ultimate.getStress()));
+        }
+        RunEvent fracture = updater.getFractureDetector().getFracture();
+        if(fracture != null){
+            mainWindow.showMarker("fracture", fracture.getStrain(), fracture.getStress(), "Fracture");
+        }
+    }
+
+    /**
+     * Called on the event dispatch thread when a run ends by itself
+     * @param reason FRACTURE if the specimen broke, LIMIT if the run reached its maximum length
+     */
+    protected void autoStopped(RunEvent.Type reason){
+        if(isStart){
+            //already stopped by hand
+            return;
+        }
+        stopDataCollection();
+        String message = reason == RunEvent.Type.FRACTURE ? "The specimen broke, data collection has stopped."
+                : "The run reached its maximum length, data collection has stopped.";
+        JOptionPane.showMessageDialog(null, message, "Run Finished", JOptionPane.INFORMATION_MESSAGE);
     }
 
     /*
      * Clear the graph and reset buttons appropriately
      */
     private void clearGraph(){
-        mainWindow.getSeries().clear();
+        closeRecorder();
+        sampleStore.clear();
+        mainWindow.getDataset().rebuild();
+        mainWindow.getRateDataset().rebuild();
+        mainWindow.clearRates();
+        mainWindow.getStatisticsPanel().clear();
+        mainWindow.getAcquisitionPanel().clear();
+        mainWindow.clearFit();
+        mainWindow.clearMarkers();
         mainWindow.getStartButton().setEnabled(true);
         mainWindow.getClearButton().setEnabled(false);
         mainWindow.getInputButton().setEnabled(true);
@@ -206,6 +497,73 @@ public class MainController {
         exportController.isUnsaved = false;
     }
 
+    /*
+     * Finishes the recording of the current run, the next start records to a new file
+     */
+    private void closeRecorder(){
+        if(updater != null){
+            updater.setRecorders();
+        }
+        try {
+            if(recorder != null){
+                recorder.close();
+            }
+            if(runWriter != null){
+                runWriter.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        recorder = null;
+        runWriter = null;
+    }
+
+    /*
+     * Collects the settings and inputs of the run that is starting
+     */
+    private RunHeader createRunHeader(){
+        RunHeader recorded = updater.getRecordedSettings();
+        RunHeader header = new RunHeader();
+        header.setStartTime(System.currentTimeMillis());
+        header.setSampleRate(updater.getSampleRate());
+        header.setForceChannel(settingsController.getSettingsWindow().getForceChannel());
+        header.setForceMode(settingsController.getSettingsWindow().getForceMode());
+        header.setForceUnitsPerVolt(settingsController.getSettingsWindow().getForceVoltage2UnitConstant());
+        header.setForceZeroVolts(updater.getStressZero());
+        header.setElongationChannel(settingsController.getSettingsWindow().getElongationChannel());
+        header.setElongationMode(settingsController.getSettingsWindow().getElongationMode());
+        header.setElongationUnitsPerVolt(settingsController.getSettingsWindow().getElongationVoltage2UnitConstant());
+        header.setElongationZeroVolts(updater.getStrainZero());
+        header.setUnitSystem(unitSystem);
+        header.setGaugeLength(gaugeLength);
+        header.setRectangular(inputController.isRectangularSelected());
+        header.setWidth(width);
+        header.setDepth(depth);
+        header.setDiameter(diameter);
+        if(updater.getForceTare() != null){
+            header.setTareSamples(updater.getForceTare().getSamples());
+            header.setForceZeroNoise(updater.getForceTare().getNoise());
+            header.setElongationZeroNoise(updater.getElongationTare().getNoise());
+        }
+        if(recorded != null){
+            //a replay with the recorded settings was processed with them, not with the settings window
+            header.setForceUnitsPerVolt(recorded.getForceUnitsPerVolt());
+            header.setElongationUnitsPerVolt(recorded.getElongationUnitsPerVolt());
+            header.setForceFilter(recorded.getForceFilter());
+            header.setForceFilterMillis(recorded.getForceFilterMillis());
+            header.setElongationFilter(recorded.getElongationFilter());
+            header.setElongationFilterMillis(recorded.getElongationFilterMillis());
+        }else{
+            header.setForceFilter(settingsController.getSettingsWindow().getForceFilter().name());
+            header.setForceFilterMillis(settingsController.getSettingsWindow().getForceFilterMillis());
+            header.setElongationFilter(settingsController.getSettingsWindow().getElongationFilter().name());
+            header.setElongationFilterMillis(settingsController.getSettingsWindow().getElongationFilterMillis());
+        }
+        header.setMinStrainRate(updater.getRateMonitor().getMinRate());
+        header.setMaxStrainRate(updater.getRateMonitor().getMaxRate());
+        return header;
+    }
+
     /*
      * Resets the graph, data, and input values
      */
@@ -326,6 +684,10 @@ public class MainController {
 
     public GraphUpdater getUpdater() { return updater; }
 
+    public SampleStore getSampleStore() { return sampleStore; }
+
+    public CsvRecorder getRecorder() { return recorder; }
+
     public static void main(String[] args){
         try{
             Thread.sleep(1000);
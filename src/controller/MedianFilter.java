@@ -0,0 +1,164 @@
+package controller;
+
+/**
+ * Median of the last window samples, which throws out spikes that an average would smear across the window.
+ * The window is split between a max heap of the lower half and a min heap of the upper half, and each sample
+ * slot remembers where it sits in its heap, so replacing the oldest sample is a single O(log n) sift
+ * instead of re-sorting the window.
+ */
+public class MedianFilter implements SampleFilter {
+    private static final int LOW = 0; //max heap, holds the extra sample when the count is odd
+    private static final int HIGH = 1; //min heap
+
+    private final double[] values; //the window, indexed by slot
+    private final int[][] heaps; //slots ordered by value
+    private final int[] sizes = new int[2];
+    private final int[] heapOf; //which heap each slot is in
+    private final int[] positionOf; //where in that heap each slot is
+    private int next = 0;
+    private int count = 0;
+
+    /**
+     * @param samples number of samples the median is taken over, at least 1
+     */
+    public MedianFilter(int samples){
+        if(samples < 1){
+            throw new IllegalArgumentException("A running median needs at least one sample, got " + samples);
+        }
+        values = new double[samples];
+        heaps = new int[][]{new int[samples], new int[samples]};
+        heapOf = new int[samples];
+        positionOf = new int[samples];
+    }
+
+    @Override
+    public void process(double[] data, int offset, int length){
+        int end = offset + length;
+        for(int i = offset; i < end; i++){
+            data[i] = add(data[i]);
+        }
+    }
+
+    /*
+     * Puts a sample in the window in place of the oldest one and returns the median
+     */
+    private double add(double value){
+        int slot = next;
+        if(++next == values.length){
+            next = 0;
+        }
+
+        if(count == values.length){
+            //the slot keeps its heap, only its value moves
+            values[slot] = value;
+            siftUp(heapOf[slot], positionOf[slot]);
+            siftDown(heapOf[slot], positionOf[slot]);
+            if(sizes[HIGH] > 0 && values[heaps[LOW][0]] > values[heaps[HIGH][0]]){
+                swapTops();
+            }
+        }else{
+            values[slot] = value;
+            count++;
+            push(sizes[LOW] == 0 || value <= values[heaps[LOW][0]] ? LOW : HIGH, slot);
+            if(sizes[LOW] > sizes[HIGH] + 1){
+                push(HIGH, pop(LOW));
+            }else if(sizes[HIGH] > sizes[LOW]){
+                push(LOW, pop(HIGH));
+            }
+        }
+
+        if(sizes[LOW] > sizes[HIGH]){
+            return values[heaps[LOW][0]];
+        }
+        return (values[heaps[LOW][0]] + values[heaps[HIGH][0]]) / 2.0;
+    }
+
+    /*
+     * Fixes the heaps after one value crossed from one half into the other
+     */
+    private void swapTops(){
+        int low = heaps[LOW][0];
+        int high = heaps[HIGH][0];
+        place(LOW, 0, high);
+        place(HIGH, 0, low);
+        siftDown(LOW, 0);
+        siftDown(HIGH, 0);
+    }
+
+    private void push(int heap, int slot){
+        int position = sizes[heap]++;
+        place(heap, position, slot);
+        siftUp(heap, position);
+    }
+
+    private int pop(int heap){
+        int[] slots = heaps[heap];
+        int top = slots[0];
+        int last = --sizes[heap];
+        if(last > 0){
+            place(heap, 0, slots[last]);
+            siftDown(heap, 0);
+        }
+        return top;
+    }
+
+    private void siftUp(int heap, int position){
+        int[] slots = heaps[heap];
+        int slot = slots[position];
+        while(position > 0){
+            int parent = (position - 1) >>> 1;
+            if(!above(heap, slot, slots[parent])){
+                break;
+            }
+            place(heap, position, slots[parent]);
+            position = parent;
+        }
+        place(heap, position, slot);
+    }
+
+    private void siftDown(int heap, int position){
+        int[] slots = heaps[heap];
+        int size = sizes[heap];
+        int slot = slots[position];
+        while(true){
+            int child = 2 * position + 1;
+            if(child >= size){
+                break;
+            }
+            if(child + 1 < size && above(heap, slots[child + 1], slots[child])){
+                child++;
+            }
+            if(!above(heap, slots[child], slot)){
+                break;
+            }
+            place(heap, position, slots[child]);
+            position = child;
+        }
+        place(heap, position, slot);
+    }
+
+    /*
+     * True when slot a belongs closer to the top of the heap than slot b
+     */
+    private boolean above(int heap, int a, int b){
+        return heap == LOW ? values[a] > values[b] : values[a] < values[b];
+    }
+
+    private void place(int heap, int position, int slot){
+        heaps[heap][position] = slot;
+        heapOf[slot] = heap;
+        positionOf[slot] = position;
+    }
+
+    @Override
+    public void reset(){
+        next = 0;
+        count = 0;
+        sizes[LOW] = 0;
+        sizes[HIGH] = 0;
+    }
+
+    public int getWindow(){
+        return values.length;
+    }
+}
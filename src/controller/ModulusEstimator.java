@@ -0,0 +1,120 @@
+package controller;
+
+import model.StreamingRegression;
+
+/**
+ * Estimates Young's modulus while the test runs.
+ * A line is fitted to a sliding window of the latest stress-strain points, and the steepest fit that is
+ * straight enough (r squared of at least MIN_R_SQUARED) is kept as the elastic region: the toe before it
+ * and the yielding after it are both shallower, and noise while the specimen sits still is not straight.
+ * Each point costs O(1), the curve is never scanned again.
+ * Points are added on the processing thread, the estimate can be read from any thread.
+ */
+public class ModulusEstimator {
+    public static final int DEFAULT_WINDOW_POINTS = 20; //one second of points
+    public static final double MIN_R_SQUARED = 0.995;
+
+    private final int windowPoints;
+    private final StreamingRegression window;
+    private volatile Estimate estimate; //null until a straight enough window was seen
+
+    public ModulusEstimator(int windowPoints){
+        this.windowPoints = windowPoints;
+        window = new StreamingRegression(windowPoints);
+    }
+
+    /**
+     * Adds the latest point of the curve
+     */
+    public void add(double strain, double stress){
+        window.add(strain, stress);
+        if(window.getCount() < windowPoints){
+            return;
+        }
+        double slope = window.getSlope();
+        if(!(slope > 0.0) || !(window.getRSquared() >= MIN_R_SQUARED)){
+            return;
+        }
+        Estimate current = estimate;
+        if(current == null || slope > current.modulus){
+            estimate = new Estimate(slope, window.getIntercept(), window.getRSquared(), window.getMinX(), window.getMaxX());
+        }
+    }
+
+    /**
+     * Converts what has been seen so far to other stress units, must not be called while points are being added
+     */
+    public void scaleStress(double factor){
+        window.scaleY(factor);
+        Estimate current = estimate;
+        if(current != null){
+            estimate = new Estimate(current.modulus * factor, current.intercept * factor, current.rSquared, current.fromStrain, current.toStrain);
+        }
+    }
+
+    /**
+     * Forgets everything, for the start of a new run
+     */
+    public void reset(){
+        window.clear();
+        estimate = null;
+    }
+
+    /**
+     * @return the modulus of the elastic region found so far, or null if there is none yet
+     */
+    public Estimate getEstimate(){
+        return estimate;
+    }
+
+    /**
+     * The straight line fitted to the elastic region, in the stress units of the points
+     */
+    public static final class Estimate {
+        private final double modulus;
+        private final double intercept;
+        private final double rSquared;
+        private final double fromStrain;
+        private final double toStrain;
+
+        private Estimate(double modulus, double intercept, double rSquared, double fromStrain, double toStrain){
+            this.modulus = modulus;
+            this.intercept = intercept;
+            this.rSquared = rSquared;
+            this.fromStrain = fromStrain;
+            this.toStrain = toStrain;
+        }
+
+        /**
+         * @return the slope of the line, stress per unit strain
+         */
+        public double getModulus(){
+            return modulus;
+        }
+
+        /**
+         * @return the stress where the line crosses zero strain
+         */
+        public double getIntercept(){
+            return intercept;
+        }
+
+        public double getRSquared(){
+            return rSquared;
+        }
+
+        /**
+         * @return the strain where the fitted region starts
+         */
+        public double getFromStrain(){
+            return fromStrain;
+        }
+
+        /**
+         * @return the strain where the fitted region ends
+         */
+        public double getToStrain(){
+            return toStrain;
+        }
+    }
+}
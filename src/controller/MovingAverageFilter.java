@@ -0,0 +1,71 @@
+package controller;
+
+/**
+ * Average of the last window samples, kept as a running sum so each sample costs the same no matter the window.
+ * Until the window fills up the output is the average of the samples seen so far.
+ */
+public class MovingAverageFilter implements SampleFilter {
+    private final double[] window;
+    private int next = 0;
+    private int count = 0;
+    private double total = 0.0;
+    private int sinceResum = 0; //samples added to the running sum since it was last summed from scratch
+
+    /**
+     * @param samples number of samples averaged, at least 1
+     */
+    public MovingAverageFilter(int samples){
+        if(samples < 1){
+            throw new IllegalArgumentException("A moving average needs at least one sample, got " + samples);
+        }
+        window = new double[samples];
+    }
+
+    @Override
+    public void process(double[] data, int offset, int length){
+        int end = offset + length;
+        for(int i = offset; i < end; i++){
+            double value = data[i];
+            if(count == window.length){
+                total -= window[next];
+            }else{
+                count++;
+            }
+            window[next] = value;
+            total += value;
+            if(++next == window.length){
+                next = 0;
+            }
+
+            //adding and removing leaves rounding error behind, start over from the window once it has turned over
+            if(++sinceResum == window.length){
+                resum();
+            }
+            data[i] = total / count;
+        }
+    }
+
+    /*
+     * Sums the window from scratch
+     */
+    private void resum(){
+        double sum = 0.0;
+        for(int i = 0; i < count; i++){
+            sum += window[i];
+        }
+        total = sum;
+        sinceResum = 0;
+    }
+
+    @Override
+    public void reset(){
+        next = 0;
+        count = 0;
+        total = 0.0;
+        sinceResum = 0;
+    }
+
+    public int getWindow(){
+        return window.length;
+    }
+}
@@ -0,0 +1,286 @@
+package controller;
+
+import model.AITask;
+import model.RunFileReader;
+import model.RunHeader;
+import model.SampleStore;
+import java.util.Arrays;
+
+/**
+ * Turns raw force and elongation samples into stress and strain:
+ * the channel filter, zero offset, volts to units and the unit system, then the specimen geometry.
+ * Shared by the live GraphUpdater and RunReplay so a replayed run goes through exactly the same steps,
+ * and able to recompute a whole recorded run in batches when a constant, the filter or the geometry was wrong.
+ * Not thread safe, configure it before the processing thread starts using it.
+ */
+public class PointProcessor {
+    private static final int BATCH_POINTS = 256; //points recomputed per pass over the arrays
+
+    private SampleFilter forceFilter = FilterType.DEFAULT.create(FilterType.DEFAULT_WINDOW_MILLIS, AITask.SAMPLES_PER_SECOND);
+    private SampleFilter elongationFilter = FilterType.DEFAULT.create(FilterType.DEFAULT_WINDOW_MILLIS, AITask.SAMPLES_PER_SECOND);
+    //the filters work in place, samples are copied here so the caller keeps the raw ones for recording
+    private double[] forceScratch = new double[0];
+    private double[] elongationScratch = new double[0];
+    private double lbsPerVolt;
+    private double inchesPerVolt;
+    private double stressZero = 0.0; //force 0 -> stress
+    private double strainZero = 0.0; //elongation -> strain (Extensometer)
+    private boolean metric;
+    private double area;
+    private double gaugeLength;
+    //everything above folded into one transform per channel, rebuilt whenever a setting changes
+    private ChannelTransform stressTransform;
+    private ChannelTransform strainTransform;
+
+    private double forceVolts;
+    private double elongationVolts;
+    private double stress;
+    private double strain;
+
+    /**
+     * @param lbsPerVolt force channel volts to pounds constant
+     * @param inchesPerVolt elongation channel volts to inches constant
+     */
+    public PointProcessor(double lbsPerVolt, double inchesPerVolt){
+        setUnitsPerVolt(lbsPerVolt, inchesPerVolt);
+    }
+
+    /**
+     * Creates a processor with the constants, zeros, filters and specimen a run was recorded with
+     */
+    public static PointProcessor fromHeader(RunHeader header){
+        PointProcessor processor = new PointProcessor(header.getForceUnitsPerVolt(), header.getElongationUnitsPerVolt());
+        processor.setZeros(header.getForceZeroVolts(), header.getElongationZeroVolts());
+        processor.setRecordedSettings(header);
+        return processor;
+    }
+
+    /**
+     * Takes the constants, filters and specimen a run was recorded with, everything but the zeros.
+     * The filters are replaced, so their history starts over.
+     */
+    public void setRecordedSettings(RunHeader header){
+        setUnitsPerVolt(header.getForceUnitsPerVolt(), header.getElongationUnitsPerVolt());
+        setFilters(createFilter(header.getForceFilter(), header.getForceFilterMillis(), header.getSampleRate()),
+                createFilter(header.getElongationFilter(), header.getElongationFilterMillis(), header.getSampleRate()));
+        double area = header.isRectangular() ? Calculations.calculateArea(header.getWidth(), header.getDepth())
+                : Calculations.calculateArea(header.getDiameter());
+        setSpecimen(header.getUnitSystem(), area, header.getGaugeLength());
+    }
+
+    /*
+     * Creates a filter from the name and window stored in a run, runs from before filters were stored get the default
+     */
+    private static SampleFilter createFilter(String name, double windowMillis, double sampleRate){
+        return FilterType.parse(name).create(windowMillis > 0.0 ? windowMillis : FilterType.DEFAULT_WINDOW_MILLIS, sampleRate);
+    }
+
+    /**
+     * Sets the smoothing applied to each channel's raw samples, replacing the filters and their history
+     * @param forceFilter filter for the force channel
+     * @param elongationFilter filter for the elongation channel
+     */
+    public void setFilters(SampleFilter forceFilter, SampleFilter elongationFilter){
+        this.forceFilter = forceFilter;
+        this.elongationFilter = elongationFilter;
+    }
+
+    public void setUnitsPerVolt(double lbsPerVolt, double inchesPerVolt){
+        this.lbsPerVolt = lbsPerVolt;
+        this.inchesPerVolt = inchesPerVolt;
+        buildTransforms();
+    }
+
+    /**
+     * @param stressZero force channel voltage that reads as no force
+     * @param strainZero elongation channel voltage that reads as no elongation
+     */
+    public void setZeros(double stressZero, double strainZero){
+        this.stressZero = stressZero;
+        this.strainZero = strainZero;
+        buildTransforms();
+    }
+
+    /**
+     * @param unitSystem "English" or "Metric", the units stress and strain come out in
+     * @param area cross section area of the specimen in that unit system
+     * @param gaugeLength gauge length of the specimen in that unit system
+     */
+    public void setSpecimen(String unitSystem, double area, double gaugeLength){
+        this.metric = unitSystem.equals("Metric");
+        this.area = area;
+        this.gaugeLength = gaugeLength;
+        buildTransforms();
+    }
+
+    /*
+     * Folds the settings into the per channel transforms so processing does no unit checks or geometry
+     */
+    private void buildTransforms(){
+        stressTransform = ChannelTransform.stress(stressZero, lbsPerVolt, metric, area);
+        strainTransform = ChannelTransform.strain(strainZero, inchesPerVolt, metric, gaugeLength);
+    }
+
+    /**
+     * Processes one point worth of raw samples, the results are read with the getters.
+     * The point's voltages are the plain averages of the samples, stress and strain come from the
+     * last filtered sample so the filter decides how much history goes into them.
+     * @param force raw force channel samples, left unchanged
+     * @param length raw elongation channel samples, left unchanged
+     * @param samples number of samples in the arrays
+     */
+    public void process(double[] force, double[] length, int samples){
+        if(forceScratch.length < samples){
+            forceScratch = new double[samples];
+            elongationScratch = new double[samples];
+        }
+        forceVolts = average(force, samples);
+        elongationVolts = average(length, samples);
+        System.arraycopy(force, 0, forceScratch, 0, samples);
+        System.arraycopy(length, 0, elongationScratch, 0, samples);
+        forceFilter.process(forceScratch, 0, samples);
+        elongationFilter.process(elongationScratch, 0, samples);
+        stress = stressTransform.apply(forceScratch[samples - 1]);
+        strain = strainTransform.apply(elongationScratch[samples - 1]);
+    }
+
+    /**
+     * Recomputes every point of a recorded run with this processor's settings.
+     * Runs with raw samples are filtered and split into points the way GraphUpdater does: a point never spans
+     * samples lost while recording, the one before a gap is cut short and time comes from the sample index.
+     * Older runs stand in each point's averaged voltages for all of its samples the way a replay does.
+     * Each batch of points goes through the filters as one block and then through the channel transforms.
+     * Use a new processor for each recompute, the filters carry over between points.
+     * @param run the recorded run
+     * @param out receives the recomputed points
+     */
+    public void recompute(RunFileReader run, SampleStore out){
+        double sampleRate = run.getHeader().getSampleRate();
+        int samplesPerPoint = Math.max(1, (int) sampleRate / AITask.BLOCKS_PER_SECOND);
+        boolean raw = run.getSampleCount() > 0;
+        long end = raw ? run.getSampleCount() : (long) run.size() * samplesPerPoint;
+
+        long[] pointFirst = new long[BATCH_POINTS]; //sample index each point starts at
+        int[] pointEnd = new int[BATCH_POINTS]; //where each point's samples end in the batch arrays
+        double[] force = new double[BATCH_POINTS];
+        double[] length = new double[BATCH_POINTS];
+        double[] stressValues = new double[BATCH_POINTS];
+        double[] strainValues = new double[BATCH_POINTS];
+        double[] forceSamples = new double[BATCH_POINTS * samplesPerPoint];
+        double[] lengthSamples = new double[BATCH_POINTS * samplesPerPoint];
+        RateEstimator rates = new RateEstimator(RateEstimator.DEFAULT_WINDOW_POINTS);
+        long sample = raw ? run.nextRecordedSample(0) : 0;
+        while(true){
+            int count = 0;
+            int batchSamples = 0;
+            while(count < BATCH_POINTS && sample < end){
+                long rangeEnd = raw ? run.endOfRecordedRange(sample) : end;
+                int samples = (int) Math.min(samplesPerPoint, rangeEnd - sample);
+                if(samples < samplesPerPoint && rangeEnd == end){
+                    //a live run never gets to a short last point
+                    sample = end;
+                    break;
+                }
+                if(raw){
+                    run.copySamples(AITask.FORCE_CHANNEL, sample, forceSamples, batchSamples, samples);
+                    run.copySamples(AITask.LENGTH_CHANNEL, sample, lengthSamples, batchSamples, samples);
+                }else{
+                    int point = (int) (sample / samplesPerPoint);
+                    Arrays.fill(forceSamples, batchSamples, batchSamples + samples, run.get(SampleStore.Column.FORCE_VOLTS, point));
+                    Arrays.fill(lengthSamples, batchSamples, batchSamples + samples, run.get(SampleStore.Column.ELONGATION_VOLTS, point));
+                }
+                pointFirst[count] = sample;
+                batchSamples += samples;
+                pointEnd[count++] = batchSamples;
+                sample += samples;
+                if(raw && sample == rangeEnd){
+                    sample = run.nextRecordedSample(sample);
+                }
+            }
+            if(count == 0){
+                break;
+            }
+            averagePoints(forceSamples, pointEnd, count, force);
+            averagePoints(lengthSamples, pointEnd, count, length);
+
+            forceFilter.process(forceSamples, 0, batchSamples);
+            elongationFilter.process(lengthSamples, 0, batchSamples);
+            for(int p = 0; p < count; p++){
+                stressValues[p] = forceSamples[pointEnd[p] - 1];
+                strainValues[p] = lengthSamples[pointEnd[p] - 1];
+            }
+            stressTransform.apply(stressValues, stressValues, 0, count);
+            strainTransform.apply(strainValues, strainValues, 0, count);
+
+            for(int i = 0; i < count; i++){
+                double time = pointFirst[i] / sampleRate;
+                rates.add(time, strainValues[i], stressValues[i]);
+                out.append(time, force[i], length[i], stressValues[i], strainValues[i], rates.getStrainRate(), rates.getStressRate());
+            }
+        }
+    }
+
+    /*
+     * Averages consecutive groups of raw samples into points, point p ends before pointEnd[p]
+     */
+    private static void averagePoints(double[] samples, int[] pointEnd, int points, double[] averages){
+        int offset = 0;
+        for(int p = 0; p < points; p++){
+            double total = 0.0;
+            for(int i = offset; i < pointEnd[p]; i++){
+                total += samples[i];
+            }
+            averages[p] = total / (pointEnd[p] - offset);
+            offset = pointEnd[p];
+        }
+    }
+
+    /**
+     * Averages the first length values of a channel
+     */
+    public static double average(double[] data, int length){
+        double total = 0.0;
+        for(int i = 0; i < length; i++){
+            total += data[i];
+        }
+        return total / length;
+    }
+
+    /**
+     * @return average force channel voltage of the last point
+     */
+    public double getForceVolts() {
+        return forceVolts;
+    }
+
+    /**
+     * @return average elongation channel voltage of the last point
+     */
+    public double getElongationVolts() {
+        return elongationVolts;
+    }
+
+    public double getStress() {
+        return stress;
+    }
+
+    public double getStrain() {
+        return strain;
+    }
+
+    public ChannelTransform getStressTransform() {
+        return stressTransform;
+    }
+
+    public ChannelTransform getStrainTransform() {
+        return strainTransform;
+    }
+
+    public double getStressZero() {
+        return stressZero;
+    }
+
+    public double getStrainZero() {
+        return strainZero;
+    }
+}
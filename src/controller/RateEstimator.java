@@ -0,0 +1,66 @@
+package controller;
+
+import model.StreamingRegression;
+
+/**
+ * Estimates strain rate and stress rate while the test runs.
+ * A first derivative Savitzky-Golay filter is the slope of a least squares line through a window of points,
+ * so each rate is the slope of a windowed regression of the channel against the sample clock time of the points.
+ * Fitting against the actual times instead of assuming even spacing keeps the rate right across points lost on the way.
+ * The slope of a window belongs to its middle, so the rates lag the newest point by half a window.
+ * Each point costs O(1). Points are added on the processing thread.
+ */
+public class RateEstimator {
+    public static final int DEFAULT_WINDOW_POINTS = 11; //about half a second of points
+
+    private final int windowPoints;
+    private final StreamingRegression strain;
+    private final StreamingRegression stress;
+
+    public RateEstimator(int windowPoints){
+        if(windowPoints < 3){
+            throw new IllegalArgumentException("Window must be at least three points");
+        }
+        this.windowPoints = windowPoints;
+        strain = new StreamingRegression(windowPoints);
+        stress = new StreamingRegression(windowPoints);
+    }
+
+    /**
+     * Adds the latest point
+     * @param time seconds since the start of the run
+     */
+    public void add(double time, double strainValue, double stressValue){
+        strain.add(time, strainValue);
+        stress.add(time, stressValue);
+    }
+
+    /**
+     * @return strain per second, NaN until the window has filled
+     */
+    public double getStrainRate(){
+        return strain.getCount() < windowPoints ? Double.NaN : strain.getSlope();
+    }
+
+    /**
+     * @return stress units per second, NaN until the window has filled
+     */
+    public double getStressRate(){
+        return stress.getCount() < windowPoints ? Double.NaN : stress.getSlope();
+    }
+
+    /**
+     * Converts the stress seen so far to other units
+     */
+    public void scaleStress(double factor){
+        stress.scaleY(factor);
+    }
+
+    /**
+     * Forgets everything, for the start of a new run
+     */
+    public void reset(){
+        strain.clear();
+        stress.clear();
+    }
+}
@@ -0,0 +1,92 @@
+package controller;
+
+/**
+ * Checks that the strain rate stays inside a band, such as the 0.015 +/- 0.006 per minute ASTM E8 sets
+ * while the yield properties are measured. The rate has to be on the other side of the band edge for
+ * holdPoints points in a row before the state changes, so noise around an edge does not flicker in and out.
+ * Rates are checked on the processing thread, the state can be read from any thread.
+ */
+public class RateMonitor {
+    public static final double DEFAULT_MIN_PER_MINUTE = 0.009;
+    public static final double DEFAULT_MAX_PER_MINUTE = 0.021;
+    public static final int DEFAULT_HOLD_POINTS = 10; //half a second of points
+
+    private final double minRate;
+    private final double maxRate;
+    private final int holdPoints;
+    private int disagreeing; //points in a row on the other side of the band from the current state
+    private volatile boolean outOfBand;
+    private volatile long outOfBandPoints; //points checked while out of band
+
+    /**
+     * @param minRate lowest strain rate allowed, per second
+     * @param maxRate highest strain rate allowed, per second
+     * @param holdPoints points in a row it takes to go in or out of band
+     */
+    public RateMonitor(double minRate, double maxRate, int holdPoints){
+        if(!(minRate <= maxRate)){
+            throw new IllegalArgumentException("Band minimum must not be above its maximum");
+        }
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.holdPoints = Math.max(1, holdPoints);
+    }
+
+    /**
+     * Checks the rate of the latest point
+     * @param rate strain per second, NaN while it is not known
+     * @param armed whether the band applies to this part of the test, nothing is counted while it does not
+     * @return true if the rate just left or came back into the band
+     */
+    public boolean check(double rate, boolean armed){
+        if(!armed || Double.isNaN(rate)){
+            disagreeing = 0;
+            return false;
+        }
+        boolean outside = rate < minRate || rate > maxRate;
+        if(outOfBand){
+            outOfBandPoints++;
+        }
+        if(outside == outOfBand){
+            disagreeing = 0;
+            return false;
+        }
+        if(++disagreeing < holdPoints){
+            return false;
+        }
+        disagreeing = 0;
+        outOfBand = outside;
+        return true;
+    }
+
+    /**
+     * Forgets everything, for the start of a new run
+     */
+    public void reset(){
+        disagreeing = 0;
+        outOfBand = false;
+        outOfBandPoints = 0;
+    }
+
+    /**
+     * @return true while the strain rate is outside the band
+     */
+    public boolean isOutOfBand(){
+        return outOfBand;
+    }
+
+    /**
+     * @return how many points of the run were out of band
+     */
+    public long getOutOfBandPoints(){
+        return outOfBandPoints;
+    }
+
+    public double getMinRate(){
+        return minRate;
+    }
+
+    public double getMaxRate(){
+        return maxRate;
+    }
+}
@@ -0,0 +1,81 @@
+package controller;
+
+import model.AITask;
+import model.ReplayAITask;
+import model.RunFileReader;
+import model.SampleRingBuffer;
+import model.SampleStore;
+
+/**
+ * Pushes a recorded run through the same processing a live test gets, without any windows.
+ * Samples go from a ReplayAITask through a ring buffer into a PointProcessor configured from the
+ * run header, filters included, one point per block the way GraphUpdater makes them.
+ * Reading and processing share the calling thread, so an unpaced replay never drops samples
+ * and runs as fast as the processing allows, which makes it usable for benchmarks and
+ * for checking processing changes against real runs.
+ */
+public class RunReplay {
+    private final RunFileReader run;
+    private final PointProcessor processor;
+    private boolean paced = false;
+
+    /**
+     * @param run the recorded run, its header gives the constants, zeros and specimen
+     */
+    public RunReplay(RunFileReader run){
+        this.run = run;
+        processor = PointProcessor.fromHeader(run.getHeader());
+    }
+
+    /**
+     * @param paced true to replay at the recorded sample rate, false to go as fast as possible
+     */
+    public void setPaced(boolean paced){
+        this.paced = paced;
+    }
+
+    /**
+     * The processor used for the replay, change it before calling replay to re-analyze with other settings
+     */
+    public PointProcessor getProcessor(){
+        return processor;
+    }
+
+    /**
+     * Replays the whole run
+     * @param store where the processed points go
+     */
+    public void replay(SampleStore store){
+        ReplayAITask task = new ReplayAITask(run);
+        task.setPaced(paced);
+        task.createAIChannel(run.getHeader().getForceChannel(), run.getHeader().getForceMode());
+        task.createAIChannel(run.getHeader().getElongationChannel(), run.getHeader().getElongationMode());
+        task.readyToRun();
+
+        //zero the same way GraphUpdater does
+        task.collectData();
+        processor.setZeros(task.getChannelData(AITask.FORCE_CHANNEL), task.getChannelData(AITask.LENGTH_CHANNEL));
+
+        int samplesPerPoint = Math.max(1, (int) task.getSampleRate() / AITask.BLOCKS_PER_SECOND);
+        SampleRingBuffer ringBuffer = new SampleRingBuffer(task.getChannels(), task.getBlock().getCapacity() + samplesPerPoint);
+        double[][] chunk = new double[task.getChannels()][samplesPerPoint];
+        RateEstimator rates = new RateEstimator(RateEstimator.DEFAULT_WINDOW_POINTS);
+
+        task.start();
+        while(!task.isFinished() || ringBuffer.size() >= samplesPerPoint){
+            if(task.readAvailable() > 0){
+                ringBuffer.write(task.getBlock());
+            }
+            while(ringBuffer.size() >= samplesPerPoint){
+                int samples = ringBuffer.read(chunk, samplesPerPoint);
+                processor.process(chunk[AITask.FORCE_CHANNEL], chunk[AITask.LENGTH_CHANNEL], samples);
+                //from the sample clock like GraphUpdater, so samples lost while recording leave the same gap
+                double time = ringBuffer.getReadFirstSample() / task.getSampleRate();
+                rates.add(time, processor.getStrain(), processor.getStress());
+                store.append(time, processor.getForceVolts(), processor.getElongationVolts(),
+                        processor.getStress(), processor.getStrain(), rates.getStrainRate(), rates.getStressRate());
+            }
+        }
+        task.pause();
+    }
+}
@@ -0,0 +1,22 @@
+package controller;
+
+/**
+ * One smoothing stage for the raw samples of a channel, applied before samples are averaged into a point.
+ * A filter works on whole blocks of primitive samples in place and keeps the history it needs between calls,
+ * so where the blocks split the stream never shows up in the output.
+ */
+public interface SampleFilter {
+
+    /**
+     * Filters a run of samples in place, continuing from the samples of the previous call
+     * @param data the samples, replaced by the filtered values
+     * @param offset first sample to filter
+     * @param length number of samples to filter
+     */
+    void process(double[] data, int offset, int length);
+
+    /**
+     * Forgets every sample seen so far, for the start of a new run
+     */
+    void reset();
+}
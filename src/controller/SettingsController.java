@@ -29,6 +29,10 @@ public class SettingsController {
     private String elongationMode;
     private double forceVoltageConstant;
     private double elongationVoltageConstant;
+    private FilterType forceFilter;
+    private FilterType elongationFilter;
+    private double forceFilterMillis;
+    private double elongationFilterMillis;
 
     public SettingsController(InputController inputController, MainController mainController){
         this.inputController = inputController;
@@ -73,6 +77,10 @@ public class SettingsController {
                         out.println(settingsWindow.getElongationChannelComboBox().getSelectedItem());
                         out.println(settingsWindow.getElongationModeComboBox().getSelectedItem());
                         out.println(elongationConstant);
+                        out.println(settingsWindow.getForceFilter().name());
+                        out.println(settingsWindow.getForceFilterMillis());
+                        out.println(settingsWindow.getElongationFilter().name());
+                        out.println(settingsWindow.getElongationFilterMillis());
 
                         out.close();
                         storeSettings();
@@ -195,6 +203,10 @@ public class SettingsController {
         elongationChannel = settingsWindow.getElongationChannel();
         forceMode = (String) settingsWindow.getForceModeComboBox().getSelectedItem();
         elongationMode = (String) settingsWindow.getElongationModeComboBox().getSelectedItem();
+        forceFilter = settingsWindow.getForceFilter();
+        elongationFilter = settingsWindow.getElongationFilter();
+        forceFilterMillis = settingsWindow.getForceFilterMillis();
+        elongationFilterMillis = settingsWindow.getElongationFilterMillis();
     }
 
     /*
@@ -209,6 +221,10 @@ public class SettingsController {
         settingsWindow.getElongationChannelComboBox().setSelectedItem(elongationChannel);
         settingsWindow.getForceModeComboBox().setSelectedItem(forceMode);
         settingsWindow.getElongationModeComboBox().setSelectedItem(elongationMode);
+        settingsWindow.getForceFilterComboBox().setSelectedItem(forceFilter);
+        settingsWindow.getElongationFilterComboBox().setSelectedItem(elongationFilter);
+        settingsWindow.getForceFilterWindowField().setText(String.valueOf(forceFilterMillis));
+        settingsWindow.getElongationFilterWindowField().setText(String.valueOf(elongationFilterMillis));
     }
 
     /*
@@ -239,9 +255,24 @@ public class SettingsController {
             invalidSettingsMessage(3);
             return false;
         }
+        if(!isPositiveNumber(settingsWindow.getForceFilterWindowField().getText()) || !isPositiveNumber(settingsWindow.getElongationFilterWindowField().getText())){
+            invalidSettingsMessage(4);
+            return false;
+        }
         return true;
     }
 
+    /*
+     * Checks that a field holds a number above zero
+     */
+    private static boolean isPositiveNumber(String text){
+        try {
+            return Double.parseDouble(text.trim()) > 0.0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     /*
      * Message that displays if any changes to the settings are incorrect
      * Takes an int that determines which message to display
@@ -251,6 +282,8 @@ public class SettingsController {
             JOptionPane.showMessageDialog(null, "In differential mode, channel number must be between 0 and 4", "Invalid Settings Format", JOptionPane.WARNING_MESSAGE);
         }else if(message == 2){
             JOptionPane.showMessageDialog(null, "Invalid channel and mode combinations", "Invalid Settings Format", JOptionPane.WARNING_MESSAGE);
+        }else if(message == 4){
+            JOptionPane.showMessageDialog(null, "Filter windows must be a number of milliseconds above zero", "Invalid Settings Format", JOptionPane.WARNING_MESSAGE);
         }else{
             JOptionPane.showMessageDialog(null, "Channel numbers cannot be the same if the force and elongation machines are in the same mode", "Invalid Settings Format", JOptionPane.WARNING_MESSAGE);
         }
@@ -0,0 +1,140 @@
+package controller;
+
+import model.AITask;
+import model.StreamingStatistics;
+import java.util.Arrays;
+
+/**
+ * The zero offset of one channel worked out from a window of raw samples taken while the specimen is unloaded.
+ * The offset is a trimmed mean, so a few spikes do not move it, and the noise is the median absolute
+ * deviation scaled to a standard deviation. The tare is only trusted when the signal held still:
+ * the trimmed means of the two halves of the window must agree to within the noise.
+ * A window the DAQ did not fill in time is not a tare at all and can never be used.
+ */
+public class Tare {
+    public static final double DEFAULT_SECONDS = 2.0;
+    private static final double TRIM_FRACTION = 0.1; //dropped from each end before averaging
+    private static final double MAD_TO_SIGMA = 1.4826; //median absolute deviation to standard deviation for gaussian noise
+    private static final double RANGE_VOLTS = 20.0; //NiAITask reads every channel on -10 V to 10 V
+    //the USB-6009 converts differential inputs to 14 bits and single ended ones to 13
+    private static final int DIFFERENTIAL_BITS = 14;
+    private static final int SINGLE_ENDED_BITS = 13;
+    private static final int FLOOR_STEPS = 3; //drift within this many converter steps always passes
+
+    private final int samples;
+    private final double offset;
+    private final double noise;
+    private final double drift;
+    private final boolean complete; //the whole window was captured
+    private final double minNoise;
+
+    private Tare(int samples, double offset, double noise, double drift, boolean complete, double minNoise){
+        this.samples = samples;
+        this.complete = complete;
+        this.minNoise = minNoise;
+        this.offset = offset;
+        this.noise = noise;
+        this.drift = drift;
+    }
+
+    /**
+     * Works out the tare of a channel from a complete window
+     * @param data raw samples in the order they were taken, not modified
+     * @param count number of samples to use
+     */
+    public static Tare of(double[] data, int count){
+        return of(data, count, true, AITask.Mode.DEFAULT);
+    }
+
+    /**
+     * Works out the tare of a channel
+     * @param data raw samples in the order they were taken, not modified
+     * @param count number of samples to use
+     * @param complete false if the window was not filled before the DAQ timed out
+     * @param mode the mode the channel was read in, which sets the size of a converter step
+     */
+    public static Tare of(double[] data, int count, boolean complete, AITask.Mode mode){
+        double minNoise = minNoiseVolts(mode);
+        if(count < 2){
+            return new Tare(count, count == 1 ? data[0] : Double.NaN, Double.NaN, Double.NaN, complete, minNoise);
+        }
+        double[] sorted = Arrays.copyOf(data, count);
+        Arrays.sort(sorted);
+        double offset = trimmedMean(sorted, 0, count);
+
+        double[] deviations = new double[count];
+        for(int i = 0; i < count; i++){
+            deviations[i] = Math.abs(sorted[i] - offset);
+        }
+        Arrays.sort(deviations);
+        double noise = MAD_TO_SIGMA * deviations[count / 2];
+
+        int half = count / 2;
+        double[] first = Arrays.copyOf(data, half);
+        double[] second = Arrays.copyOfRange(data, half, count);
+        Arrays.sort(first);
+        Arrays.sort(second);
+        double drift = trimmedMean(second, 0, second.length) - trimmedMean(first, 0, first.length);
+        return new Tare(count, offset, noise, drift, complete, minNoise);
+    }
+
+    /**
+     * @param mode the mode the channel is read in
+     * @return the drift that always passes, a few steps of the converter, so a quiet channel
+     * toggling between two codes is not taken for a moving one
+     */
+    public static double minNoiseVolts(AITask.Mode mode){
+        //the terminal configuration the driver picks by default is not known here, so assume the coarser step
+        int bits = mode == AITask.Mode.DIFFERENTIAL ? DIFFERENTIAL_BITS : SINGLE_ENDED_BITS;
+        return FLOOR_STEPS * RANGE_VOLTS / (1 << bits);
+    }
+
+    /*
+     * Mean of a sorted range with TRIM_FRACTION dropped from each end
+     */
+    private static double trimmedMean(double[] sorted, int from, int to){
+        int trim = (int) ((to - from) * TRIM_FRACTION);
+        StreamingStatistics statistics = new StreamingStatistics();
+        statistics.add(sorted, from + trim, to - from - 2 * trim);
+        return statistics.getMean();
+    }
+
+    /**
+     * @return true when the whole window was captured and gives a real offset, whether or not the signal drifted
+     */
+    public boolean isUsable(){
+        return complete && samples >= 2 && Double.isFinite(offset);
+    }
+
+    /**
+     * @return true when the signal stayed put for the whole window, so the offset can be trusted
+     */
+    public boolean isStable(){
+        return isUsable() && Math.abs(drift) <= Math.max(noise, minNoise);
+    }
+
+    /**
+     * @return the zero voltage of the channel
+     */
+    public double getOffset(){
+        return offset;
+    }
+
+    /**
+     * @return the estimated standard deviation of the noise in volts
+     */
+    public double getNoise(){
+        return noise;
+    }
+
+    /**
+     * @return how far the second half of the window moved from the first, in volts
+     */
+    public double getDrift(){
+        return drift;
+    }
+
+    public int getSamples(){
+        return samples;
+    }
+}
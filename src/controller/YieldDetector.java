@@ -0,0 +1,101 @@
+package controller;
+
+/**
+ * Finds the 0.2% offset yield point as the points of a test arrive.
+ * The offset line is the elastic fit from ModulusEstimator moved over by OFFSET_STRAIN, starting where the fit
+ * crosses zero stress so any toe at the start of the curve is left out. Every new point past the elastic
+ * region is compared with the line, and the first time the curve drops below it the crossing is interpolated
+ * between that point and the one before it. Only the newest point is ever looked at.
+ * Points are added on the processing thread, the yield point can be read from any thread.
+ */
+public class YieldDetector {
+    public static final double OFFSET_STRAIN = 0.002;
+
+    private double previousStrain = Double.NaN;
+    private double previousGap; //previous stress minus the offset line at its strain
+    private volatile Yield yield; //null until the curve crosses the line
+
+    /**
+     * Checks the latest point against the offset line
+     * @param strain strain of the point
+     * @param stress stress of the point
+     * @param elastic the current elastic fit, null while there is none
+     */
+    public void add(double strain, double stress, ModulusEstimator.Estimate elastic){
+        if(yield != null || elastic == null || strain <= elastic.getToStrain()){
+            previousStrain = Double.NaN;
+            return;
+        }
+        double gap = stress - offsetLine(elastic, strain);
+        if(gap <= 0.0){
+            if(Double.isNaN(previousStrain) || previousGap <= 0.0){
+                //no point above the line to interpolate from, the crossing is at this point
+                yield = new Yield(strain, stress);
+            }else{
+                double fraction = previousGap / (previousGap - gap);
+                double crossing = previousStrain + fraction * (strain - previousStrain);
+                yield = new Yield(crossing, offsetLine(elastic, crossing));
+            }
+            return;
+        }
+        previousStrain = strain;
+        previousGap = gap;
+    }
+
+    /*
+     * Stress on the offset line at a strain
+     */
+    private static double offsetLine(ModulusEstimator.Estimate elastic, double strain){
+        return elastic.getModulus() * (strain - OFFSET_STRAIN) + elastic.getIntercept();
+    }
+
+    /**
+     * Converts a found yield point to other stress units
+     */
+    public void scaleStress(double factor){
+        Yield current = yield;
+        if(current != null){
+            yield = new Yield(current.strain, current.stress * factor);
+        }
+        previousGap *= factor;
+    }
+
+    /**
+     * Forgets everything, for the start of a new run
+     */
+    public void reset(){
+        previousStrain = Double.NaN;
+        yield = null;
+    }
+
+    /**
+     * @return the yield point, or null if the curve has not crossed the offset line yet
+     */
+    public Yield getYield(){
+        return yield;
+    }
+
+    /**
+     * Where the curve crossed the offset line
+     */
+    public static final class Yield {
+        private final double strain;
+        private final double stress;
+
+        private Yield(double strain, double stress){
+            this.strain = strain;
+            this.stress = stress;
+        }
+
+        public double getStrain(){
+            return strain;
+        }
+
+        /**
+         * @return the yield strength, in the stress units of the points
+         */
+        public double getStress(){
+            return stress;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package kirkwood.nidaq.access;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+
+/**
+ * Preallocated arguments for the allocation free read calls in {@link NiDaq}.
+ * Create one per task when the task is set up and pass it to every read.
+ */
+public class AnalogReadArgs {
+	final int channels;
+	final int fillMode;
+	final Pointer readArray;
+	final int capacityPerChannel;
+	final Memory sampsPerChanRead = new Memory(Integer.BYTES);
+	final Memory availSampPerChan = new Memory(Integer.BYTES);
+	final Memory currReadPos = new Memory(Long.BYTES);
+
+	/**
+	 * @param channels Number of channels in the task.
+	 *
+	 * @param fillMode DAQmx_Val_GroupByChannel or DAQmx_Val_GroupByScanNumber.
+	 *
+	 * @param readArray Native memory the samples are read into, such as a {@link Memory}.
+	 *
+	 * @param capacityPerChannel How many samples per channel readArray can hold.
+	 */
+	public AnalogReadArgs(int channels, int fillMode, Pointer readArray, int capacityPerChannel) {
+		this.channels = channels;
+		this.fillMode = fillMode;
+		this.readArray = readArray;
+		this.capacityPerChannel = capacityPerChannel;
+	}
+
+	/**
+	 * Size of the read array passed to the driver. A request smaller than the capacity passes
+	 * exactly the requested size so grouped by channel data is packed back to back.
+	 */
+	int arraySizeInSamps(int numSampsPerChan) {
+		if(numSampsPerChan < 0 || numSampsPerChan > capacityPerChannel) {
+			return channels * capacityPerChannel;
+		}
+		return channels * numSampsPerChan;
+	}
+
+	/**
+	 * @return The number of samples per channel the last read returned.
+	 */
+	public int getSampsPerChanRead() {
+		return sampsPerChanRead.getInt(0);
+	}
+
+	public int getCapacityPerChannel() {
+		return capacityPerChannel;
+	}
+}
@@ -29,10 +29,12 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 import kirkwood.nidaq.jna.Nicaiu;
+import kirkwood.nidaq.jna.NicaiuDirect;
 
 import com.sun.jna.Memory;
 import com.sun.jna.NativeLong;
 import com.sun.jna.Pointer;
+import com.sun.jna.ptr.IntByReference;
 import com.sun.jna.ptr.PointerByReference;
 
 /**
@@ -55,12 +57,37 @@ public class NiDaq {
 	 * @return
 	 */
 	public Pointer createTask(String taskName) throws NiDaqException {
+		return createTask(taskName.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Creates a task from a name that was already encoded, see {@link #encode(String)}.
+	 * 
+	 * @param taskName NUL terminated name assigned to the task.
+	 * 
+	 * @return
+	 */
+	public Pointer createTask(byte[] taskName) throws NiDaqException {
 		// This is my stuff
 		PointerByReference taskHandleRef = new PointerByReference();
-		checkError(Nicaiu.INSTANCE.DAQmxCreateTask(taskName.getBytes(StandardCharsets.UTF_8), taskHandleRef));
+		checkError(Nicaiu.INSTANCE.DAQmxCreateTask(taskName, taskHandleRef));
 		Pointer taskHandle = taskHandleRef.getValue();
 		return taskHandle;
 	}
+	
+	/**
+	 * Encodes a name once so it can be passed to the byte[] overloads without re-encoding it on every call.
+	 * 
+	 * @param name The name, with or without a trailing NUL.
+	 * 
+	 * @return NUL terminated UTF-8 bytes.
+	 */
+	public static byte[] encode(String name) {
+		if(!name.endsWith("\0")) {
+			name = name + "\0";
+		}
+		return name.getBytes(StandardCharsets.UTF_8);
+	}
 
 	/**
 	 * Creates channel(s) to generate digital signals and adds the channel(s) to the task you specify with 
@@ -138,7 +165,16 @@ public class NiDaq {
 	
 	
 	public void createAIVoltageChannel(Pointer taskHandle, String physicalChannel, String nameToAssignToChannel, int terminalConfig, double minVal, double maxVal, int units, String customScaleName) throws NiDaqException {
-		checkError(Nicaiu.INSTANCE.DAQmxCreateAIVoltageChan(taskHandle, physicalChannel.getBytes(StandardCharsets.UTF_8), nameToAssignToChannel.getBytes(StandardCharsets.UTF_8), terminalConfig, minVal, maxVal, units, customScaleName == null ? null : customScaleName.getBytes(StandardCharsets.UTF_8)));
+		createAIVoltageChannel(taskHandle, physicalChannel.getBytes(StandardCharsets.UTF_8), nameToAssignToChannel.getBytes(StandardCharsets.UTF_8), terminalConfig, minVal, maxVal, units, customScaleName == null ? null : customScaleName.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	/**
+	 * Same as above with names that were already encoded, see {@link #encode(String)}.
+	 * 
+	 * @throws NiDaqException
+	 */
+	public void createAIVoltageChannel(Pointer taskHandle, byte[] physicalChannel, byte[] nameToAssignToChannel, int terminalConfig, double minVal, double maxVal, int units, byte[] customScaleName) throws NiDaqException {
+		checkError(Nicaiu.INSTANCE.DAQmxCreateAIVoltageChan(taskHandle, physicalChannel, nameToAssignToChannel, terminalConfig, minVal, maxVal, units, customScaleName));
 	}
 
 	/**
@@ -283,6 +319,116 @@ public class NiDaq {
 		checkError(Nicaiu.INSTANCE.DAQmxReadAnalogF64(taskHandle, numSampsPerChan, timeout, new NativeLong(fillMode), readArray, new NativeLong(arraySizeInSamps), sampsPerChanRead, null));
 	}
 	
+	/**
+	 * Reads multiple floating-point samples straight into native memory, such as a preallocated
+	 * {@link Memory}. Unlike a heap backed DoubleBuffer the samples are not copied in and out of the
+	 * Java heap on every call, which matters at high sample rates.
+	 * 
+	 * @param readArray Native memory holding at least arraySizeInSamps doubles, organized according to fillMode.
+	 * 
+	 * @see #readAnalogF64(Pointer, int, double, int, DoubleBuffer, int, IntBuffer)
+	 * 
+	 * @throws NiDaqException
+	 */
+	public void readAnalogF64(Pointer taskHandle, int numSampsPerChan, double timeout, int fillMode, Pointer readArray, int arraySizeInSamps, IntBuffer sampsPerChanRead) throws NiDaqException {
+		checkError(Nicaiu.INSTANCE.DAQmxReadAnalogF64(taskHandle, numSampsPerChan, timeout, new NativeLong(fillMode), readArray, new NativeLong(arraySizeInSamps), sampsPerChanRead, null));
+	}
+	
+	/**
+	 * Indicates the number of samples available to read per channel. This value is the same for all channels in the task.
+	 * 
+	 * @param taskHandle The task to query.
+	 * 
+	 * @return The number of samples per channel that can be read without waiting.
+	 * 
+	 * @throws NiDaqException
+	 */
+	public int getReadAvailSampPerChan(Pointer taskHandle) throws NiDaqException {
+		IntByReference available = new IntByReference();
+		checkError(Nicaiu.INSTANCE.DAQmxGetReadAvailSampPerChan(taskHandle, available));
+		return available.getValue();
+	}
+	
+	/**
+	 * Allocation free version of {@link #getReadAvailSampPerChan(Pointer)} for use on every read.
+	 * 
+	 * @param taskHandle The task to query.
+	 * 
+	 * @param args Preallocated arguments of the task.
+	 * 
+	 * @return The number of samples per channel that can be read without waiting.
+	 * 
+	 * @throws NiDaqException
+	 */
+	public int getReadAvailSampPerChan(Pointer taskHandle, AnalogReadArgs args) throws NiDaqException {
+		checkError(directGetReadAvailSampPerChan(taskHandle, args.availSampPerChan));
+		return args.availSampPerChan.getInt(0);
+	}
+	
+	/**
+	 * Allocation free query of the position of the next sample to be read, which is the number of samples per channel
+	 * read since the task started. It counts the sample clock, so it keeps counting samples that were lost.
+	 * 
+	 * @param taskHandle The task to query.
+	 * 
+	 * @param args Preallocated arguments of the task.
+	 * 
+	 * @return The index on the sample clock of the next sample per channel a read returns.
+	 * 
+	 * @throws NiDaqException
+	 */
+	public long getReadCurrReadPos(Pointer taskHandle, AnalogReadArgs args) throws NiDaqException {
+		checkError(directGetReadCurrReadPos(taskHandle, args.currReadPos));
+		return args.currReadPos.getLong(0);
+	}
+	
+	/**
+	 * Allocation free version of readAnalogF64. Goes through the direct mapped binding with
+	 * preallocated arguments, so steady state reads create no garbage.
+	 * 
+	 * @param taskHandle The task to read samples from.
+	 * 
+	 * @param numSampsPerChan The number of samples, per channel, to read, -1 (DAQmx_Val_Auto) reads all available samples
+	 * that fit.
+	 * 
+	 * @param timeout The amount of time, in seconds, to wait for the function to read the sample(s).
+	 * 
+	 * @param args Preallocated fill mode, read array and read count of the task.
+	 * 
+	 * @return The actual number of samples read from each channel.
+	 * 
+	 * @throws NiDaqException
+	 */
+	public int readAnalogF64(Pointer taskHandle, int numSampsPerChan, double timeout, AnalogReadArgs args) throws NiDaqException {
+		args.sampsPerChanRead.setInt(0, 0);
+		checkError(directReadAnalogF64(taskHandle, numSampsPerChan, timeout, args.fillMode, args.readArray, args.arraySizeInSamps(numSampsPerChan), args.sampsPerChanRead));
+		return args.getSampsPerChanRead();
+	}
+	
+	/**
+	 * The driver calls behind the allocation free reads. They are the only place the reads touch
+	 * {@link NicaiuDirect}, so a test can stand in for the driver by overriding them.
+	 * 
+	 * @return The DAQmx error code.
+	 */
+	protected int directReadAnalogF64(Pointer taskHandle, int numSampsPerChan, double timeout, int fillMode, Pointer readArray, int arraySizeInSamps, Pointer sampsPerChanRead) {
+		return NicaiuDirect.DAQmxReadAnalogF64(taskHandle, numSampsPerChan, timeout, fillMode, readArray, arraySizeInSamps, sampsPerChanRead, null);
+	}
+	
+	/**
+	 * See {@link #directReadAnalogF64}.
+	 */
+	protected int directGetReadAvailSampPerChan(Pointer taskHandle, Pointer data) {
+		return NicaiuDirect.DAQmxGetReadAvailSampPerChan(taskHandle, data);
+	}
+	
+	/**
+	 * See {@link #directReadAnalogF64}.
+	 */
+	protected int directGetReadCurrReadPos(Pointer taskHandle, Pointer data) {
+		return NicaiuDirect.DAQmxGetReadCurrReadPos(taskHandle, data);
+	}
+	
 	
 	/**
 	 * Reads multiple Digital input samples from a task that contains one or more digital input channels.
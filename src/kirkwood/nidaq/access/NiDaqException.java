@@ -29,6 +29,13 @@ public class NiDaqException extends Exception {
 	public NiDaqException(int errorCode) {
 		this.errorCode = errorCode;
 	}
+
+	/**
+	 * @return The DAQmx error code, negative for errors.
+	 */
+	public int getErrorCode() {
+		return errorCode;
+	}
 	
 	/**
 	 * Translate the DAQ numerical error code into the event type.
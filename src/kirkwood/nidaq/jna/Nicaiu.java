@@ -45,6 +45,9 @@ public interface Nicaiu extends StdCallLibrary {
 	Nicaiu INSTANCE = (Nicaiu) Native.loadLibrary("nicaiu", Nicaiu.class);
 	
 	public static final int DAQmx_Val_GroupByChannel = (int)0;
+	public static final int DAQmx_Val_GroupByScanNumber = (int)1;
+	public static final int DAQmx_Val_Auto = (int)-1;
+	public static final double DAQmx_Val_WaitInfinitely = -1.0;
 	public static final int DAQmx_Val_ChanPerLine = (int)0;
 	public static final int DAQmx_Val_ChanForAllLines = (int)1;
 	public static final int DAQmx_Val_Cfg_Default = (int)-1;
@@ -138,6 +141,20 @@ public interface Nicaiu extends StdCallLibrary {
 	 */
 	int DAQmxReadAnalogF64(Pointer taskHandle, int numSampsPerChan, double timeout, NativeLong fillMode, DoubleBuffer readArray, NativeLong arraySizeInSamps, IntBuffer sampsPerChanRead, NativeLongByReference reserved);
 	
+	/**
+	 * Same as above, reading straight into native memory so JNA does not copy the array in and out.<br>
+	 * Original signature : <code>int32 DAQmxReadAnalogF64(TaskHandle, int32, float64, bool32, float64[], uInt32, int32*, bool32*)</code><br>
+	 * <i>native declaration : line 2601</i>
+	 */
+	int DAQmxReadAnalogF64(Pointer taskHandle, int numSampsPerChan, double timeout, NativeLong fillMode, Pointer readArray, NativeLong arraySizeInSamps, IntBuffer sampsPerChanRead, NativeLongByReference reserved);
+	
+	/**
+	 * *** Set/Get functions for DAQmx_Read_AvailSampPerChan ***<br>
+	 * Original signature : <code>int32 DAQmxGetReadAvailSampPerChan(TaskHandle, uInt32*)</code><br>
+	 * <i>native declaration : line 5953</i>
+	 */
+	int DAQmxGetReadAvailSampPerChan(Pointer taskHandle, IntByReference data);
+	
 	/**
 	 * Original signature : <code>int32 DAQmxStopTask(TaskHandle)</code><br>
 	 * <i>native declaration : line 2415</i>
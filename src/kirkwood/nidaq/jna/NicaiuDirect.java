@@ -0,0 +1,39 @@
+package kirkwood.nidaq.jna;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.win32.StdCallLibrary;
+
+/**
+ * Direct mapped bindings for the few DAQmx functions called on every read.
+ * Unlike the {@link Nicaiu} interface proxy, direct calls do not box their arguments into an
+ * Object array, and bool32/uInt32 are passed as the 32 bit ints they are instead of NativeLong,
+ * so a call allocates nothing on the Java heap.
+ * Implementing StdCallLibrary selects the stdcall convention NI-DAQmx uses on 32 bit Windows.
+ */
+public final class NicaiuDirect implements StdCallLibrary {
+	static {
+		Native.register("nicaiu");
+	}
+
+	private NicaiuDirect() {
+	}
+
+	/**
+	 * Original signature : <code>int32 DAQmxReadAnalogF64(TaskHandle, int32, float64, bool32, float64[], uInt32, int32*, bool32*)</code><br>
+	 * <i>native declaration : line 2601</i>
+	 */
+	public static native int DAQmxReadAnalogF64(Pointer taskHandle, int numSampsPerChan, double timeout, int fillMode, Pointer readArray, int arraySizeInSamps, Pointer sampsPerChanRead, Pointer reserved);
+
+	/**
+	 * Original signature : <code>int32 DAQmxGetReadAvailSampPerChan(TaskHandle, uInt32*)</code><br>
+	 * <i>native declaration : line 5953</i>
+	 */
+	public static native int DAQmxGetReadAvailSampPerChan(Pointer taskHandle, Pointer data);
+
+	/**
+	 * Original signature : <code>int32 DAQmxGetReadCurrReadPos(TaskHandle, uInt64*)</code><br>
+	 * <i>native declaration : line 5949</i>
+	 */
+	public static native int DAQmxGetReadCurrReadPos(Pointer taskHandle, Pointer data);
+}
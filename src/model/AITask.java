@@ -1,134 +1,91 @@
 package model;
 
-import com.sun.jna.Pointer;
-import kirkwood.nidaq.access.NiDaq;
 import kirkwood.nidaq.access.NiDaqException;
-import kirkwood.nidaq.jna.Nicaiu;
-import java.nio.DoubleBuffer;
-import java.nio.IntBuffer;
 
 /**
- * This class encapsulates the NIDaq Library found here:
- * https://github.com/davekirkwood/JNI-for-NI-Drivers/tree/master/src/kirkwood/nidaq
+ * An analog input task that continuously samples the force and elongation channels.
+ * NiAITask talks to the National Instruments chip, SimulatedAITask generates the voltages
+ * so the whole pipeline can run without hardware attached.
  */
-public class AITask {
+public interface AITask {
     // describes specific mode the channel is in
-    public enum Mode {
+    enum Mode {
         DIFFERENTIAL, RSE, DEFAULT
     }
 
-    public static final int SAMPLES_PER_SECOND = 100;
-    public static final int UPDATES_PER_SECOND = 5;
-    public static final int INPUT_BUFFER_SIZE = SAMPLES_PER_SECOND/UPDATES_PER_SECOND;
-    public static final int FORCE_CHANNEL = 0;
-    public static final int LENGTH_CHANNEL = 1;
+    int SAMPLES_PER_SECOND = 10000; //per channel, paced by the hardware sample clock
+    int UPDATES_PER_SECOND = 5;
+    int BLOCKS_PER_SECOND = 20;
+    int INPUT_BUFFER_SIZE = SAMPLES_PER_SECOND/BLOCKS_PER_SECOND; //smallest block read per channel
+    int MAX_BLOCKS_PER_READ = 8; //how far behind a single read can catch up
+    int DAQ_BUFFER_SECONDS = 2; //size of the driver side buffer
+    int FORCE_CHANNEL = 0;
+    int LENGTH_CHANNEL = 1;
 
-    private int channels;
-    private NiDaq daq ;
-    private Pointer aiTask;
-    private int[] read;
-    private double [][] data;
-    private DoubleBuffer inputBuffer;
-    private IntBuffer samplesPerChannelRead;
-    private boolean readyToRun;
-
-    public AITask(){
-        try {
-            daq = new NiDaq();
-            aiTask = daq.createTask("AITask\0");
-            readyToRun = false;
-        }catch (NiDaqException e){
-            e.printStackTrace();
-        }
-    }
+    /**
+     * Creates an Analog Input Channel with the given mode, on the given port
+     * @param channelNumber the port to read from
+     * @param channelMode the mode the port reads in
+     */
+    void createAIChannel(int channelNumber, Mode channelMode) throws NiDaqException;
 
-    public void pause(){
-        try {
-            daq.stopTask(aiTask);
-        } catch (NiDaqException e) {
-            e.printStackTrace();
-        }
-    }
+    /**
+     * Should be called before starting to try and pull data and after creating Analog Input Channels
+     */
+    void readyToRun();
 
     /**
-     * Creates an Analog Input Channel with the given mode, on the given port
-     * @param channelNumber the port that the National Instruments Chip will read from
-     * @param channelMode the mode that the National Instruments Chip reads in (see the chip manual for more information)
+     * Starts the sample clock
      */
-    public void createAIChannel(int channelNumber, Mode channelMode) throws NiDaqException{
-        if(!readyToRun) {
-            String channelName = "Dev1/ai" + channelNumber + "\0";
+    void start() throws NiDaqException;
 
-            switch (channelMode) {
-                case DIFFERENTIAL:
-                    daq.createAIVoltageChannel(aiTask, channelName, "\0", Nicaiu.DAQmx_Val_Diff, -10.0, 10.0, Nicaiu.DAQmx_Val_Volts, null);
-                    break;
-                case RSE:
-                    daq.createAIVoltageChannel(aiTask, channelName, "\0", Nicaiu.DAQmx_Val_RSE, -10.0, 10.0, Nicaiu.DAQmx_Val_Volts, null);
-                    break;
-                default:
-                    daq.createAIVoltageChannel(aiTask, channelName, "\0", Nicaiu.DAQmx_Val_Default, -10.0, 10.0, Nicaiu.DAQmx_Val_Volts, null);
-            }
-            channels++;
+    /**
+     * Stops the sample clock
+     */
+    void pause();
 
-        }else{
-            System.err.println("AITask: Ready to run function already called.");
-        }
+    /**
+     * Tells the task whether the machine is standing still, as it is while the channels are tared.
+     * Hardware ignores it, tasks that make up their samples keep the specimen where it is while idle
+     * instead of moving on through the test.
+     */
+    default void setIdle(boolean idle){
     }
 
     /**
-     * Should be called before starting to try and pull data and after creating Analog Input Channels
-     * Sets everything up to be ready to run
+     * Reads a single block so getChannelData has something to average
      */
-    public void readyToRun(){
-        try {
-            daq.cfgSampClkTiming(aiTask, "\0", SAMPLES_PER_SECOND, Nicaiu.DAQmx_Val_Rising, Nicaiu.DAQmx_Val_ContSamps, channels * INPUT_BUFFER_SIZE);
-            read = new int[] {0};
-            double[] buffer = new double[channels * INPUT_BUFFER_SIZE];
-            inputBuffer = DoubleBuffer.wrap(buffer);
-            samplesPerChannelRead = IntBuffer.wrap(read);
-            data = new double[channels][INPUT_BUFFER_SIZE];
-            readyToRun = true;
-        } catch (NiDaqException e) {
-            e.printStackTrace();
-        }
-    }
+    void collectData();
 
     /**
-     * Called to update stored data.
-     * Should be called before trying to display data
+     * Reads everything that has been sampled, waiting for at least one block if less is available
+     * @return the number of samples per channel that were read into the block
      */
-    public void collectData(){
-        if(readyToRun) {
-            try {
-                daq.readAnalogF64(aiTask, INPUT_BUFFER_SIZE, -1, -1, inputBuffer, channels * INPUT_BUFFER_SIZE, samplesPerChannelRead);
-            } catch (NiDaqException e) {
-                e.printStackTrace();
-            }
+    int readAvailable() throws NiDaqException;
 
-            for (int i = 0; i < read[0]; i++) {
-                for (int j = 0; j < channels; j++) {
-                    data[j][i] = inputBuffer.get();
-                }
-            }
-            inputBuffer.clear();
-        }else{
-            System.err.println("AITask: Ready to run not called yet.");
-        }
+    /**
+     * @return samples per channel that were waiting in the buffer when the last read started
+     */
+    default int getBacklog(){
+        return 0;
     }
 
     /**
-     * Gets the data for the specified channel number
      * @param channelNumber channel number of the data you would like
-     * @return a double array of data from the channel given
+     * @return the average of the last read for the channel given
      */
-    public double getChannelData(int channelNumber){
-        double cleanedData = 0.0;
-        for(int j = 0; j < INPUT_BUFFER_SIZE; j++){
-            cleanedData += data[channelNumber][j];
-        }
-        cleanedData /= INPUT_BUFFER_SIZE;
+    double getChannelData(int channelNumber);
 
-        return cleanedData;
-    }
+    /**
+     * The block is reused by the next read so it must be consumed before then
+     * @return the block filled by the last read
+     */
+    SampleBlock getBlock();
+
+    int getChannels();
+
+    /**
+     * @return samples per second per channel
+     */
+    double getSampleRate();
 }
@@ -0,0 +1,113 @@
+package model;
+
+import kirkwood.nidaq.access.NiDaqException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drains a continuous acquisition task as fast as the hardware clock fills it
+ * and hands every block to the registered listeners.
+ */
+public class AcquisitionEngine extends Thread {
+    private final AITask aiTask;
+    private final List<BlockListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean done = new AtomicBoolean(false);
+    private final AtomicBoolean run = new AtomicBoolean(false);
+    private final AcquisitionMetrics metrics = new AcquisitionMetrics();
+
+    public AcquisitionEngine(AITask aiTask){
+        super("AcquisitionEngine");
+        this.aiTask = aiTask;
+        setDaemon(true);
+    }
+
+    public void addListener(BlockListener listener){
+        listeners.add(listener);
+    }
+
+    public void removeListener(BlockListener listener){
+        listeners.remove(listener);
+    }
+
+    /**
+     * Runs the acquisition thread.
+     * Each read blocks on the hardware clock until at least one block is ready,
+     * then takes everything that is available so the driver buffer never backs up.
+     */
+    @Override
+    public void run() {
+        while(!done.get()) {
+            try {
+                if(!run.get()){
+                    synchronized (this){
+                        while(!run.get() && !done.get()) {
+                            wait();
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                //do nothing
+            }
+
+            if(done.get()) {
+                return;
+            }
+
+            try {
+                int samples = aiTask.readAvailable();
+                if(samples > 0 && run.get()){
+                    SampleBlock block = aiTask.getBlock();
+                    metrics.read(block, aiTask.getBacklog());
+                    for(BlockListener listener : listeners){
+                        listener.blockAcquired(block);
+                    }
+                }
+            } catch (NiDaqException e) {
+                //reads fail while the task is being stopped, only report them while running
+                if(run.get()) {
+                    metrics.error(e.getErrorCode());
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts the hardware clock and resumes draining it
+     */
+    public synchronized void collect(){
+        metrics.clockRestarted();
+        try {
+            aiTask.start();
+        } catch (NiDaqException e) {
+            e.printStackTrace();
+        }
+        run.set(true);
+        notifyAll();
+    }
+
+    /**
+     * Stops the hardware clock, the thread waits until collect is called again
+     */
+    public void pause(){
+        run.set(false);
+        aiTask.pause();
+    }
+
+    /**
+     * Stops the thread permanently
+     */
+    public synchronized void terminate() {
+        done.set(true);
+        notifyAll();
+    }
+
+    public AITask getTask(){
+        return aiTask;
+    }
+
+    public AcquisitionMetrics getMetrics(){
+        return metrics;
+    }
+}
@@ -0,0 +1,162 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Health of the acquisition: how much the driver had buffered when each read started, how much each read took,
+ * and every way samples were lost on the way, so a run that lost data says so instead of only leaving a stack trace.
+ * Samples are lost when the driver buffer overruns (the sample clock jumps between reads)
+ * and when the processing falls so far behind that the ring is full.
+ * The acquisition thread records, any thread may read.
+ */
+public class AcquisitionMetrics {
+    public static final int SAMPLES_NO_LONGER_AVAILABLE = -200279; //DAQmx error for a driver buffer that was overwritten
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong samplesRead = new AtomicLong();
+    private volatile int lastReadSize;
+    private volatile int maxReadSize;
+    private volatile int lastBacklog;
+    private volatile int maxBacklog;
+    private final AtomicLong overruns = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile int lastErrorCode;
+    private final AtomicLong samplesLost = new AtomicLong(); //gaps in the sample clock
+    private final AtomicLong samplesDropped = new AtomicLong(); //did not fit in the ring
+    //sample clock index the next read should start at, -1 until the first read after the clock starts
+    private volatile long nextSample = -1;
+
+    /**
+     * Records a successful read, called by the acquisition thread
+     * @param block the block the read filled
+     * @param backlog samples per channel the driver had buffered when the read started
+     */
+    public void read(SampleBlock block, int backlog){
+        int size = block.size();
+        reads.incrementAndGet();
+        samplesRead.addAndGet(size);
+        lastReadSize = size;
+        maxReadSize = Math.max(maxReadSize, size);
+        lastBacklog = backlog;
+        maxBacklog = Math.max(maxBacklog, backlog);
+        if(nextSample >= 0 && block.getFirstSample() > nextSample){
+            samplesLost.addAndGet(block.getFirstSample() - nextSample);
+        }
+        nextSample = block.getFirstSample() + size;
+    }
+
+    /**
+     * Records a failed read, called by the acquisition thread
+     * @param errorCode the DAQmx error code
+     */
+    public void error(int errorCode){
+        errors.incrementAndGet();
+        lastErrorCode = errorCode;
+        if(errorCode == SAMPLES_NO_LONGER_AVAILABLE){
+            overruns.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records samples per channel that were read but thrown away because the ring was full
+     */
+    public void dropped(int samples){
+        samplesDropped.addAndGet(samples);
+    }
+
+    /**
+     * Called by the acquisition thread when the sample clock starts again from zero
+     */
+    public void clockRestarted(){
+        nextSample = -1;
+    }
+
+    public long getReads(){
+        return reads.get();
+    }
+
+    /**
+     * @return samples per channel read since the last reset
+     */
+    public long getSamplesRead(){
+        return samplesRead.get();
+    }
+
+    public int getLastReadSize(){
+        return lastReadSize;
+    }
+
+    public int getMaxReadSize(){
+        return maxReadSize;
+    }
+
+    /**
+     * @return samples per channel the driver had buffered when the last read started
+     */
+    public int getLastBacklog(){
+        return lastBacklog;
+    }
+
+    public int getMaxBacklog(){
+        return maxBacklog;
+    }
+
+    /**
+     * @return how many reads failed because the driver buffer was overwritten
+     */
+    public long getOverruns(){
+        return overruns.get();
+    }
+
+    /**
+     * @return how many reads failed for any reason, overruns included
+     */
+    public long getErrors(){
+        return errors.get();
+    }
+
+    /**
+     * @return the DAQmx error code of the last failed read, 0 if none failed
+     */
+    public int getLastErrorCode(){
+        return lastErrorCode;
+    }
+
+    /**
+     * @return samples per channel the sample clock skipped between reads
+     */
+    public long getSamplesLost(){
+        return samplesLost.get();
+    }
+
+    /**
+     * @return samples per channel read but thrown away because processing fell behind
+     */
+    public long getSamplesDropped(){
+        return samplesDropped.get();
+    }
+
+    /**
+     * @return true once any sample of the run did not make it into the data
+     */
+    public boolean isLosingSamples(){
+        return overruns.get() > 0 || samplesLost.get() > 0 || samplesDropped.get() > 0;
+    }
+
+    /**
+     * Forgets everything, called at the start of a run while the acquisition thread is not reading
+     */
+    public void reset(){
+        reads.set(0);
+        samplesRead.set(0);
+        lastReadSize = 0;
+        maxReadSize = 0;
+        lastBacklog = 0;
+        maxBacklog = 0;
+        overruns.set(0);
+        errors.set(0);
+        lastErrorCode = 0;
+        samplesLost.set(0);
+        samplesDropped.set(0);
+    }
+}
@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * Receives every block of samples the acquisition engine reads
+ */
+public interface BlockListener {
+    /**
+     * Called on the acquisition thread as soon as a block has been read.
+     * The block is reused for the next read, so copy anything that must outlive this call.
+     * @param block the samples that were just read
+     */
+    void blockAcquired(SampleBlock block);
+}
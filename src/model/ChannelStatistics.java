@@ -0,0 +1,110 @@
+package model;
+
+/**
+ * Live statistics of every channel of an acquisition task, for watching noise and drift while a test runs.
+ * Registered as a BlockListener it keeps two views per channel: everything since the last reset, and a
+ * rolling window of about the last windowSeconds made of one accumulator per block that are merged on demand.
+ * Updating costs O(1) per sample and allocates nothing. Readers on other threads take a consistent copy
+ * with snapshot.
+ */
+public class ChannelStatistics implements BlockListener {
+    public static final double DEFAULT_WINDOW_SECONDS = 1.0;
+    private static final int MAX_WINDOW_BLOCKS = 256; //older blocks fall out of the window even if it is not full
+
+    private final int channels;
+    private final long windowSamples;
+    private final StreamingStatistics[] run;
+    private final StreamingStatistics[][] blocks; //[slot][channel] ring of per block accumulators
+    private final long[] blockSamples; //samples per channel in each slot
+    private int oldest = 0;
+    private int blockCount = 0;
+    private long samplesInWindow = 0;
+
+    /**
+     * @param channels number of channels in the task
+     * @param sampleRate samples per second per channel
+     * @param windowSeconds how far back the rolling statistics reach
+     */
+    public ChannelStatistics(int channels, double sampleRate, double windowSeconds){
+        this.channels = channels;
+        this.windowSamples = Math.max(1, (long) (sampleRate * windowSeconds));
+        run = new StreamingStatistics[channels];
+        blocks = new StreamingStatistics[MAX_WINDOW_BLOCKS][channels];
+        blockSamples = new long[MAX_WINDOW_BLOCKS];
+        for(int c = 0; c < channels; c++){
+            run[c] = new StreamingStatistics();
+            for(int b = 0; b < MAX_WINDOW_BLOCKS; b++){
+                blocks[b][c] = new StreamingStatistics();
+            }
+        }
+    }
+
+    /**
+     * Adds a block to the run and the window, called on the acquisition thread
+     */
+    @Override
+    public synchronized void blockAcquired(SampleBlock block){
+        int size = block.size();
+        if(size == 0){
+            return;
+        }
+        if(blockCount == MAX_WINDOW_BLOCKS){
+            dropOldest();
+        }
+        int slot = (oldest + blockCount) % MAX_WINDOW_BLOCKS;
+        blockCount++;
+        for(int c = 0; c < channels; c++){
+            StreamingStatistics statistics = blocks[slot][c];
+            statistics.reset();
+            statistics.add(block, c);
+            run[c].merge(statistics);
+        }
+        blockSamples[slot] = size;
+        samplesInWindow += size;
+
+        //keep the newest blocks that still cover the window
+        while(blockCount > 1 && samplesInWindow - blockSamples[oldest] >= windowSamples){
+            dropOldest();
+        }
+    }
+
+    private void dropOldest(){
+        samplesInWindow -= blockSamples[oldest];
+        oldest = (oldest + 1) % MAX_WINDOW_BLOCKS;
+        blockCount--;
+    }
+
+    /**
+     * Copies the current statistics of one channel
+     * @param channel channel index within the task
+     * @param runOut receives the statistics since the last reset, may be null
+     * @param windowOut receives the statistics of the rolling window, may be null
+     */
+    public synchronized void snapshot(int channel, StreamingStatistics runOut, StreamingStatistics windowOut){
+        if(runOut != null){
+            runOut.copyFrom(run[channel]);
+        }
+        if(windowOut != null){
+            windowOut.reset();
+            for(int i = 0; i < blockCount; i++){
+                windowOut.merge(blocks[(oldest + i) % MAX_WINDOW_BLOCKS][channel]);
+            }
+        }
+    }
+
+    /**
+     * Forgets everything, for the start of a new run
+     */
+    public synchronized void reset(){
+        for(StreamingStatistics statistics : run){
+            statistics.reset();
+        }
+        oldest = 0;
+        blockCount = 0;
+        samplesInWindow = 0;
+    }
+
+    public int getChannelCount(){
+        return channels;
+    }
+}
@@ -0,0 +1,106 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of durations in nanoseconds with a fixed relative precision, in the style of HdrHistogram.
+ * Values below SUB_BUCKETS are counted exactly, above that every power of two is split into SUB_BUCKETS
+ * equal buckets, so any value is counted in a bucket no wider than 1 / SUB_BUCKETS of it (about 3%)
+ * and the whole range of a long fits in under two thousand counters.
+ * Recording is a few shifts and an atomic increment, never allocates and never blocks,
+ * so any number of threads may record while another reads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Counts one duration, negative durations (clock readings taken out of order) count as zero
+     */
+    public void record(long nanos){
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        long current = max.get();
+        while(value > current && !max.compareAndSet(current, value)){
+            current = max.get();
+        }
+    }
+
+    /*
+     * Bucket of a value: exact below SUB_BUCKETS, then SUB_BUCKETS buckets per power of two
+     */
+    static int indexOf(long value){
+        if(value < SUB_BUCKETS){
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /*
+     * Largest value counted in a bucket
+     */
+    static long highestValueOf(int index){
+        if(index < SUB_BUCKETS){
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * @param percentile 0 to 100
+     * @return the value at or below which that share of the durations fall, to the precision of a bucket, 0 when empty
+     */
+    public long getValueAtPercentile(double percentile){
+        long total = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            total += counts.get(i);
+        }
+        if(total == 0){
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            seen += counts.get(i);
+            if(seen >= target){
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return the longest duration recorded, exactly
+     */
+    public long getMax(){
+        return max.get();
+    }
+
+    /**
+     * @return the number of durations recorded
+     */
+    public long getCount(){
+        return count.get();
+    }
+
+    /**
+     * Forgets every duration. Durations recorded while it runs may be partly kept.
+     */
+    public void reset(){
+        for(int i = 0; i < BUCKETS; i++){
+            counts.set(i, 0);
+        }
+        count.set(0);
+        max.set(0);
+    }
+}
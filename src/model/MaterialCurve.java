@@ -0,0 +1,150 @@
+package model;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Scanner;
+
+/**
+ * A stress-strain path that SimulatedAITask walks along during a simulated test.
+ * Points are kept in the order the specimen goes through them, so recorded curves
+ * that wander back and forth in strain replay exactly as they were measured.
+ */
+public class MaterialCurve {
+    private final double[] strain;
+    private final double[] stress;
+    private final double maxStrain;
+    private final double maxStress;
+
+    public MaterialCurve(double[] strain, double[] stress){
+        if(strain.length != stress.length || strain.length < 2){
+            throw new IllegalArgumentException("A curve needs at least two matching strain and stress points");
+        }
+        this.strain = strain;
+        this.stress = stress;
+        this.maxStrain = Math.max(max(strain), Double.MIN_VALUE);
+        this.maxStress = Math.max(max(stress), Double.MIN_VALUE);
+    }
+
+    /**
+     * Builds an idealized ductile curve: linear up to yield, hardening up to the ultimate strength,
+     * necking down to fracture and then no load at all.
+     * @param modulus slope of the elastic region
+     * @param yieldStress stress where the elastic region ends
+     * @param ultimateStress peak stress
+     * @param fractureStrain strain where the specimen breaks
+     * @return the curve
+     */
+    public static MaterialCurve idealized(double modulus, double yieldStress, double ultimateStress, double fractureStrain){
+        final int points = 200;
+        double yieldStrain = yieldStress / modulus;
+        double ultimateStrain = yieldStrain + (fractureStrain - yieldStrain) * 0.6;
+        double[] strain = new double[points + 1];
+        double[] stress = new double[points + 1];
+        for(int i = 0; i < points; i++){
+            double e = fractureStrain * i / (points - 1);
+            double s;
+            if(e <= yieldStrain){
+                s = modulus * e;
+            }else if(e <= ultimateStrain){
+                double t = (e - yieldStrain) / (ultimateStrain - yieldStrain);
+                s = yieldStress + (ultimateStress - yieldStress) * (2 * t - t * t);
+            }else{
+                double t = (e - ultimateStrain) / (fractureStrain - ultimateStrain);
+                s = ultimateStress - (ultimateStress - yieldStress) * 0.5 * t * t;
+            }
+            strain[i] = e;
+            stress[i] = s;
+        }
+        //fracture, the load drops away
+        strain[points] = fractureStrain;
+        stress[points] = 0.0;
+        return new MaterialCurve(strain, stress);
+    }
+
+    /**
+     * Reads a curve from a csv file of strain,stress rows such as documents/stress_strain_data_*.csv
+     * Lines that do not start with two numbers, like headers, are skipped.
+     * @param file the csv file
+     * @return the curve
+     */
+    public static MaterialCurve fromCsv(File file) throws FileNotFoundException {
+        double[] strain = new double[1024];
+        double[] stress = new double[1024];
+        int count = 0;
+        Scanner input = new Scanner(file);
+        try {
+            while (input.hasNextLine()) {
+                String[] values = input.nextLine().split(",");
+                if (values.length < 2) {
+                    continue;
+                }
+                try {
+                    double e = Double.parseDouble(values[0].trim());
+                    double s = Double.parseDouble(values[1].trim());
+                    if (count == strain.length) {
+                        strain = Arrays.copyOf(strain, count * 2);
+                        stress = Arrays.copyOf(stress, count * 2);
+                    }
+                    strain[count] = e;
+                    stress[count] = s;
+                    count++;
+                } catch (NumberFormatException e) {
+                    //header or note line
+                }
+            }
+        } finally {
+            input.close();
+        }
+        return new MaterialCurve(Arrays.copyOf(strain, count), Arrays.copyOf(stress, count));
+    }
+
+    /**
+     * @param position how far along the path, 0 is the first point and 1 is the last
+     * @return the interpolated strain at that position
+     */
+    public double strainAt(double position){
+        return interpolate(strain, position);
+    }
+
+    /**
+     * @param position how far along the path, 0 is the first point and 1 is the last
+     * @return the interpolated stress at that position
+     */
+    public double stressAt(double position){
+        return interpolate(stress, position);
+    }
+
+    public double getMaxStrain(){
+        return maxStrain;
+    }
+
+    public double getMaxStress(){
+        return maxStress;
+    }
+
+    public int size(){
+        return strain.length;
+    }
+
+    private static double interpolate(double[] values, double position){
+        if(position <= 0){
+            return values[0];
+        }
+        double index = position * (values.length - 1);
+        int lower = (int) index;
+        if(lower >= values.length - 1){
+            return values[values.length - 1];
+        }
+        double fraction = index - lower;
+        return values[lower] + (values[lower + 1] - values[lower]) * fraction;
+    }
+
+    private static double max(double[] values){
+        double max = values[0];
+        for(double value : values){
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,198 @@
+package model;
+
+import com.sun.jna.Pointer;
+import kirkwood.nidaq.access.AnalogReadArgs;
+import kirkwood.nidaq.access.NiDaq;
+import kirkwood.nidaq.access.NiDaqException;
+import kirkwood.nidaq.jna.Nicaiu;
+
+/**
+ * This class encapsulates the NIDaq Library found here:
+ * https://github.com/davekirkwood/JNI-for-NI-Drivers/tree/master/src/kirkwood/nidaq
+ */
+public class NiAITask implements AITask {
+    public static final double READ_TIMEOUT = 1.0; //seconds
+    private static final byte[] TASK_NAME = NiDaq.encode("AITask");
+    private static final byte[] NO_NAME = NiDaq.encode("");
+
+    private int channels;
+    private NiDaq daq ;
+    private Pointer aiTask;
+    private SampleBlock block;
+    private AnalogReadArgs readArgs;
+    private boolean readyToRun;
+    private int backlog; //samples per channel available when the last read started
+
+    public NiAITask(){
+        try {
+            daq = new NiDaq();
+            aiTask = daq.createTask(TASK_NAME);
+            readyToRun = false;
+        }catch (NiDaqException e){
+            e.printStackTrace();
+        }
+    }
+
+    /*
+     * Wraps a task that was already created and timed, so the read path can run against
+     * a NiDaq that stands in for the driver
+     */
+    NiAITask(NiDaq daq, Pointer aiTask, int channels){
+        this.daq = daq;
+        this.aiTask = aiTask;
+        this.channels = channels;
+        allocate();
+    }
+
+    /**
+     * Starts the continuous acquisition so the hardware clock begins filling the driver buffer
+     */
+    @Override
+    public void start() throws NiDaqException{
+        daq.startTask(aiTask);
+    }
+
+    @Override
+    public void pause(){
+        try {
+            daq.stopTask(aiTask);
+        } catch (NiDaqException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Creates an Analog Input Channel with the given mode, on the given port
+     * @param channelNumber the port that the National Instruments Chip will read from
+     * @param channelMode the mode that the National Instruments Chip reads in (see the chip manual for more information)
+     */
+    @Override
+    public void createAIChannel(int channelNumber, Mode channelMode) throws NiDaqException{
+        if(!readyToRun) {
+            byte[] channelName = NiDaq.encode("Dev1/ai" + channelNumber);
+
+            switch (channelMode) {
+                case DIFFERENTIAL:
+                    daq.createAIVoltageChannel(aiTask, channelName, NO_NAME, Nicaiu.DAQmx_Val_Diff, -10.0, 10.0, Nicaiu.DAQmx_Val_Volts, null);
+                    break;
+                case RSE:
+                    daq.createAIVoltageChannel(aiTask, channelName, NO_NAME, Nicaiu.DAQmx_Val_RSE, -10.0, 10.0, Nicaiu.DAQmx_Val_Volts, null);
+                    break;
+                default:
+                    daq.createAIVoltageChannel(aiTask, channelName, NO_NAME, Nicaiu.DAQmx_Val_Default, -10.0, 10.0, Nicaiu.DAQmx_Val_Volts, null);
+            }
+            channels++;
+
+        }else{
+            System.err.println("AITask: Ready to run function already called.");
+        }
+    }
+
+    /**
+     * Should be called before starting to try and pull data and after creating Analog Input Channels
+     * Sets everything up to be ready to run
+     */
+    @Override
+    public void readyToRun(){
+        try {
+            daq.cfgSampClkTiming(aiTask, "\0", SAMPLES_PER_SECOND, Nicaiu.DAQmx_Val_Rising, Nicaiu.DAQmx_Val_ContSamps, SAMPLES_PER_SECOND * DAQ_BUFFER_SECONDS);
+            allocate();
+        } catch (NiDaqException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /*
+     * Sets up the block the driver reads into and the arguments passed to every read
+     */
+    private void allocate(){
+        block = new SampleBlock(channels, INPUT_BUFFER_SIZE * MAX_BLOCKS_PER_READ);
+        readArgs = new AnalogReadArgs(channels, Nicaiu.DAQmx_Val_GroupByChannel, block.getPointer(), block.getCapacity());
+        readyToRun = true;
+    }
+
+    /**
+     * Called to update stored data.
+     * Should be called before trying to display data
+     */
+    @Override
+    public void collectData(){
+        if(readyToRun) {
+            try {
+                read(INPUT_BUFFER_SIZE);
+            } catch (NiDaqException e) {
+                e.printStackTrace();
+            }
+        }else{
+            System.err.println("AITask: Ready to run not called yet.");
+        }
+    }
+
+    /**
+     * Reads everything the driver has buffered, waiting on the hardware clock for at least one
+     * block if less than that is available. Never reads more than the block can hold.
+     * @return the number of samples per channel that were read into the block
+     */
+    @Override
+    public int readAvailable() throws NiDaqException{
+        int available = daq.getReadAvailSampPerChan(aiTask, readArgs);
+        backlog = available;
+        return read(Math.min(Math.max(available, INPUT_BUFFER_SIZE), block.getCapacity()));
+    }
+
+    /*
+     * Reads the given number of samples per channel straight into the native memory of the block.
+     * Grouped by channel so consumers can walk each channel in place without de-interleaving.
+     * Uses the preallocated read arguments so steady state reads allocate nothing.
+     */
+    private int read(int samplesPerChannel) throws NiDaqException{
+        int read;
+        long position;
+        try {
+            position = daq.getReadCurrReadPos(aiTask, readArgs);
+            read = daq.readAnalogF64(aiTask, samplesPerChannel, READ_TIMEOUT, readArgs);
+        } catch (NiDaqException e) {
+            //where each channel starts in a partial read is not reliable, so drop it
+            block.setSize(0);
+            throw e;
+        }
+        block.setSize(read);
+        block.stamp(position);
+        return read;
+    }
+
+    /**
+     * Gets the data for the specified channel number
+     * @param channelNumber channel number of the data you would like
+     * @return the average of the last read for the channel given
+     */
+    @Override
+    public double getChannelData(int channelNumber){
+        return block.average(channelNumber);
+    }
+
+    /**
+     * Gets the block of samples filled by the last read.
+     * The block is reused by the next read so it must be consumed before then.
+     * @return the last block read
+     */
+    @Override
+    public SampleBlock getBlock(){
+        return block;
+    }
+
+    @Override
+    public int getBacklog(){
+        return backlog;
+    }
+
+    @Override
+    public int getChannels(){
+        return channels;
+    }
+
+    @Override
+    public double getSampleRate(){
+        return SAMPLES_PER_SECOND;
+    }
+}
@@ -0,0 +1,125 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long samples take to get through each stage of the pipeline, from the DAQ read to the chart on screen.
+ * Every stage has its own LatencyHistogram of System.nanoTime differences:
+ * the acquisition thread stamps each block when its read returns, the processing thread times the ring
+ * and the processing of each point, and the event dispatch thread times how long the newest point takes
+ * to reach the chart and how long the chart takes to paint it.
+ */
+public class PipelineLatency {
+    public enum Stage {
+        HANDOFF("Read to ring"), //from the read returning to every block listener being done
+        QUEUE("Ring wait"), //from the read of the newest sample of a point to its processing starting
+        PROCESS("Filter + convert"), //filters and calculations of a point
+        RECORD("Store + record"), //store, detectors and recorders of a point
+        CHART("Point to chart"), //from a point being processed to the chart pulling it in
+        PAINT("Chart paint"), //from the chart pulling in points to the paint finishing
+        END_TO_END("Read to pixel"); //from the read of the newest sample shown to the paint finishing
+
+        private final String label;
+
+        Stage(String label){
+            this.label = label;
+        }
+
+        public String getLabel(){
+            return label;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    //newest processed point, handed from the processing thread to the event dispatch thread
+    private volatile long pointReadNanos;
+    private volatile long pointProcessedNanos;
+    //only touched on the event dispatch thread
+    private long shownProcessedNanos; //the newest point the chart has pulled in
+    private long paintReadNanos; //read time of the newest sample waiting to be painted, 0 when nothing is waiting
+    private long paintUpdateNanos;
+
+    public PipelineLatency(){
+        for(int i = 0; i < histograms.length; i++){
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Records how long one pass through a stage took
+     */
+    public void record(Stage stage, long nanos){
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * Called by the processing thread once a point is done
+     * @param readNanos when the read holding the newest sample of the point returned
+     * @param processedNanos when the point was done
+     */
+    public void pointProcessed(long readNanos, long processedNanos){
+        pointReadNanos = readNanos;
+        pointProcessedNanos = processedNanos;
+    }
+
+    /**
+     * Called on the event dispatch thread after the chart datasets pulled in new points
+     */
+    public void chartUpdated(){
+        long processed = pointProcessedNanos;
+        if(processed == shownProcessedNanos){
+            return;
+        }
+        long now = System.nanoTime();
+        shownProcessedNanos = processed;
+        record(Stage.CHART, now - processed);
+        paintReadNanos = pointReadNanos;
+        paintUpdateNanos = now;
+    }
+
+    /**
+     * Called on the event dispatch thread when the chart has finished painting
+     */
+    public void chartPainted(){
+        if(paintUpdateNanos == 0){
+            return;
+        }
+        long now = System.nanoTime();
+        record(Stage.PAINT, now - paintUpdateNanos);
+        record(Stage.END_TO_END, now - paintReadNanos);
+        paintUpdateNanos = 0;
+    }
+
+    public LatencyHistogram getHistogram(Stage stage){
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * Forgets everything, called on the event dispatch thread at the start of a run
+     */
+    public void reset(){
+        for(LatencyHistogram histogram : histograms){
+            histogram.reset();
+        }
+        paintUpdateNanos = 0;
+    }
+
+    /**
+     * @return p50, p99 and max of every stage in milliseconds, one line per stage
+     */
+    public String report(){
+        StringBuilder report = new StringBuilder(String.format("%-18s %9s %9s %9s %9s%n", "Latency (ms)", "p50", "p99", "max", "count"));
+        for(Stage stage : STAGES){
+            LatencyHistogram histogram = getHistogram(stage);
+            report.append(String.format("%-18s %9.3f %9.3f %9.3f %9d%n", stage.getLabel(), millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMax()), histogram.getCount()));
+        }
+        return report.toString();
+    }
+
+    public static double millis(long nanos){
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
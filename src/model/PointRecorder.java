@@ -0,0 +1,45 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Receives every processed point of a run as it is stored, used to record runs to disk
+ */
+public interface PointRecorder extends Closeable {
+    /**
+     * Records one point, called from the processing thread
+     * @param strainRate strain per second, NaN where it is not known
+     * @param stressRate stress units per second, NaN where it is not known
+     */
+    void append(double time, double forceVolts, double elongationVolts, double stress, double strain, double strainRate, double stressRate) throws IOException;
+
+    /**
+     * Records one point without rates
+     */
+    default void append(double time, double forceVolts, double elongationVolts, double stress, double strain) throws IOException {
+        append(time, forceVolts, elongationVolts, stress, strain, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Records the raw samples a point was made from, called from the processing thread before the point is appended.
+     * Recorders that only keep points ignore them.
+     * @param data voltages by channel
+     * @param length samples per channel in data
+     * @param firstSample index of the first sample since the start of the run
+     */
+    default void appendSamples(double[][] data, int length, long firstSample) throws IOException {
+    }
+
+    /**
+     * Records an event of the run, called from the processing thread after the point it happened at.
+     * Recorders that only keep points ignore them.
+     */
+    default void appendEvent(RunEvent event) throws IOException {
+    }
+
+    /**
+     * Writes out anything buffered so the file on disk is complete
+     */
+    void flush() throws IOException;
+}
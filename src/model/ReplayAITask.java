@@ -0,0 +1,253 @@
+package model;
+
+/**
+ * Plays a recorded run back as if it was coming off the National Instruments chip,
+ * so a past test can be pushed through the same processing as a live one.
+ * Runs recorded with raw samples play those back, older runs hand out each recorded point
+ * as a block of samples at its averaged voltage.
+ * Samples come at the recorded sample rate when paced or as fast as the reader asks when not.
+ * Before the run starts and while idle, reads give the zero voltages the run was collected with.
+ * Samples lost while the run was recorded are skipped on the sample clock, so the replay has the same gaps the run had.
+ */
+public class ReplayAITask implements AITask {
+    private final RunFileReader run;
+    private final double sampleRate;
+    private final int samplesPerPoint;
+    private final boolean rawSamples; //false for runs recorded before raw samples were kept
+    private final long totalSamples;
+    private final SampleClock clock;
+    private boolean paced = true;
+
+    private int channels;
+    private int samplesPerBlock;
+    private SampleBlock block;
+    private boolean readyToRun;
+    private volatile boolean running;
+    private volatile boolean finished;
+    private long played; //sample index of the run the next read starts at
+    private long idlePlayed; //zero samples handed out since the clock was started
+    private long clockStart; //played when the clock was last started, the sample clock counts from there
+    private volatile boolean idle;
+    private int backlog; //samples per channel due when the last read started
+
+    /**
+     * @param run the recorded run to play back
+     */
+    public ReplayAITask(RunFileReader run){
+        this.run = run;
+        sampleRate = run.getHeader().getSampleRate();
+        if(sampleRate <= 0){
+            throw new IllegalArgumentException("Run has no sample rate: " + run.getFile());
+        }
+        samplesPerPoint = Math.max(1, (int) sampleRate / BLOCKS_PER_SECOND);
+        rawSamples = run.getSampleCount() > 0;
+        totalSamples = rawSamples ? run.getSampleCount() : (long) run.size() * samplesPerPoint;
+        clock = new SampleClock(sampleRate);
+    }
+
+    /**
+     * When paced, reads wait for the recorded sample rate like the hardware does.
+     * When not paced, every read immediately returns a full block.
+     * @param paced whether reads follow the sample rate
+     */
+    public void setPaced(boolean paced){
+        this.paced = paced;
+    }
+
+    @Override
+    public void createAIChannel(int channelNumber, Mode channelMode){
+        if(!readyToRun) {
+            channels++;
+        }else{
+            System.err.println("ReplayAITask: Ready to run function already called.");
+        }
+    }
+
+    @Override
+    public void readyToRun(){
+        samplesPerBlock = samplesPerPoint;
+        block = new SampleBlock(channels, samplesPerBlock * MAX_BLOCKS_PER_READ);
+        readyToRun = true;
+    }
+
+    @Override
+    public void start(){
+        if(!running) {
+            clock.start(played);
+            clockStart = played;
+            idlePlayed = 0;
+            running = true;
+        }
+    }
+
+    @Override
+    public void pause(){
+        running = false;
+    }
+
+    /**
+     * While idle, reads hand out the zero voltages instead of moving on through the run
+     */
+    @Override
+    public void setIdle(boolean idle){
+        this.idle = idle;
+    }
+
+    /**
+     * Fills the block with the zero voltages of the recorded run, used to zero the channels
+     */
+    @Override
+    public void collectData(){
+        if(!readyToRun) {
+            System.err.println("ReplayAITask: Ready to run not called yet.");
+            return;
+        }
+        fillZeros(samplesPerBlock);
+    }
+
+    /*
+     * Fills the block with the zero voltages of the recorded run
+     */
+    private int fillZeros(int samples){
+        block.setSize(samples);
+        for(int i = 0; i < samples; i++){
+            for(int c = 0; c < channels; c++){
+                double volts;
+                if(c == FORCE_CHANNEL){
+                    volts = run.getHeader().getForceZeroVolts();
+                }else if(c == LENGTH_CHANNEL){
+                    volts = run.getHeader().getElongationZeroVolts();
+                }else{
+                    volts = 0.0;
+                }
+                block.set(c, i, volts);
+            }
+        }
+        return samples;
+    }
+
+    @Override
+    public int readAvailable(){
+        boolean holding = idle;
+        if(!running || (finished && !holding)){
+            clock.parkFor(samplesPerBlock);
+            return 0;
+        }
+        if(rawSamples && !holding){
+            played = run.nextRecordedSample(played);
+        }
+        long position = played - clockStart + idlePlayed;
+        if(!paced){
+            int samples = block.getCapacity();
+            if(holding){
+                idlePlayed += samples;
+                samples = fillZeros(samples);
+            }else{
+                samples = play(samples);
+            }
+            block.stamp(position);
+            return samples;
+        }
+
+        long available = clock.due() - played - idlePlayed;
+        backlog = (int) Math.max(0, Math.min(available, Integer.MAX_VALUE));
+        if(available < samplesPerBlock){
+            clock.parkFor(samplesPerBlock - available);
+            available = clock.due() - played - idlePlayed;
+        }
+        //a reader that fell behind catches up a block at a time instead of losing samples
+        int samples = (int) Math.min(Math.max(available, 0), block.getCapacity());
+        if(holding){
+            idlePlayed += samples;
+            samples = fillZeros(samples);
+        }else{
+            samples = play(samples);
+        }
+        block.stamp(position);
+        return samples;
+    }
+
+    /*
+     * Fills the block with the next recorded samples
+     */
+    private int play(int samples){
+        if(rawSamples){
+            //a block never spans samples lost while recording
+            samples = (int) Math.min(samples, run.endOfRecordedRange(played) - played);
+            block.setSize(samples);
+            for(int c = 0; c < channels; c++){
+                for(int i = 0; i < samples; i++){
+                    block.set(c, i, c < run.getSampleChannels() ? run.getSample(c, played + i) : 0.0);
+                }
+            }
+            return advance(samples);
+        }
+        samples = (int) Math.min(samples, totalSamples - played);
+        block.setSize(samples);
+        for(int i = 0; i < samples; i++){
+            int point = (int) ((played + i) / samplesPerPoint);
+            for(int c = 0; c < channels; c++){
+                double volts;
+                if(c == FORCE_CHANNEL){
+                    volts = run.get(SampleStore.Column.FORCE_VOLTS, point);
+                }else if(c == LENGTH_CHANNEL){
+                    volts = run.get(SampleStore.Column.ELONGATION_VOLTS, point);
+                }else{
+                    volts = 0.0;
+                }
+                block.set(c, i, volts);
+            }
+        }
+        return advance(samples);
+    }
+
+    private int advance(int samples){
+        played += samples;
+        if(rawSamples){
+            played = run.nextRecordedSample(played);
+        }
+        if(played == totalSamples){
+            finished = true;
+        }
+        return samples;
+    }
+
+    /**
+     * @return true once every recorded sample has been handed out
+     */
+    public boolean isFinished(){
+        return finished;
+    }
+
+    /**
+     * @return the run being played back
+     */
+    public RunFileReader getRun(){
+        return run;
+    }
+
+    @Override
+    public double getChannelData(int channelNumber){
+        return block.average(channelNumber);
+    }
+
+    @Override
+    public SampleBlock getBlock(){
+        return block;
+    }
+
+    @Override
+    public int getBacklog(){
+        return backlog;
+    }
+
+    @Override
+    public int getChannels(){
+        return channels;
+    }
+
+    @Override
+    public double getSampleRate(){
+        return sampleRate;
+    }
+}
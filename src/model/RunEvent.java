@@ -0,0 +1,57 @@
+package model;
+
+/**
+ * Something that happened at a point of a run, such as the specimen yielding or breaking.
+ * Recorded in the run file next to the points so it does not have to be found again when the run is read back.
+ */
+public final class RunEvent {
+    public enum Type {
+        YIELD, //0.2% offset yield point
+        ULTIMATE, //highest stress of the run, the ultimate tensile strength
+        FRACTURE, //the specimen broke
+        LIMIT, //the run reached its maximum length
+        RATE_OUT_OF_BAND, //the strain rate left the band it is checked against
+        RATE_IN_BAND //the strain rate came back into the band
+    }
+
+    private final Type type;
+    private final long point;
+    private final double time;
+    private final double strain;
+    private final double stress;
+
+    /**
+     * @param type what happened
+     * @param point index of the point it happened at
+     * @param time seconds since the start of the run
+     * @param strain strain where it happened
+     * @param stress stress where it happened
+     */
+    public RunEvent(Type type, long point, double time, double strain, double stress){
+        this.type = type;
+        this.point = point;
+        this.time = time;
+        this.strain = strain;
+        this.stress = stress;
+    }
+
+    public Type getType(){
+        return type;
+    }
+
+    public long getPoint(){
+        return point;
+    }
+
+    public double getTime(){
+        return time;
+    }
+
+    public double getStrain(){
+        return strain;
+    }
+
+    public double getStress(){
+        return stress;
+    }
+}
@@ -0,0 +1,429 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a file written by RunFileWriter through memory mapping, so opening a run only scans the
+ * block headers and the points and samples stay in the page cache instead of on the heap.
+ * Files larger than one mapping are split into several mapped segments on block boundaries.
+ * Safe to read from any number of threads.
+ */
+public class RunFileReader {
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+    private static final int VERSION_1_BLOCK_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final File file;
+    private final RunHeader header;
+    private final MappedByteBuffer[] segments;
+    private final BlockIndex points;
+    private final BlockIndex samples;
+    private final int sampleChannels;
+    private final int pointColumns; //columns recorded, older runs have fewer than SampleStore has
+    private final List<RunEvent> events;
+
+    private RunFileReader(File file, RunHeader header, MappedByteBuffer[] segments, BlockIndex points, BlockIndex samples, int sampleChannels, int pointColumns, List<RunEvent> events){
+        this.file = file;
+        this.header = header;
+        this.segments = segments;
+        this.points = points;
+        this.samples = samples;
+        this.sampleChannels = sampleChannels;
+        this.pointColumns = pointColumns;
+        this.events = events;
+    }
+
+    /**
+     * Opens a run file. A last block cut short by a crash is ignored.
+     * @throws IOException if the file cannot be read or is not a run file this version understands
+     */
+    public static RunFileReader open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            ByteBuffer prologue = ByteBuffer.allocate(3 * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, prologue, 0);
+            if(prologue.getInt(0) != RunFileWriter.MAGIC){
+                throw new IOException(file + " is not a run file");
+            }
+            int version = prologue.getInt(Integer.BYTES);
+            if(version < 1 || version > RunFileWriter.VERSION){
+                throw new IOException(file + " is run file version " + version + ", expected at most " + RunFileWriter.VERSION);
+            }
+            ByteBuffer headerBytes = ByteBuffer.allocate(prologue.getInt(2 * Integer.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, headerBytes, prologue.capacity());
+            headerBytes.flip();
+            RunHeader header = RunHeader.read(headerBytes);
+
+            //walk the block headers
+            int maxPointColumns = SampleStore.Column.values().length;
+            int pointColumns = 0;
+            int blockHeaderBytes = version == 1 ? VERSION_1_BLOCK_HEADER_BYTES : RunFileWriter.BLOCK_HEADER_BYTES;
+            BlockIndex points = new BlockIndex(Double.BYTES);
+            BlockIndex samples = new BlockIndex(Float.BYTES);
+            int sampleChannels = 0;
+            List<RunEvent> events = new ArrayList<>();
+            List<Long> blockStarts = new ArrayList<>();
+            List<Long> blockEnds = new ArrayList<>();
+            long next = prologue.capacity() + headerBytes.capacity();
+            ByteBuffer blockHeader = ByteBuffer.allocate(blockHeaderBytes).order(ByteOrder.LITTLE_ENDIAN);
+            while(next + blockHeaderBytes <= fileSize){
+                blockHeader.clear();
+                readFully(channel, blockHeader, next);
+                int type, count, columns;
+                long first;
+                if(version == 1){
+                    type = RunFileWriter.POINT_BLOCK;
+                    count = blockHeader.getInt(0);
+                    columns = blockHeader.getInt(Integer.BYTES);
+                    first = points.size;
+                }else{
+                    type = blockHeader.getInt(0);
+                    count = blockHeader.getInt(Integer.BYTES);
+                    columns = blockHeader.getInt(2 * Integer.BYTES);
+                    first = blockHeader.getLong(3 * Integer.BYTES);
+                }
+
+                BlockIndex index;
+                if(type == RunFileWriter.POINT_BLOCK){
+                    if(columns > maxPointColumns || (pointColumns != 0 && columns != pointColumns)){
+                        throw new IOException(file + " has a block with " + columns + " columns, expected " + (pointColumns != 0 ? pointColumns : maxPointColumns));
+                    }
+                    pointColumns = columns;
+                    index = points;
+                }else if(type == RunFileWriter.SAMPLE_BLOCK){
+                    if(sampleChannels != 0 && columns != sampleChannels){
+                        throw new IOException(file + " changes its channel count part way through");
+                    }
+                    sampleChannels = columns;
+                    index = samples;
+                }else if(type == RunFileWriter.EVENT_BLOCK){
+                    long end = next + blockHeaderBytes + (long) count * columns * Double.BYTES;
+                    if(end > fileSize){
+                        break;
+                    }
+                    //events are few, read them now instead of mapping them
+                    ByteBuffer values = ByteBuffer.allocate(count * columns * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                    readFully(channel, values, next + blockHeaderBytes);
+                    for(int e = 0; e < count; e++){
+                        int base = e * columns * Double.BYTES;
+                        events.add(new RunEvent(RunEvent.Type.values()[(int) values.getDouble(base)], first,
+                                values.getDouble(base + Double.BYTES), values.getDouble(base + 2 * Double.BYTES), values.getDouble(base + 3 * Double.BYTES)));
+                    }
+                    next = end;
+                    continue;
+                }else{
+                    throw new IOException(file + " has a block of unknown type " + type);
+                }
+
+                long end = next + blockHeaderBytes + (long) count * columns * index.valueBytes;
+                if(end > fileSize){
+                    break;
+                }
+                index.add(first, count, blockStarts.size(), next + blockHeaderBytes);
+                blockStarts.add(next);
+                blockEnds.add(end);
+                next = end;
+            }
+
+            //map whole blocks into segments
+            List<MappedByteBuffer> segments = new ArrayList<>();
+            int blocks = blockStarts.size();
+            int[] segment = new int[blocks];
+            long[] segmentStart = new long[blocks];
+            int b = 0;
+            while(b < blocks){
+                long start = blockStarts.get(b);
+                long end = start;
+                int firstBlock = b;
+                while(b < blocks && (blockEnds.get(b) - start <= MAX_SEGMENT_BYTES || b == firstBlock)){
+                    segment[b] = segments.size();
+                    segmentStart[b] = start;
+                    end = blockEnds.get(b);
+                    b++;
+                }
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                mapped.order(ByteOrder.LITTLE_ENDIAN);
+                segments.add(mapped);
+            }
+            points.locate(segment, segmentStart);
+            samples.locate(segment, segmentStart);
+
+            return new RunFileReader(file, header, segments.toArray(new MappedByteBuffer[0]), points, samples, sampleChannels,
+                    pointColumns, Collections.unmodifiableList(events));
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer, position + buffer.position()) < 0){
+                throw new IOException("Unexpected end of run file");
+            }
+        }
+    }
+
+    /**
+     * @return the number of points in the run
+     */
+    public int size(){
+        return (int) points.size;
+    }
+
+    /**
+     * Gets one value of a point, NaN for a column the run was recorded without
+     */
+    public double get(SampleStore.Column column, int index){
+        int block = points.find(index);
+        if(column.ordinal() >= pointColumns){
+            return Double.NaN;
+        }
+        return segments[points.segment[block]].getDouble(points.valueOffset(block, column.ordinal(), index));
+    }
+
+    /**
+     * Copies a range of one column into an array
+     * @param column the column to copy
+     * @param from first point to copy
+     * @param dst destination array
+     * @param dstOffset where to start writing in the destination
+     * @param length number of points to copy
+     */
+    public void copy(SampleStore.Column column, int from, double[] dst, int dstOffset, int length){
+        if(from < 0 || from + length > points.size){
+            throw new IndexOutOfBoundsException("Range ends past the end of the run");
+        }
+        if(column.ordinal() >= pointColumns){
+            Arrays.fill(dst, dstOffset, dstOffset + length, Double.NaN);
+            return;
+        }
+        while(length > 0){
+            int block = points.find(from);
+            int count = (int) Math.min(length, points.first[block] + points.count[block] - from);
+            ByteBuffer values = segments[points.segment[block]].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            values.position(points.valueOffset(block, column.ordinal(), from));
+            values.asDoubleBuffer().get(dst, dstOffset, count);
+            from += count;
+            dstOffset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * @return the events recorded with the run in the order they happened, empty for runs recorded without them
+     */
+    public List<RunEvent> getEvents(){
+        return events;
+    }
+
+    /**
+     * @return one past the index of the last raw sample recorded, 0 for runs recorded without them.
+     * Samples lost while recording leave gaps, so not every index below it was recorded.
+     */
+    public long getSampleCount(){
+        return samples.size;
+    }
+
+    /**
+     * @return the number of channels of raw samples, 0 for runs recorded without them
+     */
+    public int getSampleChannels(){
+        return sampleChannels;
+    }
+
+    /**
+     * Finds where recording picks up again after samples lost while recording
+     * @param index a sample index
+     * @return index if it was recorded, else the next recorded sample after it, getSampleCount() if there is none
+     */
+    public long nextRecordedSample(long index){
+        return samples.next(index);
+    }
+
+    /**
+     * @param index a recorded sample index
+     * @return one past the last sample of the unbroken range of recorded samples holding index
+     */
+    public long endOfRecordedRange(long index){
+        return samples.rangeEnd(index);
+    }
+
+    /**
+     * Gets one raw sample, sample i was taken at i / sample rate seconds into the run
+     */
+    public double getSample(int channel, long index){
+        int block = samples.find(index);
+        return segments[samples.segment[block]].getFloat(samples.valueOffset(block, channel, index));
+    }
+
+    /**
+     * Copies a range of raw samples of one channel into an array, the range must not hold a gap
+     * @param channel the channel to copy
+     * @param from first sample to copy
+     * @param dst destination array
+     * @param dstOffset where to start writing in the destination
+     * @param length number of samples to copy
+     */
+    public void copySamples(int channel, long from, double[] dst, int dstOffset, int length){
+        if(from < 0 || from + length > samples.size){
+            throw new IndexOutOfBoundsException("Range ends past the end of the samples");
+        }
+        while(length > 0){
+            int block = samples.find(from);
+            int count = (int) Math.min(length, samples.first[block] + samples.count[block] - from);
+            MappedByteBuffer segment = segments[samples.segment[block]];
+            int offset = samples.valueOffset(block, channel, from);
+            for(int i = 0; i < count; i++){
+                dst[dstOffset + i] = segment.getFloat(offset + i * Float.BYTES);
+            }
+            from += count;
+            dstOffset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Copies the whole run into a store, for re-plotting a recorded run
+     */
+    public void loadInto(SampleStore store){
+        double[][] values = new double[SampleStore.Column.values().length][RunFileWriter.BLOCK_POINTS];
+        int size = size();
+        for(int from = 0; from < size; from += RunFileWriter.BLOCK_POINTS){
+            int length = Math.min(RunFileWriter.BLOCK_POINTS, size - from);
+            for(SampleStore.Column column : SampleStore.Column.values()){
+                copy(column, from, values[column.ordinal()], 0, length);
+            }
+            for(int i = 0; i < length; i++){
+                store.append(values[SampleStore.Column.TIME.ordinal()][i], values[SampleStore.Column.FORCE_VOLTS.ordinal()][i],
+                        values[SampleStore.Column.ELONGATION_VOLTS.ordinal()][i], values[SampleStore.Column.STRESS.ordinal()][i],
+                        values[SampleStore.Column.STRAIN.ordinal()][i], values[SampleStore.Column.STRAIN_RATE.ordinal()][i],
+                        values[SampleStore.Column.STRESS_RATE.ordinal()][i]);
+            }
+        }
+    }
+
+    public RunHeader getHeader() {
+        return header;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /*
+     * Where the blocks of one type are, in the order of the entries they hold.
+     * Blocks normally follow on from each other, an index that skips ahead (samples dropped while
+     * recording) leaves a gap that reads of the entries in it do not find.
+     */
+    private static class BlockIndex {
+        final int valueBytes;
+        long size; //one past the last entry
+        int blocks;
+        long[] first = new long[64];
+        int[] count = new int[64];
+        int[] fileBlock = new int[64]; //position among all blocks, used to find the segment
+        long[] position = new long[64]; //file offset of the first value
+        int[] segment;
+        int[] offset; //offset of the first value within its segment
+        long[] rangeEnd; //one past the last entry of the blocks that follow on without a gap
+
+        BlockIndex(int valueBytes){
+            this.valueBytes = valueBytes;
+        }
+
+        void add(long firstEntry, int entries, int blockNumber, long valuesPosition){
+            if(blocks == first.length){
+                first = Arrays.copyOf(first, blocks * 2);
+                count = Arrays.copyOf(count, blocks * 2);
+                fileBlock = Arrays.copyOf(fileBlock, blocks * 2);
+                position = Arrays.copyOf(position, blocks * 2);
+            }
+            first[blocks] = firstEntry;
+            count[blocks] = entries;
+            fileBlock[blocks] = blockNumber;
+            position[blocks] = valuesPosition;
+            blocks++;
+            size = Math.max(size, firstEntry + entries);
+        }
+
+        void locate(int[] blockSegment, long[] segmentStart){
+            segment = new int[blocks];
+            offset = new int[blocks];
+            for(int b = 0; b < blocks; b++){
+                segment[b] = blockSegment[fileBlock[b]];
+                offset[b] = (int) (position[b] - segmentStart[fileBlock[b]]);
+            }
+            rangeEnd = new long[blocks];
+            for(int b = blocks - 1; b >= 0; b--){
+                long end = first[b] + count[b];
+                rangeEnd[b] = b + 1 < blocks && first[b + 1] == end ? rangeEnd[b + 1] : end;
+            }
+        }
+
+        /*
+         * Finds the block holding an entry
+         */
+        int find(long index){
+            if(index < 0 || index >= size){
+                throw new IndexOutOfBoundsException("Index " + index + " is past the end of the run");
+            }
+            int low = floor(index);
+            if(index >= first[low] + count[low]){
+                throw new IndexOutOfBoundsException("Index " + index + " was not recorded");
+            }
+            return low;
+        }
+
+        /*
+         * First entry at or after index, size if there is none
+         */
+        long next(long index){
+            if(index >= size){
+                return size;
+            }
+            if(index < first[0]){
+                return first[0];
+            }
+            int block = floor(index);
+            if(index < first[block] + count[block]){
+                return index;
+            }
+            return block + 1 < blocks ? first[block + 1] : size;
+        }
+
+        /*
+         * One past the last entry of the blocks that follow on from the one holding index
+         */
+        long rangeEnd(long index){
+            return rangeEnd[find(index)];
+        }
+
+        /*
+         * Last block starting at or before index, the first block if none does
+         */
+        private int floor(long index){
+            int low = 0;
+            int high = blocks - 1;
+            while(low < high){
+                int mid = (low + high + 1) >>> 1;
+                if(first[mid] <= index){
+                    low = mid;
+                }else{
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        int valueOffset(int block, int column, long index){
+            return offset[block] + (int) ((column * (long) count[block] + index - first[block]) * valueBytes);
+        }
+    }
+}
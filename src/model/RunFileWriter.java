@@ -0,0 +1,226 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a run in the binary run format, 56 bytes per point instead of text that has to be parsed back,
+ * plus every raw sample the points were made from so the run can be recomputed with other settings.
+ *
+ * Layout, all little endian:
+ * int MAGIC, int VERSION, int header length, the RunHeader, then blocks.
+ * Each block starts with int type, int count, int column count and long index of its first entry.
+ * POINT_BLOCK holds one run of doubles per SampleStore column,
+ * SAMPLE_BLOCK holds one run of floats per channel of raw voltages, sample i was taken at i / sample rate.
+ * EVENT_BLOCK holds one RunEvent as doubles (type ordinal, time, strain, stress), its index is the event's point.
+ * Blocks are written whenever one fills up or the writer is flushed,
+ * so a file cut short by a crash is still readable up to its last complete block.
+ * Version 1 files have no sample blocks and a block header of only count and column count,
+ * files before version 3 have no event blocks and files before version 4 only have the first five columns.
+ */
+public class RunFileWriter implements PointRecorder {
+    public static final int MAGIC = 0x4C534E54; //"TNSL" in file order
+    public static final int VERSION = 4;
+    public static final int BLOCK_POINTS = 8192;
+    public static final int BLOCK_SAMPLES = 32768; //per channel
+    static final int POINT_BLOCK = 0;
+    static final int SAMPLE_BLOCK = 1;
+    static final int EVENT_BLOCK = 2;
+    static final int EVENT_COLUMNS = 4;
+    static final int BLOCK_HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES;
+    private static final int MAX_HEADER_BYTES = 1024;
+    private static final SampleStore.Column[] COLUMNS = SampleStore.Column.values();
+
+    private final File file;
+    private final FileChannel channel;
+    private final double[][] columns = new double[COLUMNS.length][BLOCK_POINTS];
+    private final ByteBuffer pointBlock = ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES + COLUMNS.length * BLOCK_POINTS * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final DoubleBuffer pointValues;
+    private int count; //points buffered in columns
+    private long points; //points written or buffered
+
+    //created by the first appendSamples, when the channel count is known
+    private ByteBuffer sampleBlock;
+    private FloatBuffer[] sampleValues;
+    private int sampleCount; //samples per channel buffered in sampleBlock
+    private long samples; //samples per channel written or buffered
+
+    /**
+     * Creates the file, replacing anything already there, and writes the header
+     */
+    public RunFileWriter(File file, RunHeader header) throws IOException {
+        this.file = file;
+        pointBlock.position(BLOCK_HEADER_BYTES);
+        pointValues = pointBlock.slice().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        pointBlock.clear();
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer prologue = ByteBuffer.allocate(3 * Integer.BYTES + MAX_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        prologue.putInt(MAGIC);
+        prologue.putInt(VERSION);
+        prologue.putInt(0); //header length, filled in below
+        header.write(prologue);
+        prologue.putInt(2 * Integer.BYTES, prologue.position() - 3 * Integer.BYTES);
+        prologue.flip();
+        writeFully(prologue);
+    }
+
+    @Override
+    public synchronized void append(double time, double forceVolts, double elongationVolts, double stress, double strain, double strainRate, double stressRate) throws IOException {
+        columns[SampleStore.Column.TIME.ordinal()][count] = time;
+        columns[SampleStore.Column.FORCE_VOLTS.ordinal()][count] = forceVolts;
+        columns[SampleStore.Column.ELONGATION_VOLTS.ordinal()][count] = elongationVolts;
+        columns[SampleStore.Column.STRESS.ordinal()][count] = stress;
+        columns[SampleStore.Column.STRAIN.ordinal()][count] = strain;
+        columns[SampleStore.Column.STRAIN_RATE.ordinal()][count] = strainRate;
+        columns[SampleStore.Column.STRESS_RATE.ordinal()][count] = stressRate;
+        count++;
+        points++;
+        if(count == BLOCK_POINTS){
+            writePointBlock();
+        }
+    }
+
+    /**
+     * Records raw samples as floats, which keeps far more than the 14 bits the converter resolves at half the size
+     * @param data voltages by channel
+     * @param length samples per channel to record
+     * @param firstSample index of the first sample since the start of the run
+     */
+    @Override
+    public synchronized void appendSamples(double[][] data, int length, long firstSample) throws IOException {
+        if(sampleBlock == null){
+            createSampleBlock(data.length);
+        }
+        if(firstSample != samples && sampleCount > 0){
+            //samples were dropped before they reached us, start a new block at the new index
+            writeSampleBlock();
+        }
+        if(sampleCount == 0){
+            samples = firstSample;
+        }
+        int offset = 0;
+        while(offset < length){
+            int copy = Math.min(length - offset, BLOCK_SAMPLES - sampleCount);
+            for(int c = 0; c < sampleValues.length; c++){
+                FloatBuffer values = sampleValues[c];
+                double[] channelData = data[c];
+                for(int i = 0; i < copy; i++){
+                    values.put(sampleCount + i, (float) channelData[offset + i]);
+                }
+            }
+            sampleCount += copy;
+            samples += copy;
+            offset += copy;
+            if(sampleCount == BLOCK_SAMPLES){
+                writeSampleBlock();
+            }
+        }
+    }
+
+    /**
+     * Writes an event block straight away, events are rare and should survive a crash right after them
+     */
+    @Override
+    public synchronized void appendEvent(RunEvent event) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_BYTES + EVENT_COLUMNS * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        writeBlockHeader(block, EVENT_BLOCK, 1, EVENT_COLUMNS, event.getPoint());
+        block.position(BLOCK_HEADER_BYTES);
+        block.putDouble(event.getType().ordinal());
+        block.putDouble(event.getTime());
+        block.putDouble(event.getStrain());
+        block.putDouble(event.getStress());
+        block.flip();
+        writeFully(block);
+    }
+
+    /*
+     * Makes the sample block and one float view per channel into it
+     */
+    private void createSampleBlock(int channels){
+        sampleBlock = ByteBuffer.allocateDirect(BLOCK_HEADER_BYTES + channels * BLOCK_SAMPLES * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        sampleValues = new FloatBuffer[channels];
+        for(int c = 0; c < channels; c++){
+            sampleBlock.position(BLOCK_HEADER_BYTES + c * BLOCK_SAMPLES * Float.BYTES);
+            sampleValues[c] = sampleBlock.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        }
+        sampleBlock.clear();
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if(count > 0){
+            writePointBlock();
+        }
+        if(sampleCount > 0){
+            writeSampleBlock();
+        }
+    }
+
+    /*
+     * Writes the buffered points as one block
+     */
+    private void writePointBlock() throws IOException {
+        pointValues.clear();
+        for(double[] column : columns){
+            pointValues.put(column, 0, count);
+        }
+        writeBlockHeader(pointBlock, POINT_BLOCK, count, COLUMNS.length, points - count);
+        pointBlock.limit(BLOCK_HEADER_BYTES + COLUMNS.length * count * Double.BYTES);
+        writeFully(pointBlock);
+        count = 0;
+    }
+
+    /*
+     * Writes the buffered samples as one block
+     */
+    private void writeSampleBlock() throws IOException {
+        int channels = sampleValues.length;
+        if(sampleCount < BLOCK_SAMPLES){
+            //pack the channels back to back, moving forward so nothing is overwritten before it is read
+            FloatBuffer all = sampleValues[0];
+            for(int c = 1; c < channels; c++){
+                for(int i = 0; i < sampleCount; i++){
+                    all.put(c * sampleCount + i, all.get(c * BLOCK_SAMPLES + i));
+                }
+            }
+        }
+        writeBlockHeader(sampleBlock, SAMPLE_BLOCK, sampleCount, channels, samples - sampleCount);
+        sampleBlock.limit(BLOCK_HEADER_BYTES + channels * sampleCount * Float.BYTES);
+        writeFully(sampleBlock);
+        sampleCount = 0;
+    }
+
+    private void writeBlockHeader(ByteBuffer block, int type, int entries, int columnCount, long first){
+        block.clear();
+        block.putInt(type);
+        block.putInt(entries);
+        block.putInt(columnCount);
+        block.putLong(first);
+        block.position(0);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if(channel.isOpen()){
+            flush();
+            channel.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,223 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Settings a run was collected with, stored at the start of a run file so the run can be
+ * re-analyzed without the settings.cfg or inputs that were active at the time
+ */
+public class RunHeader {
+    private long startTime; //milliseconds since the epoch
+    private double sampleRate;
+    private int forceChannel;
+    private AITask.Mode forceMode = AITask.Mode.DEFAULT;
+    private double forceUnitsPerVolt;
+    private double forceZeroVolts;
+    private int elongationChannel;
+    private AITask.Mode elongationMode = AITask.Mode.DEFAULT;
+    private double elongationUnitsPerVolt;
+    private double elongationZeroVolts;
+    private String unitSystem = "";
+    private double gaugeLength;
+    private boolean rectangular;
+    private double width;
+    private double depth;
+    private double diameter;
+    //smoothing of each channel, a FilterType name and its window, empty for runs recorded before filters were stored
+    private String forceFilter = "";
+    private double forceFilterMillis;
+    private String elongationFilter = "";
+    private double elongationFilterMillis;
+    //how the zero voltages were found, 0 samples for runs recorded before taring was stored
+    private int tareSamples;
+    private double forceZeroNoise; //standard deviation of the force channel while taring
+    private double elongationZeroNoise;
+    //strain rate band the run was checked against, per second, 0 to 0 for runs recorded before rates were kept
+    private double minStrainRate;
+    private double maxStrainRate;
+
+    /*
+     * Writes the fields in the order read() expects them
+     */
+    void write(ByteBuffer out){
+        out.putLong(startTime);
+        out.putDouble(sampleRate);
+        out.putInt(forceChannel);
+        out.put((byte) forceMode.ordinal());
+        out.putDouble(forceUnitsPerVolt);
+        out.putDouble(forceZeroVolts);
+        out.putInt(elongationChannel);
+        out.put((byte) elongationMode.ordinal());
+        out.putDouble(elongationUnitsPerVolt);
+        out.putDouble(elongationZeroVolts);
+        putString(out, unitSystem);
+        out.putDouble(gaugeLength);
+        out.put((byte) (rectangular ? 1 : 0));
+        out.putDouble(width);
+        out.putDouble(depth);
+        out.putDouble(diameter);
+        putString(out, forceFilter);
+        out.putDouble(forceFilterMillis);
+        putString(out, elongationFilter);
+        out.putDouble(elongationFilterMillis);
+        out.putInt(tareSamples);
+        out.putDouble(forceZeroNoise);
+        out.putDouble(elongationZeroNoise);
+        out.putDouble(minStrainRate);
+        out.putDouble(maxStrainRate);
+    }
+
+    /*
+     * Reads a header written by write()
+     */
+    static RunHeader read(ByteBuffer in){
+        RunHeader header = new RunHeader();
+        header.startTime = in.getLong();
+        header.sampleRate = in.getDouble();
+        header.forceChannel = in.getInt();
+        header.forceMode = AITask.Mode.values()[in.get()];
+        header.forceUnitsPerVolt = in.getDouble();
+        header.forceZeroVolts = in.getDouble();
+        header.elongationChannel = in.getInt();
+        header.elongationMode = AITask.Mode.values()[in.get()];
+        header.elongationUnitsPerVolt = in.getDouble();
+        header.elongationZeroVolts = in.getDouble();
+        header.unitSystem = getString(in);
+        header.gaugeLength = in.getDouble();
+        header.rectangular = in.get() != 0;
+        header.width = in.getDouble();
+        header.depth = in.getDouble();
+        header.diameter = in.getDouble();
+        //fields added later are missing from older headers
+        if(in.hasRemaining()){
+            header.forceFilter = getString(in);
+            header.forceFilterMillis = in.getDouble();
+            header.elongationFilter = getString(in);
+            header.elongationFilterMillis = in.getDouble();
+        }
+        if(in.hasRemaining()){
+            header.tareSamples = in.getInt();
+            header.forceZeroNoise = in.getDouble();
+            header.elongationZeroNoise = in.getDouble();
+        }
+        if(in.hasRemaining()){
+            header.minStrainRate = in.getDouble();
+            header.maxStrainRate = in.getDouble();
+        }
+        return header;
+    }
+
+    private static void putString(ByteBuffer out, String value){
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in){
+        byte[] bytes = new byte[in.getShort()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //getters and setters
+    public long getStartTime() { return startTime; }
+
+    public void setStartTime(long startTime) { this.startTime = startTime; }
+
+    public double getSampleRate() { return sampleRate; }
+
+    public void setSampleRate(double sampleRate) { this.sampleRate = sampleRate; }
+
+    public int getForceChannel() { return forceChannel; }
+
+    public void setForceChannel(int forceChannel) { this.forceChannel = forceChannel; }
+
+    public AITask.Mode getForceMode() { return forceMode; }
+
+    public void setForceMode(AITask.Mode forceMode) { this.forceMode = forceMode; }
+
+    public double getForceUnitsPerVolt() { return forceUnitsPerVolt; }
+
+    public void setForceUnitsPerVolt(double forceUnitsPerVolt) { this.forceUnitsPerVolt = forceUnitsPerVolt; }
+
+    public double getForceZeroVolts() { return forceZeroVolts; }
+
+    public void setForceZeroVolts(double forceZeroVolts) { this.forceZeroVolts = forceZeroVolts; }
+
+    public int getElongationChannel() { return elongationChannel; }
+
+    public void setElongationChannel(int elongationChannel) { this.elongationChannel = elongationChannel; }
+
+    public AITask.Mode getElongationMode() { return elongationMode; }
+
+    public void setElongationMode(AITask.Mode elongationMode) { this.elongationMode = elongationMode; }
+
+    public double getElongationUnitsPerVolt() { return elongationUnitsPerVolt; }
+
+    public void setElongationUnitsPerVolt(double elongationUnitsPerVolt) { this.elongationUnitsPerVolt = elongationUnitsPerVolt; }
+
+    public double getElongationZeroVolts() { return elongationZeroVolts; }
+
+    public void setElongationZeroVolts(double elongationZeroVolts) { this.elongationZeroVolts = elongationZeroVolts; }
+
+    public String getUnitSystem() { return unitSystem; }
+
+    public void setUnitSystem(String unitSystem) { this.unitSystem = unitSystem; }
+
+    public double getGaugeLength() { return gaugeLength; }
+
+    public void setGaugeLength(double gaugeLength) { this.gaugeLength = gaugeLength; }
+
+    public boolean isRectangular() { return rectangular; }
+
+    public void setRectangular(boolean rectangular) { this.rectangular = rectangular; }
+
+    public double getWidth() { return width; }
+
+    public void setWidth(double width) { this.width = width; }
+
+    public double getDepth() { return depth; }
+
+    public void setDepth(double depth) { this.depth = depth; }
+
+    public double getDiameter() { return diameter; }
+
+    public void setDiameter(double diameter) { this.diameter = diameter; }
+
+    public String getForceFilter() { return forceFilter; }
+
+    public void setForceFilter(String forceFilter) { this.forceFilter = forceFilter; }
+
+    public double getForceFilterMillis() { return forceFilterMillis; }
+
+    public void setForceFilterMillis(double forceFilterMillis) { this.forceFilterMillis = forceFilterMillis; }
+
+    public String getElongationFilter() { return elongationFilter; }
+
+    public void setElongationFilter(String elongationFilter) { this.elongationFilter = elongationFilter; }
+
+    public double getElongationFilterMillis() { return elongationFilterMillis; }
+
+    public void setElongationFilterMillis(double elongationFilterMillis) { this.elongationFilterMillis = elongationFilterMillis; }
+
+    public int getTareSamples() { return tareSamples; }
+
+    public void setTareSamples(int tareSamples) { this.tareSamples = tareSamples; }
+
+    public double getForceZeroNoise() { return forceZeroNoise; }
+
+    public void setForceZeroNoise(double forceZeroNoise) { this.forceZeroNoise = forceZeroNoise; }
+
+    public double getElongationZeroNoise() { return elongationZeroNoise; }
+
+    public void setElongationZeroNoise(double elongationZeroNoise) { this.elongationZeroNoise = elongationZeroNoise; }
+
+    public double getMinStrainRate() { return minStrainRate; }
+
+    public void setMinStrainRate(double minStrainRate) { this.minStrainRate = minStrainRate; }
+
+    public double getMaxStrainRate() { return maxStrainRate; }
+
+    public void setMaxStrainRate(double maxStrainRate) { this.maxStrainRate = maxStrainRate; }
+}
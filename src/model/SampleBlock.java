@@ -0,0 +1,157 @@
+package model;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * A block of samples read from every channel of an acquisition task in one call.
+ * The samples live in preallocated native memory that the driver reads straight into,
+ * grouped by channel: every channel holds size() samples and the channels sit back to back.
+ * Consumers read them in place through get, getChannel or copyChannel.
+ * Every read also stamps the block with where it sits on the sample clock, so sample i of the block
+ * was taken at (getFirstSample() + i) / sample rate seconds after the clock started,
+ * and with the System.nanoTime the read returned at, which ties the clock to the monotonic time of the computer.
+ */
+public class SampleBlock {
+    private static final int BYTES_PER_SAMPLE = Double.BYTES;
+
+    private final Memory memory;
+    private final DoubleBuffer samples;
+    private final int channels;
+    private final int capacity;
+    private int size;
+    private long firstSample; //index of the first sample on the sample clock, counted from when the clock was started
+    private long anchorNanos; //System.nanoTime right after the read, the last sample was taken no later than this
+
+    public SampleBlock(int channels, int capacity){
+        this.channels = channels;
+        this.capacity = capacity;
+        this.memory = new Memory((long) channels * capacity * BYTES_PER_SAMPLE);
+        this.samples = memory.getByteBuffer(0, memory.size()).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    /**
+     * Fills the block from an interleaved (grouped by scan number) buffer
+     * @param interleaved buffer holding one sample of every channel per scan
+     * @param samplesPerChannel number of scans in the buffer
+     */
+    public void fillInterleaved(DoubleBuffer interleaved, int samplesPerChannel){
+        size = samplesPerChannel;
+        for (int i = 0; i < samplesPerChannel; i++) {
+            for (int j = 0; j < channels; j++) {
+                samples.put(j * size + i, interleaved.get());
+            }
+        }
+    }
+
+    /*
+     * Native memory the driver reads into, grouped by channel
+     */
+    Pointer getPointer(){
+        return memory;
+    }
+
+    /*
+     * Writes a single sample, used by the tasks that generate their own data.
+     * setSize must be called first since it decides where each channel starts.
+     */
+    void set(int channel, int index, double value){
+        samples.put(channel * size + index, value);
+    }
+
+    /*
+     * Sets how many samples per channel are valid, and so where each channel starts
+     */
+    void setSize(int size){
+        this.size = size;
+    }
+
+    /*
+     * Records where the samples just read sit on the sample clock and when they were read
+     */
+    void stamp(long firstSample){
+        this.firstSample = firstSample;
+        this.anchorNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets a single sample
+     * @param channel channel index within the task
+     * @param index sample index within the block
+     * @return the sample value in volts
+     */
+    public double get(int channel, int index){
+        return samples.get(channel * size + index);
+    }
+
+    /**
+     * Gets a read only view of one channel straight over the native memory.
+     * It is only valid until the next read fills the block again.
+     * @param channel channel index within the task
+     * @return the samples of the channel, from position 0 to size()
+     */
+    public DoubleBuffer getChannel(int channel){
+        DoubleBuffer view = samples.duplicate();
+        view.position(channel * size);
+        view.limit(channel * size + size);
+        return view.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Copies the samples of one channel into the destination array
+     * @param channel channel index within the task
+     * @param dst destination array
+     * @param dstOffset where to start writing in the destination
+     */
+    public void copyChannel(int channel, double[] dst, int dstOffset){
+        memory.read((long) channel * size * BYTES_PER_SAMPLE, dst, dstOffset, size);
+    }
+
+    /**
+     * Averages all samples of a channel in this block
+     * @param channel channel index within the task
+     * @return the average, or 0 when the block is empty
+     */
+    public double average(int channel){
+        if(size == 0){
+            return 0.0;
+        }
+        double total = 0.0;
+        int start = channel * size;
+        for(int i = 0; i < size; i++){
+            total += samples.get(start + i);
+        }
+        return total / size;
+    }
+
+    public int getChannelCount(){
+        return channels;
+    }
+
+    public int getCapacity(){
+        return capacity;
+    }
+
+    /**
+     * @return the index on the sample clock of the first sample in the block, counted from when the clock was last started
+     */
+    public long getFirstSample(){
+        return firstSample;
+    }
+
+    /**
+     * @return System.nanoTime right after the block was read, the last sample of the block was taken at or before it
+     */
+    public long getAnchorNanos(){
+        return anchorNanos;
+    }
+
+    /**
+     * @return the number of samples per channel currently in the block
+     */
+    public int size(){
+        return size;
+    }
+}
@@ -0,0 +1,38 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wall clock that says how many samples a paced source should have produced,
+ * shared by the tasks that stand in for the hardware
+ */
+class SampleClock {
+    private final double sampleRate;
+    private long startNanos;
+
+    SampleClock(double sampleRate){
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Starts or resumes the clock so that position samples are already due
+     */
+    void start(long position){
+        startNanos = System.nanoTime() - (long) (position * 1e9 / sampleRate);
+    }
+
+    /**
+     * @return the number of samples due since the clock started
+     */
+    long due(){
+        return (long) ((System.nanoTime() - startNanos) * sampleRate / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Parks for as long as the given number of samples takes
+     */
+    void parkFor(long samples){
+        LockSupport.parkNanos((long) (samples * 1e9 / sampleRate));
+    }
+}
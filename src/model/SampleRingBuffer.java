@@ -0,0 +1,207 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Lock-free single producer/single consumer ring of sample frames.
+ * A frame holds one sample of every channel, stored back to back in a preallocated double array.
+ * Exactly one thread may write and exactly one other thread may read.
+ * When the reader falls behind the newest frames are dropped and counted, never overwritten.
+ * Every frame keeps its index on the sample clock, so the reader knows when each sample was taken
+ * even across samples dropped here or lost by the driver, and the time its read returned, so it knows how long they waited.
+ */
+public class SampleRingBuffer {
+    private final double[] buffer;
+    private final long[] sampleIndices; //sample clock index of every frame
+    private final long[] readNanos; //System.nanoTime the read of every frame returned at
+    private final int frameSize;
+    private final int capacity;
+    private final int mask;
+
+    //frames written by the producer, caches the consumer position
+    private final Sequence tail = new Sequence();
+    //frames read by the consumer, caches the producer position
+    private final Sequence head = new Sequence();
+    private long readFirstSample; //sample clock index of the first frame of the last read, consumer only
+    private long readLastNanos; //read time of the last frame of the last read, consumer only
+
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    /**
+     * @param frameSize number of channels in each frame
+     * @param minCapacity minimum number of frames, rounded up to a power of two
+     */
+    public SampleRingBuffer(int frameSize, int minCapacity){
+        if(frameSize <= 0 || minCapacity <= 0){
+            throw new IllegalArgumentException("Frame size and capacity must be positive");
+        }
+        int size = Integer.highestOneBit(minCapacity);
+        if(size < minCapacity){
+            size <<= 1;
+        }
+        this.frameSize = frameSize;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.buffer = new double[size * frameSize];
+        this.sampleIndices = new long[size];
+        this.readNanos = new long[size];
+    }
+
+    /**
+     * Producer side. Writes as many frames of the block as there is room for.
+     * @param block samples grouped by channel, must have frameSize channels
+     * @return the number of frames written, anything short of block.size() was dropped
+     */
+    public int write(SampleBlock block){
+        int frames = block.size();
+        long tailValue = tail.value;
+        int free = capacity - (int) (tailValue - tail.cached);
+        if(free < frames){
+            tail.cached = head.value;
+            free = capacity - (int) (tailValue - tail.cached);
+        }
+
+        int toWrite = Math.min(frames, free);
+        long firstSample = block.getFirstSample();
+        long anchorNanos = block.getAnchorNanos();
+        for(int i = 0; i < toWrite; i++){
+            int frame = (int) ((tailValue + i) & mask);
+            sampleIndices[frame] = firstSample + i;
+            readNanos[frame] = anchorNanos;
+            int index = frame * frameSize;
+            for(int c = 0; c < frameSize; c++){
+                buffer[index + c] = block.get(c, i);
+            }
+        }
+        tail.lazySet(tailValue + toWrite);
+
+        if(toWrite < frames){
+            overflowCount.incrementAndGet();
+            droppedFrames.addAndGet(frames - toWrite);
+        }
+        return toWrite;
+    }
+
+    /**
+     * Consumer side. Moves frames out of the ring, one destination array per channel.
+     * A read stops short at a gap in the sample clock, so the frames read are always the consecutive samples
+     * getReadFirstSample() onwards.
+     * @param dst destination arrays, one per channel
+     * @param maxFrames the most frames to read, also bounded by the destination length
+     * @return the number of frames read
+     */
+    public int read(double[][] dst, int maxFrames){
+        long headValue = head.value;
+        int available = (int) (head.cached - headValue);
+        if(available < maxFrames){
+            head.cached = tail.value;
+            available = (int) (head.cached - headValue);
+        }
+
+        int toRead = Math.min(Math.min(available, maxFrames), dst[0].length);
+        if(toRead == 0){
+            return 0;
+        }
+        long firstSample = sampleIndices[(int) (headValue & mask)];
+        for(int i = 0; i < toRead; i++){
+            int frame = (int) ((headValue + i) & mask);
+            if(sampleIndices[frame] != firstSample + i){
+                toRead = i;
+                break;
+            }
+            int index = frame * frameSize;
+            for(int c = 0; c < dst.length; c++){
+                dst[c][i] = buffer[index + c];
+            }
+        }
+        readFirstSample = firstSample;
+        readLastNanos = readNanos[(int) ((headValue + toRead - 1) & mask)];
+        head.lazySet(headValue + toRead);
+        return toRead;
+    }
+
+    /**
+     * Consumer side.
+     * @return the sample clock index of the first frame the last read returned
+     */
+    public long getReadFirstSample(){
+        return readFirstSample;
+    }
+
+    /**
+     * Consumer side.
+     * @return the System.nanoTime the read of the newest frame the last read returned came back at
+     */
+    public long getReadLastNanos(){
+        return readLastNanos;
+    }
+
+    /**
+     * Consumer side. Throws away every frame currently in the ring.
+     */
+    public void discard(){
+        head.cached = tail.value;
+        head.lazySet(head.cached);
+    }
+
+    /**
+     * @return the number of frames waiting to be read, may be stale by the time it returns
+     */
+    public int size(){
+        return (int) (tail.value - head.value);
+    }
+
+    public int getCapacity(){
+        return capacity;
+    }
+
+    public int getFrameSize(){
+        return frameSize;
+    }
+
+    /**
+     * @return how many writes did not fit completely because the consumer fell behind
+     */
+    public long getOverflowCount(){
+        return overflowCount.get();
+    }
+
+    /**
+     * @return the total number of frames dropped because the ring was full
+     */
+    public long getDroppedFrames(){
+        return droppedFrames.get();
+    }
+
+    /**
+     * @return the total number of frames ever written
+     */
+    public long getWrittenFrames(){
+        return tail.value;
+    }
+
+    /*
+     * Cache line padding on both sides of the counter keeps the producer and
+     * consumer counters from sharing a cache line with each other or anything else
+     */
+    private static class LeftPadding {
+        protected long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static class Value extends LeftPadding {
+        protected volatile long value;
+        //last seen position of the other side, only touched by the owning thread
+        protected long cached;
+    }
+
+    private static final class Sequence extends Value {
+        private static final AtomicLongFieldUpdater<Value> UPDATER = AtomicLongFieldUpdater.newUpdater(Value.class, "value");
+        protected long p9, p10, p11, p12, p13, p14;
+
+        void lazySet(long newValue){
+            UPDATER.lazySet(this, newValue);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Append only store of every processed sample of a test, the system of record for the run.
+ * Each column is kept in fixed size chunks of primitive doubles, so an append is O(1),
+ * nothing is ever copied when the store grows and a million points costs BYTES_PER_POINT megabytes.
+ * One thread appends, any number of threads may read through views.
+ */
+public class SampleStore {
+    public enum Column {
+        TIME, //seconds since the start of the run
+        FORCE_VOLTS, //raw force channel voltage
+        ELONGATION_VOLTS, //raw elongation channel voltage
+        STRESS,
+        STRAIN,
+        STRAIN_RATE, //per second, NaN where it is not known
+        STRESS_RATE //stress units per second, NaN where it is not known
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+    public static final int CHUNK_BITS = 16;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    public static final int BYTES_PER_POINT = COLUMNS.length * Double.BYTES;
+
+    //[chunk][column][index], replaced (never modified) when more chunk slots are needed
+    private volatile double[][][] chunks = new double[16][][];
+    //published after the values are written so readers never see a half written point
+    private volatile int size;
+
+    /**
+     * Appends one point without rates. Only one thread may append.
+     */
+    public void append(double time, double forceVolts, double elongationVolts, double stress, double strain){
+        append(time, forceVolts, elongationVolts, stress, strain, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Appends one point. Only one thread may append.
+     */
+    public void append(double time, double forceVolts, double elongationVolts, double stress, double strain, double strainRate, double stressRate){
+        int index = size;
+        int chunkIndex = index >>> CHUNK_BITS;
+        double[][][] current = chunks;
+        if(chunkIndex == current.length){
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if(current[chunkIndex] == null){
+            current[chunkIndex] = new double[COLUMNS.length][CHUNK_SIZE];
+            chunks = current;
+        }
+
+        double[][] chunk = current[chunkIndex];
+        int offset = index & CHUNK_MASK;
+        chunk[Column.TIME.ordinal()][offset] = time;
+        chunk[Column.FORCE_VOLTS.ordinal()][offset] = forceVolts;
+        chunk[Column.ELONGATION_VOLTS.ordinal()][offset] = elongationVolts;
+        chunk[Column.STRESS.ordinal()][offset] = stress;
+        chunk[Column.STRAIN.ordinal()][offset] = strain;
+        chunk[Column.STRAIN_RATE.ordinal()][offset] = strainRate;
+        chunk[Column.STRESS_RATE.ordinal()][offset] = stressRate;
+        size = index + 1;
+    }
+
+    /**
+     * @return the number of points appended so far
+     */
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * Gets one value, index must be below a size() that was already read
+     */
+    public double get(Column column, int index){
+        return chunks[index >>> CHUNK_BITS][column.ordinal()][index & CHUNK_MASK];
+    }
+
+    /**
+     * Copies a range of one column into an array
+     * @param column the column to copy
+     * @param from first point to copy
+     * @param dst destination array
+     * @param dstOffset where to start writing in the destination
+     * @param length number of points to copy
+     */
+    public void copy(Column column, int from, double[] dst, int dstOffset, int length){
+        double[][][] current = chunks;
+        while(length > 0){
+            int offset = from & CHUNK_MASK;
+            int count = Math.min(length, CHUNK_SIZE - offset);
+            System.arraycopy(current[from >>> CHUNK_BITS][column.ordinal()], offset, dst, dstOffset, count);
+            from += count;
+            dstOffset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Gets a read only view of everything appended so far.
+     * Later appends do not show up in the view, take a new view to see them.
+     */
+    public View view(){
+        return new View(size);
+    }
+
+    /**
+     * Multiplies every value of a column, used when the display units change.
+     * Must not be called while another thread is appending.
+     */
+    public void scale(Column column, double factor){
+        int count = size;
+        double[][][] current = chunks;
+        for(int c = 0; c * CHUNK_SIZE < count; c++){
+            double[] values = current[c][column.ordinal()];
+            int length = Math.min(CHUNK_SIZE, count - c * CHUNK_SIZE);
+            for(int i = 0; i < length; i++){
+                values[i] *= factor;
+            }
+        }
+    }
+
+    /**
+     * Throws away every point and releases the memory.
+     * Must not be called while another thread is appending.
+     */
+    public void clear(){
+        size = 0;
+        chunks = new double[16][][];
+    }
+
+    /**
+     * A fixed length, read only window onto the store
+     */
+    public class View {
+        private final int length;
+
+        private View(int length){
+            this.length = length;
+        }
+
+        public int size(){
+            return length;
+        }
+
+        public double get(Column column, int index){
+            if(index >= length){
+                throw new IndexOutOfBoundsException("Index " + index + " is past the end of the view");
+            }
+            return SampleStore.this.get(column, index);
+        }
+
+        public void copy(Column column, int from, double[] dst, int dstOffset, int count){
+            if(from + count > length){
+                throw new IndexOutOfBoundsException("Range ends past the end of the view");
+            }
+            SampleStore.this.copy(column, from, dst, dstOffset, count);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package model;
+
+import kirkwood.nidaq.access.NiDaqException;
+import java.util.Random;
+
+/**
+ * Generates force and elongation voltages from a material curve instead of reading a National Instruments chip.
+ * Used to run the program without hardware and to load test the pipeline at rates the chip cannot reach.
+ * The curve is scaled so its peak stress and strain land at FULL_SCALE_VOLTS on the force and elongation channels.
+ */
+public class SimulatedAITask implements AITask {
+    public static final double FULL_SCALE_VOLTS = 8.0;
+
+    private final double sampleRate;
+    private final double noiseVolts;
+    private final MaterialCurve curve;
+    private final double testSeconds;
+    private final Random random = new Random();
+    private final SampleClock clock;
+    private boolean paced = true;
+
+    private int channels;
+    private int samplesPerBlock;
+    private SampleBlock block;
+    private boolean readyToRun;
+    private volatile boolean running;
+    private long generated; //samples per channel handed out since start
+    private long clockStart; //generated when the clock was last started, the sample clock counts from there
+    private long tested; //samples per channel of those that moved along the curve
+    private int backlog; //samples per channel due when the last read started
+    private volatile boolean idle;
+
+    /**
+     * @param sampleRate samples per second per channel
+     * @param noiseVolts standard deviation of the gaussian noise added to every sample
+     * @param curve the stress-strain path the simulated specimen follows
+     * @param testSeconds how long it takes to walk the whole curve
+     */
+    public SimulatedAITask(double sampleRate, double noiseVolts, MaterialCurve curve, double testSeconds){
+        if(sampleRate <= 0 || testSeconds <= 0){
+            throw new IllegalArgumentException("Sample rate and test length must be positive");
+        }
+        this.sampleRate = sampleRate;
+        this.noiseVolts = noiseVolts;
+        this.curve = curve;
+        this.testSeconds = testSeconds;
+        clock = new SampleClock(sampleRate);
+    }
+
+    /**
+     * When paced, reads wait for the simulated clock like the hardware does.
+     * When not paced, every read immediately returns a full block, which is as fast as the consumer can go.
+     * @param paced whether reads follow the sample rate
+     */
+    public void setPaced(boolean paced){
+        this.paced = paced;
+    }
+
+    @Override
+    public void createAIChannel(int channelNumber, Mode channelMode){
+        if(!readyToRun) {
+            channels++;
+        }else{
+            System.err.println("SimulatedAITask: Ready to run function already called.");
+        }
+    }
+
+    @Override
+    public void readyToRun(){
+        samplesPerBlock = Math.max(1, (int) (sampleRate / BLOCKS_PER_SECOND));
+        block = new SampleBlock(channels, samplesPerBlock * MAX_BLOCKS_PER_READ);
+        readyToRun = true;
+    }
+
+    @Override
+    public void start(){
+        if(!running) {
+            clock.start(generated);
+            clockStart = generated;
+            running = true;
+        }
+    }
+
+    @Override
+    public void pause(){
+        running = false;
+    }
+
+    /**
+     * While idle the samples stay at the current point of the curve, plus noise
+     */
+    @Override
+    public void setIdle(boolean idle){
+        this.idle = idle;
+    }
+
+    @Override
+    public void collectData(){
+        if(readyToRun) {
+            start();
+            generate(samplesPerBlock);
+        }else{
+            System.err.println("SimulatedAITask: Ready to run not called yet.");
+        }
+    }
+
+    @Override
+    public int readAvailable() throws NiDaqException{
+        if(!paced){
+            return generate(block.getCapacity());
+        }
+
+        if(!running){
+            clock.parkFor(samplesPerBlock);
+            return 0;
+        }
+        long available = clock.due() - generated;
+        backlog = (int) Math.max(0, Math.min(available, Integer.MAX_VALUE));
+        if(available < samplesPerBlock){
+            //wait for the simulated clock the way the driver waits for the hardware one
+            clock.parkFor(samplesPerBlock - available);
+            available = clock.due() - generated;
+        }
+        if(available > sampleRate * DAQ_BUFFER_SECONDS){
+            //the reader fell further behind than the driver buffer holds
+            generated += available - samplesPerBlock;
+            throw new NiDaqException(AcquisitionMetrics.SAMPLES_NO_LONGER_AVAILABLE);
+        }
+        return generate((int) Math.min(Math.max(available, 0), block.getCapacity()));
+    }
+
+    /*
+     * Fills the block with the next samples along the curve
+     */
+    private int generate(int samples){
+        double forceScale = FULL_SCALE_VOLTS / curve.getMaxStress();
+        double elongationScale = FULL_SCALE_VOLTS / curve.getMaxStrain();
+        double samplesPerTest = sampleRate * testSeconds;
+        boolean holding = idle;
+        block.setSize(samples);
+        block.stamp(generated - clockStart);
+        for(int i = 0; i < samples; i++){
+            double position = (holding ? tested : tested + i) / samplesPerTest;
+            for(int c = 0; c < channels; c++){
+                double volts;
+                if(c == FORCE_CHANNEL){
+                    volts = curve.stressAt(position) * forceScale;
+                }else if(c == LENGTH_CHANNEL){
+                    volts = curve.strainAt(position) * elongationScale;
+                }else{
+                    volts = 0.0;
+                }
+                block.set(c, i, volts + random.nextGaussian() * noiseVolts);
+            }
+        }
+        generated += samples;
+        if(!holding){
+            tested += samples;
+        }
+        return samples;
+    }
+
+    @Override
+    public double getChannelData(int channelNumber){
+        return block.average(channelNumber);
+    }
+
+    @Override
+    public SampleBlock getBlock(){
+        return block;
+    }
+
+    @Override
+    public int getBacklog(){
+        return backlog;
+    }
+
+    @Override
+    public int getChannels(){
+        return channels;
+    }
+
+    @Override
+    public double getSampleRate(){
+        return sampleRate;
+    }
+}
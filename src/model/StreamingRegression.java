@@ -0,0 +1,208 @@
+package model;
+
+/**
+ * Least squares line through a stream of points, updated in O(1) per point without keeping a second pass.
+ * The sufficient statistics are running means and co-moments (Welford's update) rather than raw sums,
+ * so a line far from the origin does not lose its slope to cancellation.
+ * With a window only the last window points count: the oldest one is taken back out as each new one
+ * comes in, and the statistics are summed again from the window each time it turns over so
+ * rounding from the removals cannot build up.
+ * Not thread safe.
+ */
+public class StreamingRegression {
+    private final double[] xs; //the window, null when every point counts
+    private final double[] ys;
+    private int next = 0;
+    private int sinceResync = 0;
+
+    private long count;
+    private double meanX;
+    private double meanY;
+    private double sxx; //sum of squared differences from the mean x
+    private double sxy;
+    private double syy;
+    private double minX = Double.POSITIVE_INFINITY; //kept only without a window
+    private double maxX = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a regression over every point added
+     */
+    public StreamingRegression(){
+        xs = null;
+        ys = null;
+    }
+
+    /**
+     * Creates a regression over the last window points
+     */
+    public StreamingRegression(int window){
+        if(window < 2){
+            throw new IllegalArgumentException("A regression window needs at least two points, got " + window);
+        }
+        xs = new double[window];
+        ys = new double[window];
+    }
+
+    /**
+     * Adds a point, pushing the oldest one out when the window is full
+     */
+    public void add(double x, double y){
+        if(xs == null){
+            include(x, y);
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            return;
+        }
+        if(count == xs.length){
+            exclude(xs[next], ys[next]);
+        }
+        xs[next] = x;
+        ys[next] = y;
+        include(x, y);
+        if(++next == xs.length){
+            next = 0;
+        }
+        if(++sinceResync == xs.length){
+            resync();
+        }
+    }
+
+    private void include(double x, double y){
+        count++;
+        double dx = x - meanX;
+        meanX += dx / count;
+        double dy = y - meanY;
+        meanY += dy / count;
+        sxx += dx * (x - meanX);
+        sxy += dx * (y - meanY);
+        syy += dy * (y - meanY);
+    }
+
+    /*
+     * The exact reverse of include
+     */
+    private void exclude(double x, double y){
+        if(count == 1){
+            clearStatistics();
+            return;
+        }
+        double oldMeanX = meanX;
+        double oldMeanY = meanY;
+        meanX -= (x - meanX) / (count - 1);
+        meanY -= (y - meanY) / (count - 1);
+        count--;
+        sxx -= (x - meanX) * (x - oldMeanX);
+        sxy -= (x - meanX) * (y - oldMeanY);
+        syy -= (y - meanY) * (y - oldMeanY);
+    }
+
+    /*
+     * Sums the window again from scratch
+     */
+    private void resync(){
+        long points = count;
+        clearStatistics();
+        int first = points == xs.length ? next : 0;
+        for(int i = 0; i < points; i++){
+            int slot = (first + i) % xs.length;
+            include(xs[slot], ys[slot]);
+        }
+        sinceResync = 0;
+    }
+
+    private void clearStatistics(){
+        count = 0;
+        meanX = 0.0;
+        meanY = 0.0;
+        sxx = 0.0;
+        sxy = 0.0;
+        syy = 0.0;
+    }
+
+    /**
+     * Multiplies every y seen so far, for when the units of y change
+     */
+    public void scaleY(double factor){
+        meanY *= factor;
+        sxy *= factor;
+        syy *= factor * factor;
+        if(ys != null){
+            for(int i = 0; i < ys.length; i++){
+                ys[i] *= factor;
+            }
+        }
+    }
+
+    /**
+     * Forgets every point
+     */
+    public void clear(){
+        clearStatistics();
+        next = 0;
+        sinceResync = 0;
+        minX = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * @return the number of points the line is fitted to
+     */
+    public long getCount(){
+        return count;
+    }
+
+    /**
+     * @return the slope of the fitted line, or NaN until the points spread out along x
+     */
+    public double getSlope(){
+        return count < 2 || sxx <= 0.0 ? Double.NaN : sxy / sxx;
+    }
+
+    /**
+     * @return where the fitted line crosses x = 0
+     */
+    public double getIntercept(){
+        return meanY - getSlope() * meanX;
+    }
+
+    /**
+     * @return the coefficient of determination, 1 when every point is on the line
+     */
+    public double getRSquared(){
+        if(count < 2 || sxx <= 0.0){
+            return Double.NaN;
+        }
+        if(syy <= 0.0){
+            return 1.0;
+        }
+        return Math.min(1.0, sxy * sxy / (sxx * syy));
+    }
+
+    /**
+     * @return the smallest x the line is fitted to, scans the window when there is one
+     */
+    public double getMinX(){
+        if(xs == null || count == 0){
+            return count == 0 ? Double.NaN : minX;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        for(int i = 0; i < count; i++){
+            min = Math.min(min, xs[i]);
+        }
+        return min;
+    }
+
+    /**
+     * @return the largest x the line is fitted to, scans the window when there is one
+     */
+    public double getMaxX(){
+        if(xs == null || count == 0){
+            return count == 0 ? Double.NaN : maxX;
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < count; i++){
+            max = Math.max(max, xs[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,165 @@
+package model;
+
+/**
+ * Running count, mean, variance, minimum, maximum and RMS of a stream of values, updated in O(1) per value.
+ * The mean and variance use Welford's update so they stay accurate over millions of samples sitting on a
+ * large offset, and the sum of squares behind the RMS is Kahan compensated for the same reason.
+ * Two accumulators can be merged, which is how the rolling window of ChannelStatistics is put together.
+ * Not thread safe.
+ */
+public class StreamingStatistics {
+    private long count;
+    private double mean;
+    private double m2; //sum of squared differences from the mean
+    private double sumSquares;
+    private double sumSquaresError; //Kahan compensation of sumSquares
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds one value
+     */
+    public void add(double value){
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        addSquare(value * value);
+        if(value < min){
+            min = value;
+        }
+        if(value > max){
+            max = value;
+        }
+    }
+
+    /**
+     * Adds a run of values
+     */
+    public void add(double[] values, int offset, int length){
+        int end = offset + length;
+        for(int i = offset; i < end; i++){
+            add(values[i]);
+        }
+    }
+
+    /**
+     * Adds one channel of a block of samples, reading them in place
+     * @param block the samples
+     * @param channel channel index within the block
+     */
+    public void add(SampleBlock block, int channel){
+        int size = block.size();
+        for(int i = 0; i < size; i++){
+            add(block.get(channel, i));
+        }
+    }
+
+    /**
+     * Adds everything another accumulator has seen, as if its values had been added here
+     */
+    public void merge(StreamingStatistics other){
+        if(other.count == 0){
+            return;
+        }
+        if(count == 0){
+            copyFrom(other);
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        addSquare(other.sumSquares);
+        addSquare(-other.sumSquaresError);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /*
+     * Kahan summation step for the sum of squares
+     */
+    private void addSquare(double square){
+        double y = square - sumSquaresError;
+        double t = sumSquares + y;
+        sumSquaresError = (t - sumSquares) - y;
+        sumSquares = t;
+    }
+
+    /**
+     * Makes this accumulator an exact copy of another
+     */
+    public void copyFrom(StreamingStatistics other){
+        count = other.count;
+        mean = other.mean;
+        m2 = other.m2;
+        sumSquares = other.sumSquares;
+        sumSquaresError = other.sumSquaresError;
+        min = other.min;
+        max = other.max;
+    }
+
+    /**
+     * Forgets every value
+     */
+    public void reset(){
+        count = 0;
+        mean = 0.0;
+        m2 = 0.0;
+        sumSquares = 0.0;
+        sumSquaresError = 0.0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public long getCount(){
+        return count;
+    }
+
+    /**
+     * @return the mean, or NaN before any value was added
+     */
+    public double getMean(){
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the sample variance, or NaN with fewer than two values
+     */
+    public double getVariance(){
+        return count < 2 ? Double.NaN : Math.max(0.0, m2) / (count - 1);
+    }
+
+    public double getStandardDeviation(){
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return the root mean square, or NaN before any value was added
+     */
+    public double getRms(){
+        return count == 0 ? Double.NaN : Math.sqrt(sumSquares / count);
+    }
+
+    /**
+     * @return the smallest value, or NaN before any value was added
+     */
+    public double getMin(){
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * @return the largest value, or NaN before any value was added
+     */
+    public double getMax(){
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * @return the largest minus the smallest value, or NaN before any value was added
+     */
+    public double getPeakToPeak(){
+        return count == 0 ? Double.NaN : max - min;
+    }
+}
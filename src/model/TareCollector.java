@@ -0,0 +1,63 @@
+package model;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures a fixed number of raw samples of every channel from the acquisition engine, for taring.
+ * The buffers are allocated up front, blocks are copied in on the acquisition thread
+ * and a waiting thread is released once the buffers are full.
+ */
+public class TareCollector implements BlockListener {
+    private final double[][] samples;
+    private final CountDownLatch full = new CountDownLatch(1);
+    private volatile int count = 0;
+
+    /**
+     * @param channels number of channels in the task
+     * @param samplesPerChannel how many samples of each channel to capture
+     */
+    public TareCollector(int channels, int samplesPerChannel){
+        samples = new double[channels][samplesPerChannel];
+    }
+
+    @Override
+    public void blockAcquired(SampleBlock block){
+        int filled = count;
+        int take = Math.min(block.size(), samples[0].length - filled);
+        if(take <= 0){
+            return;
+        }
+        for(int c = 0; c < samples.length; c++){
+            for(int i = 0; i < take; i++){
+                samples[c][filled + i] = block.get(c, i);
+            }
+        }
+        count = filled + take;
+        if(count == samples[0].length){
+            full.countDown();
+        }
+    }
+
+    /**
+     * Waits for the buffers to fill
+     * @return true if they filled, false if the timeout ran out first
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return full.await(timeout, unit);
+    }
+
+    /**
+     * @return the number of samples per channel captured so far
+     */
+    public int getCount(){
+        return count;
+    }
+
+    /**
+     * The captured samples of one channel, valid up to getCount()
+     */
+    public double[] getSamples(int channel){
+        return samples[channel];
+    }
+}
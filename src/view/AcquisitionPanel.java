@@ -0,0 +1,54 @@
+package view;
+
+import model.AcquisitionMetrics;
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Shows whether the acquisition is keeping up: the driver backlog, the read sizes and any samples lost,
+ * in red as soon as one sample of the run did not make it into the data
+ */
+public class AcquisitionPanel extends JPanel {
+    private final JLabel label = new JLabel();
+
+    public AcquisitionPanel(){
+        setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+        add(label);
+        clear();
+    }
+
+    /**
+     * Shows the current metrics, must be called on the event dispatch thread
+     * @param sampleRate samples per second per channel, to show the backlog in milliseconds
+     */
+    public void update(AcquisitionMetrics metrics, double sampleRate){
+        if(metrics.getReads() == 0 && metrics.getErrors() == 0){
+            clear();
+            return;
+        }
+        long lost = metrics.getSamplesLost() + metrics.getSamplesDropped();
+        if(metrics.isLosingSamples()){
+            label.setText(String.format("DAQ: %,d samples lost, %d overruns", lost, metrics.getOverruns()));
+            label.setForeground(Color.RED);
+        }else{
+            label.setText(String.format("DAQ: OK, backlog %.0f ms", metrics.getLastBacklog() * 1000 / sampleRate));
+            label.setForeground(Color.BLACK);
+        }
+        label.setToolTipText(String.format("<html>%,d reads, %,d samples per channel, last read %d, largest %d<br>"
+                        + "Backlog when reading: last %d, largest %d samples per channel<br>"
+                        + "Lost by the driver %,d, dropped by processing %,d<br>"
+                        + "Overruns %d, read errors %d%s</html>",
+                metrics.getReads(), metrics.getSamplesRead(), metrics.getLastReadSize(), metrics.getMaxReadSize(),
+                metrics.getLastBacklog(), metrics.getMaxBacklog(), metrics.getSamplesLost(), metrics.getSamplesDropped(),
+                metrics.getOverruns(), metrics.getErrors(), metrics.getErrors() > 0 ? ", last error " + metrics.getLastErrorCode() : ""));
+    }
+
+    /**
+     * Shows that nothing has been read yet
+     */
+    public void clear(){
+        label.setText("DAQ: not running");
+        label.setForeground(Color.BLACK);
+        label.setToolTipText("Driver backlog, read sizes and lost samples of the acquisition");
+    }
+}
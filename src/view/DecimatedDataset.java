@@ -0,0 +1,339 @@
+package view;
+
+import model.SampleStore;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
+import org.jfree.data.DomainInfo;
+import org.jfree.data.Range;
+import org.jfree.data.RangeInfo;
+import org.jfree.data.xy.AbstractXYDataset;
+import java.util.Arrays;
+
+/**
+ * Chart dataset that shows a SampleStore column against another without handing every point to JFreeChart.
+ * The visible domain is split into one bucket per pixel column and each bucket only keeps its
+ * first, last, minimum and maximum point (M4 aggregation), which draws the same line as the full data.
+ * Render cost is bounded by the chart width, not by the number of samples.
+ *
+ * While the axis auto ranges, new points are added to their bucket as they arrive and the domain
+ * doubles (merging buckets in pairs) whenever a point falls outside it.
+ * Zooming re-aggregates the zoomed range from the full resolution store.
+ * Must only be used from the event dispatch thread.
+ */
+public class DecimatedDataset extends AbstractXYDataset implements DomainInfo, RangeInfo, AxisChangeListener {
+    public static final int DEFAULT_COLUMNS = 2048;
+    private static final double INITIAL_WIDTH = 0.001; //domain covered before it has to grow
+
+    private final String key;
+    private final SampleStore store;
+    private final SampleStore.Column xColumn;
+    private final SampleStore.Column yColumn;
+
+    private int columns;
+    private int[] count;
+    private int[] first;
+    private int[] last;
+    private int[] min;
+    private int[] max;
+    private double lower; //domain covered by the buckets
+    private double width;
+    private boolean zoomed;
+    private int aggregated; //number of store points already in the buckets
+
+    //global bounds of every point, used for auto ranging
+    private double minX, maxX, minY, maxY;
+
+    //flattened output handed to the renderer
+    private double[] outX = new double[0];
+    private double[] outY = new double[0];
+    private int outCount;
+    private boolean dirty;
+    private final int[] points = new int[4];
+
+    public DecimatedDataset(String key, SampleStore store, SampleStore.Column xColumn, SampleStore.Column yColumn){
+        this.key = key;
+        this.store = store;
+        this.xColumn = xColumn;
+        this.yColumn = yColumn;
+        setColumns(DEFAULT_COLUMNS);
+    }
+
+    /**
+     * Sets how many buckets the domain is split into, normally the plot width in pixels
+     */
+    public void setColumns(int columns){
+        this.columns = Math.max(2, columns + (columns & 1)); //even so buckets merge in pairs
+        count = new int[this.columns];
+        first = new int[this.columns];
+        last = new int[this.columns];
+        min = new int[this.columns];
+        max = new int[this.columns];
+        rebuild();
+    }
+
+    /**
+     * Pulls in the points appended to the store since the last update
+     */
+    public void update(){
+        int size = store.size();
+        if(size < aggregated){
+            //the store was cleared
+            rebuild();
+            return;
+        }
+        if(size == aggregated){
+            return;
+        }
+        for(int i = aggregated; i < size; i++){
+            add(i);
+        }
+        aggregated = size;
+        dirty = true;
+        fireDatasetChanged();
+    }
+
+    /**
+     * Re-aggregates everything from the store, for when existing values change or the store is cleared
+     */
+    public void rebuild(){
+        Arrays.fill(count, 0);
+        if(!zoomed){
+            width = 0.0;
+        }
+        minX = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+
+        int size = store.size();
+        for(int i = 0; i < size; i++){
+            add(i);
+        }
+        aggregated = size;
+        dirty = true;
+        fireDatasetChanged();
+    }
+
+    /*
+     * Adds one store point to the bounds and to its bucket, points with an unknown or infinite value are left out
+     */
+    private void add(int index){
+        double x = store.get(xColumn, index);
+        double y = store.get(yColumn, index);
+        if(!Double.isFinite(x) || !Double.isFinite(y)){
+            return;
+        }
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+
+        if(!zoomed){
+            if(width == 0.0){
+                lower = x;
+                width = INITIAL_WIDTH;
+            }
+            while(x < lower){
+                growLeft();
+            }
+            while(x >= lower + width){
+                growRight();
+            }
+        }else if(x < lower || x > lower + width){
+            return;
+        }
+
+        int bucket = Math.min(columns - 1, (int) ((x - lower) / width * columns));
+        if(count[bucket] == 0){
+            first[bucket] = index;
+            min[bucket] = index;
+            max[bucket] = index;
+        }else{
+            if(y < store.get(yColumn, min[bucket])){
+                min[bucket] = index;
+            }
+            if(y > store.get(yColumn, max[bucket])){
+                max[bucket] = index;
+            }
+        }
+        last[bucket] = index;
+        count[bucket]++;
+    }
+
+    /*
+     * Doubles the domain to the right, bucket i becomes part of bucket i/2
+     */
+    private void growRight(){
+        for(int i = 0; i < columns; i++){
+            merge(i, i / 2, i % 2 == 0);
+        }
+        width *= 2;
+    }
+
+    /*
+     * Doubles the domain to the left, bucket i becomes part of bucket (columns + i)/2
+     */
+    private void growLeft(){
+        for(int i = columns - 1; i >= 0; i--){
+            merge(i, (columns + i) / 2, i % 2 == 1);
+        }
+        lower -= width;
+        width *= 2;
+    }
+
+    /*
+     * Moves bucket from into bucket to. When fresh is set, to has not received anything from this pass yet
+     */
+    private void merge(int from, int to, boolean fresh){
+        int moved = count[from];
+        int firstIndex = first[from], lastIndex = last[from], minIndex = min[from], maxIndex = max[from];
+        count[from] = 0;
+        if(fresh){
+            count[to] = 0;
+        }
+        if(moved == 0){
+            return;
+        }
+        if(count[to] == 0){
+            first[to] = firstIndex;
+            last[to] = lastIndex;
+            min[to] = minIndex;
+            max[to] = maxIndex;
+        }else{
+            first[to] = Math.min(first[to], firstIndex);
+            last[to] = Math.max(last[to], lastIndex);
+            if(store.get(yColumn, minIndex) < store.get(yColumn, min[to])){
+                min[to] = minIndex;
+            }
+            if(store.get(yColumn, maxIndex) > store.get(yColumn, max[to])){
+                max[to] = maxIndex;
+            }
+        }
+        count[to] += moved;
+    }
+
+    /*
+     * Flattens the buckets into at most four points each, kept in the order they were sampled
+     */
+    private void buildOutput(){
+        if(!dirty){
+            return;
+        }
+        if(outX.length < columns * 4){
+            outX = new double[columns * 4];
+            outY = new double[columns * 4];
+        }
+        outCount = 0;
+        for(int b = 0; b < columns; b++){
+            if(count[b] == 0){
+                continue;
+            }
+            points[0] = first[b];
+            points[1] = Math.min(min[b], max[b]);
+            points[2] = Math.max(min[b], max[b]);
+            points[3] = last[b];
+            int previous = -1;
+            for(int index : points){
+                if(index != previous){
+                    outX[outCount] = store.get(xColumn, index);
+                    outY[outCount] = store.get(yColumn, index);
+                    outCount++;
+                    previous = index;
+                }
+            }
+        }
+        dirty = false;
+    }
+
+    /**
+     * Switches between following the data and re-aggregating a zoomed range
+     */
+    @Override
+    public void axisChanged(AxisChangeEvent event){
+        ValueAxis axis = (ValueAxis) event.getAxis();
+        if(axis.isAutoRange()){
+            if(zoomed){
+                zoomed = false;
+                rebuild();
+            }
+            return;
+        }
+        Range range = axis.getRange();
+        if(!zoomed || range.getLowerBound() != lower || range.getLength() != width){
+            zoomed = true;
+            lower = range.getLowerBound();
+            width = range.getLength();
+            rebuild();
+        }
+    }
+
+    @Override
+    public int getSeriesCount(){
+        return 1;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Comparable getSeriesKey(int series){
+        return key;
+    }
+
+    @Override
+    public int getItemCount(int series){
+        buildOutput();
+        return outCount;
+    }
+
+    @Override
+    public double getXValue(int series, int item){
+        buildOutput();
+        return outX[item];
+    }
+
+    @Override
+    public double getYValue(int series, int item){
+        buildOutput();
+        return outY[item];
+    }
+
+    @Override
+    public Number getX(int series, int item){
+        return getXValue(series, item);
+    }
+
+    @Override
+    public Number getY(int series, int item){
+        return getYValue(series, item);
+    }
+
+    @Override
+    public double getDomainLowerBound(boolean includeInterval){
+        return aggregated == 0 ? Double.NaN : minX;
+    }
+
+    @Override
+    public double getDomainUpperBound(boolean includeInterval){
+        return aggregated == 0 ? Double.NaN : maxX;
+    }
+
+    @Override
+    public Range getDomainBounds(boolean includeInterval){
+        return aggregated == 0 ? null : new Range(minX, maxX);
+    }
+
+    @Override
+    public double getRangeLowerBound(boolean includeInterval){
+        return aggregated == 0 ? Double.NaN : minY;
+    }
+
+    @Override
+    public double getRangeUpperBound(boolean includeInterval){
+        return aggregated == 0 ? Double.NaN : maxY;
+    }
+
+    @Override
+    public Range getRangeBounds(boolean includeInterval){
+        return aggregated == 0 ? null : new Range(minY, maxY);
+    }
+}
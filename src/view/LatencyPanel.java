@@ -0,0 +1,51 @@
+package view;
+
+import model.LatencyHistogram;
+import model.PipelineLatency;
+import model.PipelineLatency.Stage;
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Shows p50, p99 and max latency of every stage of the pipeline, in milliseconds
+ */
+public class LatencyPanel extends JPanel {
+    private static final String[] COLUMNS = {"Stage", "p50 (ms)", "p99 (ms)", "max (ms)", "count"};
+    private static final Stage[] STAGES = Stage.values();
+
+    private final JLabel[][] cells = new JLabel[STAGES.length][COLUMNS.length - 1];
+
+    public LatencyPanel(){
+        setLayout(new GridLayout(STAGES.length + 1, COLUMNS.length, MainWindow.HORIZONTAL_BUFFER, 2));
+        setBorder(BorderFactory.createEmptyBorder(MainWindow.VERTICAL_BUFFER, MainWindow.HORIZONTAL_BUFFER, MainWindow.VERTICAL_BUFFER, MainWindow.HORIZONTAL_BUFFER));
+        for(String column : COLUMNS){
+            add(new JLabel(column));
+        }
+        for(int s = 0; s < STAGES.length; s++){
+            add(new JLabel(STAGES[s].getLabel()));
+            for(int c = 0; c < cells[s].length; c++){
+                cells[s][c] = new JLabel("-", SwingConstants.RIGHT);
+                add(cells[s][c]);
+            }
+        }
+    }
+
+    /**
+     * Shows the current latencies, must be called on the event dispatch thread
+     */
+    public void update(PipelineLatency latency){
+        for(int s = 0; s < STAGES.length; s++){
+            LatencyHistogram histogram = latency.getHistogram(STAGES[s]);
+            if(histogram.getCount() == 0){
+                for(JLabel cell : cells[s]){
+                    cell.setText("-");
+                }
+                continue;
+            }
+            cells[s][0].setText(String.format("%.3f", PipelineLatency.millis(histogram.getValueAtPercentile(50))));
+            cells[s][1].setText(String.format("%.3f", PipelineLatency.millis(histogram.getValueAtPercentile(99))));
+            cells[s][2].setText(String.format("%.3f", PipelineLatency.millis(histogram.getMax())));
+            cells[s][3].setText(String.valueOf(histogram.getCount()));
+        }
+    }
+}
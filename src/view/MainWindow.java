@@ -3,12 +3,23 @@ package view;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.annotations.XYLineAnnotation;
+import org.jfree.chart.annotations.XYPointerAnnotation;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.IntervalMarker;
 import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.title.TextTitle;
+import org.jfree.ui.Layer;
+import model.SampleStore;
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.KeyEvent;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class creates the main window named "Tensile Testing"
@@ -32,9 +43,24 @@ public class MainWindow extends JFrame {
     private JMenuItem input;
     private JFreeChart chart;
     private JMenuItem reset;
-    private final XYSeries series = new XYSeries("Stress-Strain Curve");
-
-    public MainWindow(){
+    private JMenuItem diagnostics;
+    private final LatencyPanel latencyPanel = new LatencyPanel();
+    private JDialog diagnosticsDialog; //made the first time it is shown
+    private final DecimatedDataset dataset;
+    private final DecimatedDataset rateDataset; //strain rate on a second axis
+    private StatisticsPanel statisticsPanel;
+    private AcquisitionPanel acquisitionPanel;
+    private final TextTitle fitTitle = new TextTitle("");
+    private XYLineAnnotation fitLine; //null while no fit is shown
+    private final Map<String, XYPointerAnnotation> markers = new HashMap<>(); //by what they mark
+    private final TextTitle rateTitle = new TextTitle("");
+    private IntervalMarker rateBand; //null while no band is shown
+    private static final Color RATE_COLOR = new Color(0, 128, 0);
+    private static final Stroke FIT_STROKE = new BasicStroke(1.5f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10.0f, new float[]{6.0f, 4.0f}, 0.0f);
+
+    public MainWindow(SampleStore store){
+        dataset = new DecimatedDataset("Stress-Strain Curve", store, SampleStore.Column.STRAIN, SampleStore.Column.STRESS);
+        rateDataset = new DecimatedDataset("Strain Rate", store, SampleStore.Column.STRAIN, SampleStore.Column.STRAIN_RATE);
 
         Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
         int frameHeight = (int) (screenSize.getHeight() * .95);
@@ -68,10 +94,31 @@ public class MainWindow extends JFrame {
         graphPanel = new JPanel();
         graphPanel.setLayout(new BorderLayout());
         graphPanel.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createEmptyBorder(HORIZONTAL_BUFFER,VERTICAL_BUFFER,HORIZONTAL_BUFFER,VERTICAL_BUFFER), BorderFactory.createLineBorder(Color.BLACK, 1)));
-        XYSeriesCollection dataset = new XYSeriesCollection(series);
         chart = ChartFactory.createXYLineChart(null,"Strain","Stress",dataset, PlotOrientation.VERTICAL,true,true,true);
+        chart.addSubtitle(fitTitle);
+        chart.addSubtitle(rateTitle);
+        //zooming re-aggregates the visible range from the full resolution data
+        chart.getXYPlot().getDomainAxis().addChangeListener(dataset);
+
+        //strain rate against the same strain axis, scaled on its own axis on the right
+        XYPlot plot = chart.getXYPlot();
+        plot.setRangeAxis(1, new NumberAxis("Strain Rate (1/s)"));
+        plot.setDataset(1, rateDataset);
+        plot.mapDatasetToRangeAxis(1, 1);
+        XYLineAndShapeRenderer rateRenderer = new XYLineAndShapeRenderer(true, false);
+        rateRenderer.setSeriesPaint(0, RATE_COLOR);
+        plot.setRenderer(1, rateRenderer);
+        plot.getDomainAxis().addChangeListener(rateDataset);
 
         ChartPanel chartPanel = new ChartPanel(chart);
+        //one bucket of the dataset per pixel column
+        chartPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                dataset.setColumns(chartPanel.getWidth());
+                rateDataset.setColumns(chartPanel.getWidth());
+            }
+        });
 
         graphPanel.add(chartPanel,BorderLayout.CENTER);
         graphPanel.validate();
@@ -98,6 +145,12 @@ public class MainWindow extends JFrame {
         graphReset.setEnabled(false);
         exportButton.setEnabled(false);
 
+        //in task channel order, force first
+        statisticsPanel = new StatisticsPanel("Force", "Elongation");
+        optionsPanel.add(statisticsPanel);
+        optionsPanel.add(Box.createHorizontalStrut(HORIZONTAL_BUFFER));
+        acquisitionPanel = new AcquisitionPanel();
+        optionsPanel.add(acquisitionPanel);
         optionsPanel.add(Box.createHorizontalGlue());
         optionsPanel.add(inputButton);
         optionsPanel.add(Box.createHorizontalStrut(HORIZONTAL_BUFFER));
@@ -130,9 +183,15 @@ public class MainWindow extends JFrame {
         edit.add(input);
         edit.add(reset);
 
+        JMenu view = new JMenu("View");
+        diagnostics = new JMenuItem("Diagnostics");
+        diagnostics.setToolTipText("Shows how long samples take to get from the DAQ to the chart");
+        view.add(diagnostics);
+
         //set hotkeys
         file.setMnemonic(KeyEvent.VK_F);
         edit.setMnemonic(KeyEvent.VK_E);
+        view.setMnemonic(KeyEvent.VK_V);
         exit.setMnemonic(KeyEvent.VK_X);
 
         KeyStroke keyStrokeToInput = KeyStroke.getKeyStroke(KeyEvent.VK_I, KeyEvent.CTRL_DOWN_MASK);
@@ -146,6 +205,7 @@ public class MainWindow extends JFrame {
 
         menuBar.add(file);
         menuBar.add(edit);
+        menuBar.add(view);
     }
 
     //getters
@@ -177,8 +237,142 @@ public class MainWindow extends JFrame {
         return input;
     }
 
-    public XYSeries getSeries() {
-        return series;
+    public DecimatedDataset getDataset() {
+        return dataset;
+    }
+
+    public DecimatedDataset getRateDataset() {
+        return rateDataset;
+    }
+
+    /**
+     * Shades the band the strain rate should stay in
+     * @param min lowest strain rate, per second
+     * @param max highest strain rate, per second
+     */
+    public void showRateBand(double min, double max){
+        if(rateBand != null){
+            if(rateBand.getStartValue() == min && rateBand.getEndValue() == max){
+                return;
+            }
+            chart.getXYPlot().removeRangeMarker(1, rateBand, Layer.BACKGROUND);
+        }
+        rateBand = new IntervalMarker(min, max);
+        rateBand.setPaint(RATE_COLOR);
+        rateBand.setAlpha(0.15f);
+        chart.getXYPlot().addRangeMarker(1, rateBand, Layer.BACKGROUND);
+    }
+
+    /**
+     * Shows the latest rates under the chart
+     * @param caption text describing the rates
+     * @param outOfBand shows the caption as a warning when set
+     */
+    public void showRates(String caption, boolean outOfBand){
+        rateTitle.setText(caption);
+        rateTitle.setPaint(outOfBand ? Color.RED : Color.BLACK);
+    }
+
+    /**
+     * Removes the rate caption, the band stays since it belongs to the settings and not to a run
+     */
+    public void clearRates(){
+        rateTitle.setText("");
+    }
+
+    /**
+     * Draws a fitted straight line over the curve, from where it crosses zero to the end of the fitted region,
+     * with a caption under the chart
+     * @param slope slope of the line
+     * @param intercept value of the line at x = 0
+     * @param toX where the fitted region ends
+     * @param caption text describing the fit
+     */
+    public void showFit(double slope, double intercept, double toX, String caption){
+        if(fitLine != null){
+            chart.getXYPlot().removeAnnotation(fitLine);
+        }
+        double fromX = -intercept / slope;
+        fitLine = new XYLineAnnotation(fromX, 0.0, toX, intercept + slope * toX, FIT_STROKE, Color.BLUE);
+        chart.getXYPlot().addAnnotation(fitLine);
+        fitTitle.setText(caption);
+    }
+
+    /**
+     * Removes the fitted line and its caption
+     */
+    public void clearFit(){
+        if(fitLine != null){
+            chart.getXYPlot().removeAnnotation(fitLine);
+            fitLine = null;
+        }
+        fitTitle.setText("");
+    }
+
+    /**
+     * Points out a spot on the curve, replacing any earlier marker with the same key
+     * @param key what is being marked, such as "yield"
+     * @param x strain of the spot
+     * @param y stress of the spot
+     * @param label text shown next to the arrow
+     */
+    public void showMarker(String key, double x, double y, String label){
+        XYPointerAnnotation marker = markers.get(key);
+        if(marker != null && marker.getX() == x && marker.getY() == y && marker.getText().equals(label)){
+            return;
+        }
+        if(marker != null){
+            chart.getXYPlot().removeAnnotation(marker);
+        }
+        marker = new XYPointerAnnotation(label, x, y, Math.PI * 0.75);
+        marker.setTipRadius(2.0);
+        marker.setBaseRadius(40.0);
+        marker.setArrowPaint(Color.DARK_GRAY);
+        markers.put(key, marker);
+        chart.getXYPlot().addAnnotation(marker);
+    }
+
+    /**
+     * Removes every marker from the curve
+     */
+    public void clearMarkers(){
+        for(XYPointerAnnotation marker : markers.values()){
+            chart.getXYPlot().removeAnnotation(marker);
+        }
+        markers.clear();
+    }
+
+    /**
+     * Opens the window with the pipeline latencies
+     */
+    public void showDiagnostics(){
+        if(diagnosticsDialog == null){
+            diagnosticsDialog = new JDialog(this, "Diagnostics");
+            diagnosticsDialog.add(latencyPanel);
+            diagnosticsDialog.pack();
+            diagnosticsDialog.setLocationRelativeTo(this);
+        }
+        diagnosticsDialog.setVisible(true);
+    }
+
+    public boolean isDiagnosticsShowing(){
+        return diagnosticsDialog != null && diagnosticsDialog.isVisible();
+    }
+
+    public JMenuItem getDiagnostics() {
+        return diagnostics;
+    }
+
+    public LatencyPanel getLatencyPanel() {
+        return latencyPanel;
+    }
+
+    public StatisticsPanel getStatisticsPanel() {
+        return statisticsPanel;
+    }
+
+    public AcquisitionPanel getAcquisitionPanel() {
+        return acquisitionPanel;
     }
 
     public JButton getInputButton(){
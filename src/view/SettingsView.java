@@ -7,6 +7,7 @@ import java.util.NoSuchElementException;
 import java.util.Scanner;
 import javax.swing.SpringLayout;
 import controller.Calculations.Units;
+import controller.FilterType;
 import model.AITask;
 
 /**
@@ -34,6 +35,10 @@ public class SettingsView extends JFrame{
     private final Integer [] CHANNEL_OPTIONS = {0,1,2,3,4,5,6,7};  //Starts with maximum number of channels
     private JTextField forceVoltage2UnitConstant;
     private JTextField elongationVoltage2UnitConstant;
+    private JComboBox<FilterType> forceFilterComboBox;
+    private JComboBox<FilterType> elongationFilterComboBox;
+    private JTextField forceFilterWindow;
+    private JTextField elongationFilterWindow;
 
     public SettingsView (Scanner userInput) {
         setTitle("Settings");
@@ -112,6 +117,27 @@ public class SettingsView extends JFrame{
             }
         }
 
+        //filter lines were added to the file later, so they get their own defaults
+        boolean filtersRead = false;
+        if(readSucceeded){
+            try{
+                forceFilterComboBox.setSelectedItem(FilterType.parse(input.next()));
+                forceFilterWindow.setText(String.valueOf(input.nextDouble()));
+                elongationFilterComboBox.setSelectedItem(FilterType.parse(input.next()));
+                elongationFilterWindow.setText(String.valueOf(input.nextDouble()));
+                filtersRead = true;
+            }
+            catch( NoSuchElementException | IllegalStateException e) {
+                //do nothing
+            }
+        }
+        if(!filtersRead){
+            forceFilterComboBox.setSelectedItem(FilterType.DEFAULT);
+            forceFilterWindow.setText(String.valueOf(FilterType.DEFAULT_WINDOW_MILLIS));
+            elongationFilterComboBox.setSelectedItem(FilterType.DEFAULT);
+            elongationFilterWindow.setText(String.valueOf(FilterType.DEFAULT_WINDOW_MILLIS));
+        }
+
         if(!readSucceeded){ //if no values input default values show
             gaugeLengthLabel.setText("Gauge Length (in):");
             gaugeLengthField = new JTextField("0.5");
@@ -161,6 +187,10 @@ public class SettingsView extends JFrame{
         JLabel channelLabel2 = new JLabel("Channel: ");
         JLabel voltageConstantLabel = new JLabel("Voltage to Units Constant: ");
         JLabel voltageConstantLabel2 = new JLabel("Voltage to Units Constant: ");
+        JLabel filterLabel = new JLabel("Filter: ");
+        JLabel filterLabel2 = new JLabel("Filter: ");
+        JLabel filterWindowLabel = new JLabel("Filter Window (ms): ");
+        JLabel filterWindowLabel2 = new JLabel("Filter Window (ms): ");
 
         forceModeComboBox = new JComboBox<>(MODE_OPTIONS);
         elongationModeComboBox = new JComboBox<>(MODE_OPTIONS);
@@ -168,6 +198,12 @@ public class SettingsView extends JFrame{
         elongationChannelComboBox = new JComboBox<>(CHANNEL_OPTIONS);
         forceVoltage2UnitConstant = new JTextField();
         elongationVoltage2UnitConstant = new JTextField();
+        forceFilterComboBox = new JComboBox<>(FilterType.values());
+        elongationFilterComboBox = new JComboBox<>(FilterType.values());
+        forceFilterWindow = new JTextField();
+        elongationFilterWindow = new JTextField();
+        forceFilterWindow.setToolTipText("How much of the signal the filter smooths over, the time constant for IIR");
+        elongationFilterWindow.setToolTipText("How much of the signal the filter smooths over, the time constant for IIR");
 
         //Force Machine Settings
         forceMachineSettings.add(modeLabel);
@@ -182,7 +218,15 @@ public class SettingsView extends JFrame{
         voltageConstantLabel.setLabelFor(forceVoltage2UnitConstant);
         forceMachineSettings.add(forceVoltage2UnitConstant);
 
-        SpringUtilities.makeCompactGrid(forceMachineSettings,3,2, HORIZONTAL_BUFFER, VERTICAL_BUFFER, HORIZONTAL_BUFFER, VERTICAL_BUFFER);
+        forceMachineSettings.add(filterLabel);
+        filterLabel.setLabelFor(forceFilterComboBox);
+        forceMachineSettings.add(forceFilterComboBox);
+
+        forceMachineSettings.add(filterWindowLabel);
+        filterWindowLabel.setLabelFor(forceFilterWindow);
+        forceMachineSettings.add(forceFilterWindow);
+
+        SpringUtilities.makeCompactGrid(forceMachineSettings,5,2, HORIZONTAL_BUFFER, VERTICAL_BUFFER, HORIZONTAL_BUFFER, VERTICAL_BUFFER);
 
 
         //Elongation Machine Settings
@@ -197,7 +241,15 @@ public class SettingsView extends JFrame{
         elongationMachineSettings.add(voltageConstantLabel2);
         voltageConstantLabel2.setLabelFor(elongationVoltage2UnitConstant);
         elongationMachineSettings.add(elongationVoltage2UnitConstant);
-        SpringUtilities.makeCompactGrid(elongationMachineSettings,3,2, HORIZONTAL_BUFFER, VERTICAL_BUFFER, HORIZONTAL_BUFFER, VERTICAL_BUFFER);
+
+        elongationMachineSettings.add(filterLabel2);
+        filterLabel2.setLabelFor(elongationFilterComboBox);
+        elongationMachineSettings.add(elongationFilterComboBox);
+
+        elongationMachineSettings.add(filterWindowLabel2);
+        filterWindowLabel2.setLabelFor(elongationFilterWindow);
+        elongationMachineSettings.add(elongationFilterWindow);
+        SpringUtilities.makeCompactGrid(elongationMachineSettings,5,2, HORIZONTAL_BUFFER, VERTICAL_BUFFER, HORIZONTAL_BUFFER, VERTICAL_BUFFER);
 
         forceMachineSettings.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createTitledBorder("Force Machine Settings"), BorderFactory.createEmptyBorder(VERTICAL_BUFFER,HORIZONTAL_BUFFER,VERTICAL_BUFFER,HORIZONTAL_BUFFER)));
         elongationMachineSettings.setBorder(BorderFactory.createCompoundBorder(BorderFactory.createTitledBorder("Elongation Machine Settings"), BorderFactory.createEmptyBorder(VERTICAL_BUFFER,HORIZONTAL_BUFFER,VERTICAL_BUFFER,HORIZONTAL_BUFFER)));
@@ -279,4 +331,20 @@ public class SettingsView extends JFrame{
     public int getElongationChannel(){
         return (int) elongationChannelComboBox.getSelectedItem();
     }
+
+    public JComboBox<FilterType> getForceFilterComboBox() { return forceFilterComboBox; }
+
+    public JComboBox<FilterType> getElongationFilterComboBox() { return elongationFilterComboBox; }
+
+    public JTextField getForceFilterWindowField() { return forceFilterWindow; }
+
+    public JTextField getElongationFilterWindowField() { return elongationFilterWindow; }
+
+    public FilterType getForceFilter() { return (FilterType) forceFilterComboBox.getSelectedItem(); }
+
+    public FilterType getElongationFilter() { return (FilterType) elongationFilterComboBox.getSelectedItem(); }
+
+    public double getForceFilterMillis() { return Double.parseDouble(forceFilterWindow.getText().trim()); }
+
+    public double getElongationFilterMillis() { return Double.parseDouble(elongationFilterWindow.getText().trim()); }
 }
@@ -0,0 +1,56 @@
+package view;
+
+import model.ChannelStatistics;
+import model.StreamingStatistics;
+import javax.swing.*;
+
+/**
+ * Shows the live noise of each channel: the mean, standard deviation and peak to peak of the
+ * rolling window, and the standard deviation of the whole run
+ */
+public class StatisticsPanel extends JPanel {
+    private final String[] names;
+    private final JLabel[] labels;
+    //reused for every update
+    private final StreamingStatistics run = new StreamingStatistics();
+    private final StreamingStatistics window = new StreamingStatistics();
+
+    /**
+     * @param names channel names in task order
+     */
+    public StatisticsPanel(String... names){
+        this.names = names.clone();
+        labels = new JLabel[names.length];
+        setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+        for(int i = 0; i < names.length; i++){
+            labels[i] = new JLabel();
+            labels[i].setToolTipText("Rolling one second statistics of the raw " + names[i].toLowerCase() + " channel voltage");
+            add(labels[i]);
+        }
+        clear();
+    }
+
+    /**
+     * Shows the current statistics, must be called on the event dispatch thread
+     */
+    public void update(ChannelStatistics statistics){
+        for(int i = 0; i < labels.length && i < statistics.getChannelCount(); i++){
+            statistics.snapshot(i, run, window);
+            if(window.getCount() < 2){
+                labels[i].setText(names[i] + ": no samples");
+                continue;
+            }
+            labels[i].setText(String.format("%s: mean %.5f V   \u03c3 %.3f mV   p-p %.3f mV   run \u03c3 %.3f mV", names[i],
+                    window.getMean(), window.getStandardDeviation() * 1000, window.getPeakToPeak() * 1000, run.getStandardDeviation() * 1000));
+        }
+    }
+
+    /**
+     * Shows that there are no statistics yet
+     */
+    public void clear(){
+        for(int i = 0; i < labels.length; i++){
+            labels[i].setText(names[i] + ": no samples");
+        }
+    }
+}
@@ -148,4 +148,49 @@ class CalculationsTest {
     void calculateAreaCircle() {
         assertEquals(Math.PI * 3.254 * 3.254, Calculations.calculateArea(6.508), DELTA);
     }//added delta
-}
\ No newline at end of file
+
+    @Test
+    void convertBlockMatchesScalar(){
+        double[] src = {1.0, 74.6, 3.0, 70.7, 0.0};
+        double[] dst = new double[src.length];
+        for(Units from : Units.values()){
+            for(Units to : Units.values()){
+                Calculations.convertLength(from, to, src, dst, 0, src.length);
+                for(int i = 0; i < src.length; i++){
+                    assertEquals(Calculations.convertLength(from, to, src[i]), dst[i], 1e-12);
+                }
+                Calculations.convertForce(from, to, src, dst, 0, src.length);
+                for(int i = 0; i < src.length; i++){
+                    assertEquals(Calculations.convertForce(from, to, src[i]), dst[i], 1e-12);
+                }
+                Calculations.convertPressure(from, to, src, dst, 0, src.length);
+                for(int i = 0; i < src.length; i++){
+                    assertEquals(Calculations.convertPressure(from, to, src[i]), dst[i], 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    void stressAndStrainBlockOnlyTouchTheRange(){
+        double[] values = {10.0, 20.0, 30.0, 40.0};
+        Calculations.calculateStress(values, values, 1, 2, 4.0);
+        assertArrayEquals(new double[]{10.0, 5.0, 7.5, 40.0}, values, DELTA);
+        Calculations.calculateStrain(values, values, 0, 1, 2.0);
+        assertEquals(5.0, values[0], DELTA);
+    }
+
+    @Test
+    void offsetAndScaleBlock(){
+        double[] src = {1.5, 2.5};
+        double[] dst = new double[2];
+        Calculations.offsetAndScale(src, dst, 0, 2, 0.5, 3.0);
+        assertArrayEquals(new double[]{3.0, 6.0}, dst, DELTA);
+    }
+
+    @Test
+    void blockOutsideTheArrays(){
+        double[] values = new double[4];
+        assertThrows(IndexOutOfBoundsException.class, () -> Calculations.calculateStress(values, values, 2, 3, 1.0));
+    }
+}
@@ -0,0 +1,43 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+import controller.Calculations.Units;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelTransformTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void stressMatchesTheStepByStepConversion(){
+        double volts = 3.7, zero = 0.02, lbsPerVolt = 1000.0, area = 0.125;
+        double pounds = lbsPerVolt * (volts - zero);
+
+        ChannelTransform english = ChannelTransform.stress(zero, lbsPerVolt, false, area);
+        assertEquals(Calculations.calculateStress(pounds / 1000, area), english.apply(volts), DELTA);
+
+        ChannelTransform metric = ChannelTransform.stress(zero, lbsPerVolt, true, area * 645.16);
+        double newtons = Calculations.convertForce(Units.ENGLISH, Units.METRIC, pounds);
+        assertEquals(Calculations.calculateStress(newtons, area * 645.16), metric.apply(volts), DELTA);
+    }
+
+    @Test
+    void strainMatchesTheStepByStepConversion(){
+        double volts = -1.2, zero = 0.3, inchesPerVolt = 0.1, gaugeLength = 50.8;
+        double inches = inchesPerVolt * (volts - zero);
+
+        ChannelTransform metric = ChannelTransform.strain(zero, inchesPerVolt, true, gaugeLength);
+        double mm = Calculations.convertLength(Units.ENGLISH, Units.METRIC, inches);
+        assertEquals(Calculations.calculateStrain(mm, gaugeLength), metric.apply(volts), DELTA);
+    }
+
+    @Test
+    void blockMatchesSingleValues(){
+        ChannelTransform transform = new ChannelTransform(0.5, 4.0);
+        double[] values = {0.5, 1.0, 2.5};
+        transform.apply(values, values, 0, values.length);
+        assertArrayEquals(new double[]{0.0, 2.0, 8.0}, values, DELTA);
+        assertEquals(8.0, transform.apply(2.5), DELTA);
+    }
+}
@@ -0,0 +1,38 @@
+package controller;
+
+import model.SampleStore;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecorderTest {
+
+    @Test
+    void recordingMatchesRowsWrittenFromTheStore() throws Exception{
+        File file = File.createTempFile("recorder", ".csv");
+        file.deleteOnExit();
+        SampleStore store = new SampleStore();
+        try(CsvRecorder recorder = new CsvRecorder(file)){
+            for(int i = 0; i < 20000; i++){
+                double strain = i * 1e-5;
+                double stress = Math.sqrt(i) - 3.0;
+                store.append(i, 0, 0, stress, strain);
+                recorder.append(i, 0, 0, stress, strain);
+            }
+
+            ByteArrayOutputStream copied = new ByteArrayOutputStream();
+            recorder.copyTo(copied);
+            ByteArrayOutputStream written = new ByteArrayOutputStream();
+            CsvRecorder.writeRows(store.view(), written);
+            assertEquals(written.toString(StandardCharsets.US_ASCII.name()), copied.toString(StandardCharsets.US_ASCII.name()));
+        }
+
+        String[] lines = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII).split("\n");
+        assertEquals(20001, lines.length);
+        assertEquals("0.000090,0.000000", lines[10]);
+    }
+}
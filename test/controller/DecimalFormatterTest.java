@@ -0,0 +1,45 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecimalFormatterTest {
+
+    private static String format(double value, int decimals){
+        byte[] buffer = new byte[400];
+        int end = DecimalFormatter.format(value, decimals, buffer, 0);
+        return new String(buffer, 0, end, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void matchesFormatterForRandomValues(){
+        Random random = new Random(4100);
+        for(int i = 0; i < 100000; i++){
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(14) - 6);
+            assertEquals(String.format(Locale.ROOT, "%.6f", value), format(value, 6), "value " + value);
+        }
+    }
+
+    @Test
+    void handlesSpecialValues(){
+        assertEquals("0.000000", format(0.0, 6));
+        assertEquals("-0.000000", format(-0.0000001, 6));
+        assertEquals("1.000000", format(0.9999999, 6));
+        assertEquals("12", format(12.4, 0));
+        assertEquals("1000000000.000", format(1e9, 3));
+        assertEquals("NaN", format(Double.NaN, 6));
+        assertEquals("-Infinity", format(Double.NEGATIVE_INFINITY, 6));
+    }
+
+    @Test
+    void writesAtOffset(){
+        byte[] buffer = {'x', 'x', 'x', 'x', 'x', 'x', 'x'};
+        int end = DecimalFormatter.format(-1.25, 2, buffer, 1);
+        assertEquals(6, end);
+        assertEquals("x-1.25x", new String(buffer, StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,65 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FractureDetectorTest {
+
+    /*
+     * Rises to 60, necks slowly down to 45 and then breaks to nearly nothing over three points
+     */
+    private static double stress(int point){
+        if(point < 300){
+            return point * 0.2;
+        }
+        if(point < 600){
+            return 60.0 - (point - 300) * 0.05;
+        }
+        return Math.max(2.0, 45.0 - (point - 600) * 15.0);
+    }
+
+    @Test
+    void findsTheBreakButNotTheNecking(){
+        FractureDetector detector = new FractureDetector(FractureDetector.DEFAULT_DROP_FRACTION, FractureDetector.DEFAULT_WINDOW_POINTS);
+        int brokeAt = -1;
+        for(int i = 0; i < 700 && brokeAt < 0; i++){
+            if(detector.add(i, i * 0.05, i * 0.001, stress(i), true)){
+                brokeAt = i;
+            }
+        }
+        //the fall passes 0.4 * 60 = 24 below the level before the break two points into it
+        assertEquals(602, brokeAt);
+        assertEquals(60.0, detector.getUltimate().getStress(), 1e-9);
+        assertEquals(300, detector.getUltimate().getPoint());
+        assertEquals(602, detector.getFracture().getPoint());
+        assertFalse(detector.add(703, 0, 0, 0, true), "a run only breaks once");
+    }
+
+    @Test
+    void waitsUntilArmed(){
+        FractureDetector detector = new FractureDetector(0.5, 5);
+        detector.add(0, 0, 0, 10.0, false);
+        assertFalse(detector.add(1, 0, 0, 0.0, false));
+        assertNull(detector.getFracture());
+        assertEquals(10.0, detector.getUltimate().getStress());
+
+        detector.scaleStress(2.0);
+        assertEquals(20.0, detector.getUltimate().getStress());
+        assertTrue(detector.add(2, 0, 0, 0.0, true));
+
+        detector.reset();
+        assertNull(detector.getUltimate());
+        assertNull(detector.getFracture());
+    }
+
+    @Test
+    void slowDropOutsideTheWindowIsNotAFracture(){
+        FractureDetector detector = new FractureDetector(0.5, 5);
+        double stress = 100.0;
+        for(int i = 0; i < 100; i++){
+            assertFalse(detector.add(i, 0, 0, stress, true), "fracture reported at point " + i);
+            stress -= 9.0; //45 over the window, under half of the ultimate
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModulusEstimatorTest {
+
+    @Test
+    void findsTheElasticSlopeOfACurve(){
+        //steel like: 29000 ksi up to a 40 ksi yield
+        double modulus = 29000.0;
+        double yieldStrain = 40.0 / modulus;
+        ModulusEstimator estimator = new ModulusEstimator(ModulusEstimator.DEFAULT_WINDOW_POINTS);
+        Random random = new Random(9);
+        for(int i = 0; i < 100; i++){
+            estimator.add(0.0, random.nextGaussian() * 0.05); //sitting still before the test
+        }
+        assertNull(estimator.getEstimate());
+
+        for(int i = 0; i <= 2000; i++){
+            double strain = i * 0.12 / 2000;
+            double stress = strain < yieldStrain ? modulus * strain : 40.0 + 500.0 * (strain - yieldStrain);
+            estimator.add(strain, stress + random.nextGaussian() * 0.05);
+        }
+        ModulusEstimator.Estimate estimate = estimator.getEstimate();
+        assertNotNull(estimate);
+        assertEquals(modulus, estimate.getModulus(), modulus * 0.01);
+        assertTrue(estimate.getToStrain() <= yieldStrain * 1.1);
+
+        estimator.scaleStress(Calculations.convertPressure(Calculations.Units.ENGLISH, Calculations.Units.METRIC, 1.0));
+        assertEquals(200000.0, estimator.getEstimate().getModulus(), 3000.0);
+
+        estimator.reset();
+        assertNull(estimator.getEstimate());
+    }
+}
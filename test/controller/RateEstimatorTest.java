@@ -0,0 +1,54 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateEstimatorTest {
+
+    @Test
+    void ratesOfAQuadraticAreItsSlopeAtTheMiddleOfTheWindow(){
+        int window = RateEstimator.DEFAULT_WINDOW_POINTS;
+        RateEstimator rates = new RateEstimator(window);
+        double dt = 0.05;
+        for(int i = 0; i < 200; i++){
+            double time = i * dt + (i >= 150 ? 0.3 : 0.0); //points lost on the way leave a gap in time
+            rates.add(time, 0.0002 * time, 3.0 * time * time);
+            if(i < window - 1){
+                assertTrue(Double.isNaN(rates.getStrainRate()));
+            }
+        }
+        //a least squares line through a parabola has the parabola's slope at the mean time of the window
+        double meanTime = 0.0;
+        for(int i = 200 - window; i < 200; i++){
+            meanTime += i * dt + 0.3;
+        }
+        meanTime /= window;
+        assertEquals(0.0002, rates.getStrainRate(), 1e-12);
+        assertEquals(6.0 * meanTime, rates.getStressRate(), 1e-6);
+
+        rates.scaleStress(2.0);
+        assertEquals(12.0 * meanTime, rates.getStressRate(), 1e-6);
+        rates.reset();
+        assertTrue(Double.isNaN(rates.getStressRate()));
+    }
+
+    @Test
+    void monitorNeedsARunOfPointsToChangeState(){
+        RateMonitor monitor = new RateMonitor(1.0, 2.0, 3);
+        assertFalse(monitor.check(5.0, false), "not armed");
+        assertFalse(monitor.check(5.0, true));
+        assertFalse(monitor.check(1.5, true)); //back in band restarts the count
+        assertFalse(monitor.check(5.0, true));
+        assertFalse(monitor.check(0.5, true));
+        assertTrue(monitor.check(5.0, true));
+        assertTrue(monitor.isOutOfBand());
+        assertFalse(monitor.check(Double.NaN, true));
+
+        monitor.check(1.5, true);
+        monitor.check(1.5, true);
+        assertTrue(monitor.check(1.5, true));
+        assertFalse(monitor.isOutOfBand());
+        assertEquals(3, monitor.getOutOfBandPoints());
+    }
+}
@@ -0,0 +1,196 @@
+package controller;
+
+import model.AITask;
+import model.RunFileReader;
+import model.RunFileWriter;
+import model.RunHeader;
+import model.SampleStore;
+import model.SampleStore.Column;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunReplayTest {
+
+    private static final int POINTS = 2000;
+    private static final int SAMPLES_PER_POINT = AITask.SAMPLES_PER_SECOND / AITask.BLOCKS_PER_SECOND;
+
+    private static RunHeader header(){
+        RunHeader header = new RunHeader();
+        header.setSampleRate(AITask.SAMPLES_PER_SECOND);
+        header.setForceUnitsPerVolt(1000);
+        header.setForceZeroVolts(0.05);
+        header.setElongationUnitsPerVolt(0.1);
+        header.setElongationZeroVolts(-0.02);
+        header.setUnitSystem("English");
+        header.setGaugeLength(2.0);
+        header.setRectangular(true);
+        header.setWidth(0.5);
+        header.setDepth(0.25);
+        return header;
+    }
+
+    @Test
+    void replayReproducesTheRecordedRun() throws Exception{
+        RunHeader header = header();
+
+        //record a run the way GraphUpdater would have processed it
+        PointProcessor live = new PointProcessor(header.getForceUnitsPerVolt(), header.getElongationUnitsPerVolt());
+        live.setZeros(header.getForceZeroVolts(), header.getElongationZeroVolts());
+        live.setSpecimen("English", Calculations.calculateArea(0.5, 0.25), 2.0);
+        File file = File.createTempFile("replay", ".run");
+        file.deleteOnExit();
+        SampleStore recorded = new SampleStore();
+        double[][] chunk = new double[2][SAMPLES_PER_POINT];
+        try(RunFileWriter writer = new RunFileWriter(file, header)){
+            for(int i = 0; i < POINTS; i++){
+                double force = 5.0 * Math.sin(i / 300.0) + 0.05;
+                double length = i / 250.0;
+                //a run without raw samples replays each point as a block of identical samples
+                Arrays.fill(chunk[AITask.FORCE_CHANNEL], force);
+                Arrays.fill(chunk[AITask.LENGTH_CHANNEL], length);
+                live.process(chunk[AITask.FORCE_CHANNEL], chunk[AITask.LENGTH_CHANNEL], SAMPLES_PER_POINT);
+                double time = i * 0.05;
+                writer.append(time, force, length, live.getStress(), live.getStrain());
+                recorded.append(time, force, length, live.getStress(), live.getStrain());
+            }
+        }
+
+        SampleStore replayed = new SampleStore();
+        new RunReplay(RunFileReader.open(file)).replay(replayed);
+
+        assertEquals(POINTS, replayed.size());
+        for(int i = 0; i < POINTS; i++){
+            assertEquals(recorded.get(Column.TIME, i), replayed.get(Column.TIME, i), 1e-12);
+            assertEquals(recorded.get(Column.STRESS, i), replayed.get(Column.STRESS, i), 1e-9);
+            assertEquals(recorded.get(Column.STRAIN, i), replayed.get(Column.STRAIN, i), 1e-9);
+        }
+    }
+
+    @Test
+    void recomputeFromRawSamples() throws Exception{
+        RunHeader header = header();
+        PointProcessor live = PointProcessor.fromHeader(header);
+        File file = File.createTempFile("recompute", ".run");
+        file.deleteOnExit();
+        SampleStore recorded = new SampleStore();
+        double[][] chunk = new double[2][SAMPLES_PER_POINT];
+        try(RunFileWriter writer = new RunFileWriter(file, header)){
+            for(int p = 0; p < POINTS; p++){
+                for(int i = 0; i < SAMPLES_PER_POINT; i++){
+                    long sample = (long) p * SAMPLES_PER_POINT + i;
+                    chunk[AITask.FORCE_CHANNEL][i] = 5.0 * Math.sin(sample / 150000.0) + ((i & 1) == 0 ? 0.01 : -0.01);
+                    chunk[AITask.LENGTH_CHANNEL][i] = sample / 125000.0;
+                }
+                live.process(chunk[AITask.FORCE_CHANNEL], chunk[AITask.LENGTH_CHANNEL], SAMPLES_PER_POINT);
+                double force = live.getForceVolts();
+                double length = live.getElongationVolts();
+                double time = (double) p * SAMPLES_PER_POINT / AITask.SAMPLES_PER_SECOND;
+                writer.appendSamples(chunk, SAMPLES_PER_POINT, (long) p * SAMPLES_PER_POINT);
+                writer.append(time, force, length, live.getStress(), live.getStrain());
+                recorded.append(time, force, length, live.getStress(), live.getStrain());
+            }
+        }
+        RunFileReader run = RunFileReader.open(file);
+
+        SampleStore same = new SampleStore();
+        PointProcessor.fromHeader(run.getHeader()).recompute(run, same);
+        assertEquals(POINTS, same.size());
+        for(int i = 0; i < POINTS; i++){
+            assertEquals(recorded.get(Column.TIME, i), same.get(Column.TIME, i), 1e-12);
+            //raw samples are stored as floats
+            assertEquals(recorded.get(Column.STRESS, i), same.get(Column.STRESS, i), 1e-3);
+            assertEquals(recorded.get(Column.STRAIN, i), same.get(Column.STRAIN, i), 1e-6);
+        }
+
+        //a force constant that was off by a factor of two
+        PointProcessor corrected = PointProcessor.fromHeader(run.getHeader());
+        corrected.setUnitsPerVolt(2 * header.getForceUnitsPerVolt(), header.getElongationUnitsPerVolt());
+        SampleStore fixed = new SampleStore();
+        corrected.recompute(run, fixed);
+        for(int i = 0; i < POINTS; i += 10){
+            assertEquals(2 * same.get(Column.STRESS, i), fixed.get(Column.STRESS, i), 1e-9);
+            assertEquals(same.get(Column.STRAIN, i), fixed.get(Column.STRAIN, i), 0.0);
+        }
+
+        //the filter the run was recorded with is stored in the header and can be swapped for another
+        PointProcessor median = PointProcessor.fromHeader(run.getHeader());
+        median.setFilters(FilterType.MEDIAN.create(50, AITask.SAMPLES_PER_SECOND), FilterType.MEDIAN.create(50, AITask.SAMPLES_PER_SECOND));
+        SampleStore refiltered = new SampleStore();
+        median.recompute(run, refiltered);
+        assertEquals(POINTS, refiltered.size());
+        assertEquals(same.get(Column.STRAIN, POINTS - 1), refiltered.get(Column.STRAIN, POINTS - 1), 1e-3);
+    }
+
+    @Test
+    void recordedSettingsReplaceTheCurrentOnes(){
+        RunHeader header = header();
+        header.setForceFilter(FilterType.MEDIAN.name());
+        header.setForceFilterMillis(20);
+        PointProcessor recorded = PointProcessor.fromHeader(header);
+
+        //a replaying GraphUpdater starts from the settings window and then takes the recorded ones
+        PointProcessor replaying = new PointProcessor(1, 1);
+        replaying.setFilters(FilterType.MEDIAN.create(50, AITask.SAMPLES_PER_SECOND), FilterType.MEDIAN.create(50, AITask.SAMPLES_PER_SECOND));
+        replaying.setSpecimen("Metric", Calculations.calculateArea(3.0), 10.0);
+        replaying.setZeros(header.getForceZeroVolts(), header.getElongationZeroVolts());
+        replaying.setRecordedSettings(header);
+
+        double[][] chunk = new double[2][SAMPLES_PER_POINT];
+        for(int p = 0; p < 50; p++){
+            for(int i = 0; i < SAMPLES_PER_POINT; i++){
+                chunk[AITask.FORCE_CHANNEL][i] = Math.sin((p * SAMPLES_PER_POINT + i) / 500.0) + ((i & 1) == 0 ? 0.2 : -0.2);
+                chunk[AITask.LENGTH_CHANNEL][i] = p / 100.0;
+            }
+            recorded.process(chunk[AITask.FORCE_CHANNEL], chunk[AITask.LENGTH_CHANNEL], SAMPLES_PER_POINT);
+            replaying.process(chunk[AITask.FORCE_CHANNEL], chunk[AITask.LENGTH_CHANNEL], SAMPLES_PER_POINT);
+            assertEquals(recorded.getStress(), replaying.getStress(), 0.0);
+            assertEquals(recorded.getStrain(), replaying.getStrain(), 0.0);
+        }
+    }
+
+    @Test
+    void replayAndRecomputeSkipSamplesLostWhileRecording() throws Exception{
+        RunHeader header = header();
+        PointProcessor live = PointProcessor.fromHeader(header);
+        File file = File.createTempFile("gap", ".run");
+        file.deleteOnExit();
+        SampleStore recorded = new SampleStore();
+        double[][] chunk = new double[2][SAMPLES_PER_POINT];
+        try(RunFileWriter writer = new RunFileWriter(file, header)){
+            for(int p = 0; p < POINTS; p++){
+                if(p >= 50 && p < 55){
+                    //a driver overrun, these samples never reached the processing
+                    continue;
+                }
+                for(int i = 0; i < SAMPLES_PER_POINT; i++){
+                    long sample = (long) p * SAMPLES_PER_POINT + i;
+                    chunk[AITask.FORCE_CHANNEL][i] = 5.0 * Math.sin(sample / 150000.0);
+                    chunk[AITask.LENGTH_CHANNEL][i] = sample / 125000.0;
+                }
+                live.process(chunk[AITask.FORCE_CHANNEL], chunk[AITask.LENGTH_CHANNEL], SAMPLES_PER_POINT);
+                double time = (double) p * SAMPLES_PER_POINT / AITask.SAMPLES_PER_SECOND;
+                writer.appendSamples(chunk, SAMPLES_PER_POINT, (long) p * SAMPLES_PER_POINT);
+                writer.append(time, live.getForceVolts(), live.getElongationVolts(), live.getStress(), live.getStrain());
+                recorded.append(time, live.getForceVolts(), live.getElongationVolts(), live.getStress(), live.getStrain());
+            }
+        }
+        RunFileReader run = RunFileReader.open(file);
+
+        SampleStore recomputed = new SampleStore();
+        PointProcessor.fromHeader(run.getHeader()).recompute(run, recomputed);
+        SampleStore replayed = new SampleStore();
+        new RunReplay(run).replay(replayed);
+
+        assertEquals(recorded.size(), recomputed.size());
+        assertEquals(recorded.size(), replayed.size());
+        for(int i = 0; i < recorded.size(); i++){
+            assertEquals(recorded.get(Column.TIME, i), recomputed.get(Column.TIME, i), 1e-12);
+            assertEquals(recorded.get(Column.TIME, i), replayed.get(Column.TIME, i), 1e-12);
+            assertEquals(recorded.get(Column.STRESS, i), recomputed.get(Column.STRESS, i), 1e-3);
+            assertEquals(recorded.get(Column.STRAIN, i), replayed.get(Column.STRAIN, i), 1e-6);
+        }
+    }
+}
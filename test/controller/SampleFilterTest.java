@@ -0,0 +1,112 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+import model.AITask;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleFilterTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static double[] noise(int count, long seed){
+        Random random = new Random(seed);
+        double[] data = new double[count];
+        for(int i = 0; i < count; i++){
+            data[i] = random.nextGaussian();
+        }
+        return data;
+    }
+
+    @Test
+    void movingAverageMatchesDirectAverage(){
+        double[] data = noise(5000, 1);
+        double[] filtered = data.clone();
+        new MovingAverageFilter(37).process(filtered, 0, filtered.length);
+        for(int i = 0; i < data.length; i++){
+            int from = Math.max(0, i - 36);
+            double total = 0.0;
+            for(int j = from; j <= i; j++){
+                total += data[j];
+            }
+            assertEquals(total / (i - from + 1), filtered[i], DELTA);
+        }
+    }
+
+    @Test
+    void medianMatchesSortedWindow(){
+        double[] data = noise(3000, 2);
+        data[1000] = 1e6; //a spike the median should ignore
+        for(int window : new int[]{1, 6, 25}){
+            double[] filtered = data.clone();
+            new MedianFilter(window).process(filtered, 0, filtered.length);
+            for(int i = 0; i < data.length; i++){
+                double[] sorted = Arrays.copyOfRange(data, Math.max(0, i - window + 1), i + 1);
+                Arrays.sort(sorted);
+                int middle = sorted.length / 2;
+                double expected = sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+                assertEquals(expected, filtered[i], 0.0);
+            }
+        }
+    }
+
+    @Test
+    void blockBoundariesDoNotChangeTheOutput(){
+        double[] data = noise(4000, 3);
+        for(FilterType type : FilterType.values()){
+            double[] whole = data.clone();
+            type.create(10, AITask.SAMPLES_PER_SECOND).process(whole, 0, whole.length);
+
+            double[] blocks = data.clone();
+            SampleFilter filter = type.create(10, AITask.SAMPLES_PER_SECOND);
+            for(int from = 0; from < blocks.length; from += 333){
+                filter.process(blocks, from, Math.min(333, blocks.length - from));
+            }
+            assertArrayEquals(whole, blocks, DELTA);
+        }
+    }
+
+    @Test
+    void iirReachesSixtyThreePercentAfterOneTimeConstant(){
+        int rate = 1000;
+        double[] step = new double[rate + 1];
+        Arrays.fill(step, 1, step.length, 1.0);
+        new IirFilter(0.1, rate).process(step, 0, step.length);
+        assertEquals(1.0 - Math.exp(-1.0), step[100], 1e-3);
+    }
+
+    @Test
+    void firPassesDcAndRemovesHighFrequencies(){
+        FirFilter filter = new FirFilter(201);
+        double[] signal = new double[2000];
+        for(int i = 0; i < signal.length; i++){
+            signal[i] = 2.0 + ((i & 1) == 0 ? 1.0 : -1.0); //offset plus the fastest possible wiggle
+        }
+        filter.process(signal, 0, signal.length);
+        for(int i = filter.getTaps(); i < signal.length; i++){
+            assertEquals(2.0, signal[i], 1e-3);
+        }
+    }
+
+    @Test
+    void defaultMatchesTheOldFivePointAverage(){
+        int samplesPerPoint = AITask.SAMPLES_PER_SECOND / AITask.BLOCKS_PER_SECOND;
+        SampleFilter filter = FilterType.DEFAULT.create(FilterType.DEFAULT_WINDOW_MILLIS, AITask.SAMPLES_PER_SECOND);
+        double[] chunk = new double[samplesPerPoint];
+        double[] points = new double[20];
+        for(int p = 0; p < points.length; p++){
+            points[p] = p * p;
+            Arrays.fill(chunk, points[p]);
+            filter.process(chunk, 0, samplesPerPoint);
+
+            int from = Math.max(0, p - AITask.UPDATES_PER_SECOND + 1);
+            double total = 0.0;
+            for(int i = from; i <= p; i++){
+                total += points[i];
+            }
+            assertEquals(total / (p - from + 1), chunk[samplesPerPoint - 1], 1e-6);
+        }
+    }
+}
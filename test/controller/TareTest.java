@@ -0,0 +1,78 @@
+package controller;
+
+import model.AITask;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TareTest {
+
+    private static double[] noisy(int count, double offset, double noise, long seed){
+        Random random = new Random(seed);
+        double[] data = new double[count];
+        for(int i = 0; i < count; i++){
+            data[i] = offset + random.nextGaussian() * noise;
+        }
+        return data;
+    }
+
+    @Test
+    void spikesDoNotMoveTheOffset(){
+        double[] data = noisy(20000, 0.25, 0.002, 6);
+        for(int i = 0; i < data.length; i += 1000){
+            data[i] = 9.0; //pickup from a motor starting
+        }
+        Tare tare = Tare.of(data, data.length);
+        assertTrue(tare.isStable());
+        assertEquals(0.25, tare.getOffset(), 1e-4);
+        assertEquals(0.002, tare.getNoise(), 2e-4);
+        assertEquals(20000, tare.getSamples());
+    }
+
+    @Test
+    void movingSignalIsRejected(){
+        double[] data = noisy(20000, 0.0, 0.002, 7);
+        for(int i = 0; i < data.length; i++){
+            data[i] += i * 1e-6; //20 mV over the window, the specimen is being loaded
+        }
+        Tare tare = Tare.of(data, data.length);
+        assertFalse(tare.isStable());
+        assertTrue(tare.isUsable());
+        assertEquals(0.01, tare.getDrift(), 1e-3);
+    }
+
+    @Test
+    void quietChannelTogglingBetweenTwoCodesIsStable(){
+        //a converter step on the -10 V to 10 V range read single ended, the signal sits on the edge of a code
+        double step = 20.0 / (1 << 13);
+        double[] data = new double[20000];
+        for(int i = 0; i < data.length; i++){
+            boolean upper = i % 10 == 0;
+            if(i >= data.length / 2){
+                upper = !upper;
+            }
+            data[i] = upper ? step : 0.0;
+        }
+        Tare tare = Tare.of(data, data.length, true, AITask.Mode.RSE);
+        assertEquals(step, tare.getDrift(), 1e-12);
+        assertTrue(tare.getDrift() > tare.getNoise());
+        assertTrue(tare.isStable());
+        assertEquals(3 * 20.0 / (1 << 14), Tare.minNoiseVolts(AITask.Mode.DIFFERENTIAL), 1e-12);
+    }
+
+    @Test
+    void tooFewSamplesAreRejected(){
+        assertFalse(Tare.of(new double[]{1.0}, 1).isUsable());
+        assertFalse(Tare.of(new double[0], 0).isUsable());
+        assertFalse(Tare.of(new double[0], 0).isStable());
+    }
+
+    @Test
+    void windowThatTimedOutIsNeverUsable(){
+        double[] data = noisy(20000, 0.25, 0.002, 3);
+        Tare tare = Tare.of(data, 5000, false, AITask.Mode.DEFAULT);
+        assertFalse(tare.isUsable());
+        assertFalse(tare.isStable());
+    }
+}
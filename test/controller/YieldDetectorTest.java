@@ -0,0 +1,38 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YieldDetectorTest {
+
+    @Test
+    void findsTheOffsetCrossingOfABilinearCurve(){
+        double modulus = 29000.0, hardening = 500.0, yieldStress = 40.0;
+        double yieldStrain = yieldStress / modulus;
+        double toe = 0.0005; //slack taken up before the specimen carries load
+        ModulusEstimator estimator = new ModulusEstimator(ModulusEstimator.DEFAULT_WINDOW_POINTS);
+        YieldDetector detector = new YieldDetector();
+
+        for(int i = 0; i <= 4000; i++){
+            double strain = i * 0.05 / 4000;
+            double loaded = strain - toe;
+            double stress = loaded <= 0 ? 0.0 : loaded < yieldStrain ? modulus * loaded : yieldStress + hardening * (loaded - yieldStrain);
+            estimator.add(strain, stress);
+            detector.add(strain, stress, estimator.getEstimate());
+            if(loaded < yieldStrain + YieldDetector.OFFSET_STRAIN * 0.5){
+                assertNull(detector.getYield(), "yield reported too early at strain " + strain);
+            }
+        }
+
+        //modulus * (e - 0.002) = yieldStress + hardening * (e - yieldStrain), e measured from the toe
+        double expectedStrain = (modulus * YieldDetector.OFFSET_STRAIN + yieldStress - hardening * yieldStrain) / (modulus - hardening);
+        YieldDetector.Yield yield = detector.getYield();
+        assertNotNull(yield);
+        assertEquals(expectedStrain + toe, yield.getStrain(), 1e-5);
+        assertEquals(yieldStress + hardening * (expectedStrain - yieldStrain), yield.getStress(), 0.5);
+
+        detector.reset();
+        assertNull(detector.getYield());
+    }
+}
@@ -0,0 +1,74 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AcquisitionMetricsTest {
+
+    private static SampleBlock block(long firstSample, int size){
+        SampleBlock block = new SampleBlock(2, 1000);
+        block.setSize(size);
+        block.stamp(firstSample);
+        return block;
+    }
+
+    @Test
+    void consecutiveReadsLoseNothing(){
+        AcquisitionMetrics metrics = new AcquisitionMetrics();
+        metrics.read(block(0, 500), 200);
+        metrics.read(block(500, 800), 800);
+        metrics.read(block(1300, 500), 0);
+        assertEquals(3, metrics.getReads());
+        assertEquals(1800, metrics.getSamplesRead());
+        assertEquals(500, metrics.getLastReadSize());
+        assertEquals(800, metrics.getMaxReadSize());
+        assertEquals(0, metrics.getLastBacklog());
+        assertEquals(800, metrics.getMaxBacklog());
+        assertFalse(metrics.isLosingSamples());
+    }
+
+    @Test
+    void gapInTheSampleClockIsLost(){
+        AcquisitionMetrics metrics = new AcquisitionMetrics();
+        metrics.read(block(0, 500), 0);
+        metrics.error(AcquisitionMetrics.SAMPLES_NO_LONGER_AVAILABLE);
+        metrics.read(block(20500, 500), 0);
+        assertEquals(20000, metrics.getSamplesLost());
+        assertEquals(1, metrics.getOverruns());
+        assertEquals(1, metrics.getErrors());
+        assertEquals(AcquisitionMetrics.SAMPLES_NO_LONGER_AVAILABLE, metrics.getLastErrorCode());
+        assertTrue(metrics.isLosingSamples());
+    }
+
+    @Test
+    void clockRestartIsNotAGap(){
+        AcquisitionMetrics metrics = new AcquisitionMetrics();
+        metrics.read(block(0, 500), 0);
+        metrics.clockRestarted();
+        metrics.read(block(3000, 500), 0);
+        assertEquals(0, metrics.getSamplesLost());
+    }
+
+    @Test
+    void otherErrorsAreNotOverruns(){
+        AcquisitionMetrics metrics = new AcquisitionMetrics();
+        metrics.error(-200284);
+        assertEquals(1, metrics.getErrors());
+        assertEquals(0, metrics.getOverruns());
+        assertFalse(metrics.isLosingSamples());
+    }
+
+    @Test
+    void resetForgetsEverything(){
+        AcquisitionMetrics metrics = new AcquisitionMetrics();
+        metrics.read(block(0, 500), 100);
+        metrics.dropped(250);
+        assertTrue(metrics.isLosingSamples());
+        metrics.reset();
+        assertEquals(0, metrics.getReads());
+        assertEquals(0, metrics.getSamplesDropped());
+        assertEquals(0, metrics.getMaxBacklog());
+        assertFalse(metrics.isLosingSamples());
+    }
+}
@@ -0,0 +1,52 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsKeepThreePercentPrecision(){
+        for(long value : new long[]{0, 1, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE / 3}){
+            long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(value));
+            assertTrue(highest >= value, "bucket of " + value + " ends below it");
+            assertTrue(highest - value <= value / 32, "bucket of " + value + " is too wide");
+        }
+    }
+
+    @Test
+    void percentilesOfAUniformSpread(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(long i = 1; i <= 10000; i++){
+            histogram.record(i * 1000);
+        }
+        assertEquals(10000, histogram.getCount());
+        assertEquals(5000000, histogram.getValueAtPercentile(50), 5000000 / 32.0);
+        assertEquals(9900000, histogram.getValueAtPercentile(99), 9900000 / 32.0);
+        assertEquals(10000000, histogram.getMax());
+        assertEquals(10000000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void outlierOnlyShowsInTheTail(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 0; i < 999; i++){
+            histogram.record(100);
+        }
+        histogram.record(50000000);
+        assertTrue(histogram.getValueAtPercentile(99) <= 103);
+        assertEquals(50000000, histogram.getMax());
+    }
+
+    @Test
+    void resetForgetsEverything(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(700);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,107 @@
+package model;
+
+import com.sun.jna.Memory;
+import com.sun.jna.Pointer;
+import kirkwood.nidaq.access.NiDaq;
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the steady state read path does not create garbage.
+ * The build machines have no NI-DAQmx driver, so the NI task runs its real read path against a NiDaq
+ * whose driver calls only write the samples, the count and the read position into the native memory
+ * they are given. The cost of the driver itself can only be measured on NI hardware.
+ */
+class ReadAllocationTest {
+
+    private static final int WARMUP_READS = 20000;
+    private static final int MEASURED_READS = 20000;
+    private static final long ALLOWED_BYTES = 1024; //the measuring itself, not the reads
+
+    private static long allocatedBytes(){
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /*
+     * Stands in for the driver: a block of samples is always available and every read returns it
+     */
+    private static class DriverStub extends NiDaq {
+        private final double[] samples = new double[2 * AITask.INPUT_BUFFER_SIZE];
+        private long position;
+
+        @Override
+        protected int directReadAnalogF64(Pointer taskHandle, int numSampsPerChan, double timeout, int fillMode, Pointer readArray,
+                                          int arraySizeInSamps, Pointer sampsPerChanRead){
+            readArray.write(0, samples, 0, arraySizeInSamps);
+            sampsPerChanRead.setInt(0, numSampsPerChan);
+            position += numSampsPerChan;
+            return 0;
+        }
+
+        @Override
+        protected int directGetReadAvailSampPerChan(Pointer taskHandle, Pointer data){
+            data.setInt(0, AITask.INPUT_BUFFER_SIZE);
+            return 0;
+        }
+
+        @Override
+        protected int directGetReadCurrReadPos(Pointer taskHandle, Pointer data){
+            data.setLong(0, position);
+            return 0;
+        }
+    }
+
+    @Test
+    void niReadAndHandOffAllocateNothing() throws Exception{
+        DriverStub driver = new DriverStub();
+        NiAITask task = new NiAITask(driver, new Memory(Long.BYTES), 2);
+        SampleRingBuffer ring = new SampleRingBuffer(2, task.getBlock().getCapacity());
+        double[][] dst = new double[2][task.getBlock().getCapacity()];
+
+        for(int i = 0; i < WARMUP_READS; i++){
+            read(task, ring, dst);
+        }
+
+        long before = allocatedBytes();
+        for(int i = 0; i < MEASURED_READS; i++){
+            read(task, ring, dst);
+        }
+        long allocated = allocatedBytes() - before;
+
+        assertTrue(allocated < ALLOWED_BYTES, allocated + " bytes allocated over " + MEASURED_READS + " reads");
+        assertEquals(AITask.INPUT_BUFFER_SIZE, task.getBlock().size());
+        assertEquals((long) (WARMUP_READS + MEASURED_READS - 1) * AITask.INPUT_BUFFER_SIZE, task.getBlock().getFirstSample());
+    }
+
+    @Test
+    void simulatedReadAndHandOffAllocateNothing() throws Exception{
+        SimulatedAITask task = new SimulatedAITask(AITask.SAMPLES_PER_SECOND, 0.005, MaterialCurve.idealized(10000, 40, 45, 0.12), 60);
+        task.setPaced(false);
+        task.createAIChannel(0, AITask.Mode.DIFFERENTIAL);
+        task.createAIChannel(1, AITask.Mode.RSE);
+        task.readyToRun();
+        SampleRingBuffer ring = new SampleRingBuffer(2, task.getBlock().getCapacity());
+        double[][] dst = new double[2][task.getBlock().getCapacity()];
+
+        for(int i = 0; i < WARMUP_READS; i++){
+            read(task, ring, dst);
+        }
+
+        long before = allocatedBytes();
+        for(int i = 0; i < MEASURED_READS; i++){
+            read(task, ring, dst);
+        }
+        long allocated = allocatedBytes() - before;
+
+        assertTrue(allocated < ALLOWED_BYTES, allocated + " bytes allocated over " + MEASURED_READS + " reads");
+    }
+
+    private static void read(AITask task, SampleRingBuffer ring, double[][] dst) throws Exception{
+        task.readAvailable();
+        ring.write(task.getBlock());
+        ring.read(dst, dst[0].length);
+    }
+}
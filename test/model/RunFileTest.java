@@ -0,0 +1,209 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import model.SampleStore.Column;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunFileTest {
+
+    private static final double DELTA = 0.0;
+
+    private static File tempFile() throws IOException{
+        File file = File.createTempFile("run", ".run");
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static RunHeader header(){
+        RunHeader header = new RunHeader();
+        header.setStartTime(1234L);
+        header.setSampleRate(10000);
+        header.setForceChannel(0);
+        header.setForceMode(AITask.Mode.DIFFERENTIAL);
+        header.setForceUnitsPerVolt(1000);
+        header.setElongationChannel(1);
+        header.setElongationMode(AITask.Mode.RSE);
+        header.setElongationUnitsPerVolt(0.05);
+        header.setUnitSystem("Metric");
+        header.setGaugeLength(50.8);
+        header.setDiameter(12.5);
+        header.setForceFilter("MEDIAN");
+        header.setForceFilterMillis(40);
+        header.setTareSamples(20000);
+        header.setForceZeroNoise(0.002);
+        return header;
+    }
+
+    private static void write(File file, int points, boolean flushHalfway) throws IOException{
+        try(RunFileWriter writer = new RunFileWriter(file, header())){
+            for(int i = 0; i < points; i++){
+                writer.append(i, i + 0.1, i + 0.2, i * 2.0, i * 3.0);
+                if(flushHalfway && i == points / 2){
+                    writer.flush();
+                }
+            }
+        }
+    }
+
+    @Test
+    void readsBackEveryPointAndTheHeader() throws IOException{
+        File file = tempFile();
+        int points = RunFileWriter.BLOCK_POINTS * 3 + 17;
+        write(file, points, true);
+
+        RunFileReader reader = RunFileReader.open(file);
+        assertEquals(points, reader.size());
+        for(int i = 0; i < points; i += 97){
+            assertEquals(i, reader.get(Column.TIME, i), DELTA);
+            assertEquals(i + 0.2, reader.get(Column.ELONGATION_VOLTS, i), DELTA);
+            assertEquals(i * 3.0, reader.get(Column.STRAIN, i), DELTA);
+        }
+        assertEquals(AITask.Mode.RSE, reader.getHeader().getElongationMode());
+        assertEquals("Metric", reader.getHeader().getUnitSystem());
+        assertEquals(12.5, reader.getHeader().getDiameter(), DELTA);
+        assertEquals(1234L, reader.getHeader().getStartTime());
+        assertEquals("MEDIAN", reader.getHeader().getForceFilter());
+        assertEquals(40, reader.getHeader().getForceFilterMillis(), DELTA);
+        assertEquals(20000, reader.getHeader().getTareSamples());
+        assertEquals(0.002, reader.getHeader().getForceZeroNoise(), DELTA);
+    }
+
+    @Test
+    void readsBackEventsBetweenBlocks() throws IOException{
+        File file = tempFile();
+        try(RunFileWriter writer = new RunFileWriter(file, header())){
+            for(int i = 0; i < RunFileWriter.BLOCK_POINTS + 10; i++){
+                writer.append(i, 0, 0, i * 2.0, i * 3.0, i * 0.5, Double.NaN);
+                if(i == 5){
+                    writer.appendEvent(new RunEvent(RunEvent.Type.YIELD, i, i, i * 3.0, i * 2.0));
+                }
+            }
+            writer.appendEvent(new RunEvent(RunEvent.Type.FRACTURE, RunFileWriter.BLOCK_POINTS + 9, 1.5, 0.25, 7.0));
+        }
+
+        RunFileReader reader = RunFileReader.open(file);
+        assertEquals(RunFileWriter.BLOCK_POINTS + 10, reader.size());
+        assertEquals(2, reader.getEvents().size());
+        RunEvent yield = reader.getEvents().get(0);
+        assertEquals(RunEvent.Type.YIELD, yield.getType());
+        assertEquals(5, yield.getPoint());
+        assertEquals(10.0, yield.getStress(), DELTA);
+        RunEvent fracture = reader.getEvents().get(1);
+        assertEquals(RunEvent.Type.FRACTURE, fracture.getType());
+        assertEquals(RunFileWriter.BLOCK_POINTS + 9, fracture.getPoint());
+        assertEquals(0.25, fracture.getStrain(), DELTA);
+        assertEquals(RunFileWriter.BLOCK_POINTS * 2.0, reader.get(Column.STRESS, RunFileWriter.BLOCK_POINTS), DELTA);
+        assertEquals(RunFileWriter.BLOCK_POINTS * 0.5, reader.get(Column.STRAIN_RATE, RunFileWriter.BLOCK_POINTS), DELTA);
+        assertTrue(Double.isNaN(reader.get(Column.STRESS_RATE, 3)));
+    }
+
+    @Test
+    void copySpansBlocks() throws IOException{
+        File file = tempFile();
+        write(file, RunFileWriter.BLOCK_POINTS * 2 + 5, true);
+        RunFileReader reader = RunFileReader.open(file);
+
+        double[] stress = new double[reader.size()];
+        reader.copy(Column.STRESS, 0, stress, 0, stress.length);
+        for(int i = 0; i < stress.length; i++){
+            assertEquals(i * 2.0, stress[i], DELTA);
+        }
+
+        SampleStore store = new SampleStore();
+        reader.loadInto(store);
+        assertEquals(reader.size(), store.size());
+        assertEquals(reader.get(Column.FORCE_VOLTS, 4321), store.get(Column.FORCE_VOLTS, 4321), DELTA);
+    }
+
+    @Test
+    void readsBackRawSamples() throws IOException{
+        File file = tempFile();
+        int perChunk = 500;
+        int chunks = RunFileWriter.BLOCK_SAMPLES / perChunk * 2 + 3;
+        double[][] chunk = new double[2][perChunk];
+        try(RunFileWriter writer = new RunFileWriter(file, header())){
+            for(int c = 0; c < chunks; c++){
+                for(int i = 0; i < perChunk; i++){
+                    long sample = (long) c * perChunk + i;
+                    chunk[0][i] = sample * 0.001;
+                    chunk[1][i] = -sample * 0.5;
+                }
+                writer.appendSamples(chunk, perChunk, (long) c * perChunk);
+                writer.append(c, 0, 0, 0, 0);
+                if(c == 7){
+                    //a partial block has to be packed before it is written
+                    writer.flush();
+                }
+            }
+        }
+
+        RunFileReader reader = RunFileReader.open(file);
+        long samples = (long) chunks * perChunk;
+        assertEquals(samples, reader.getSampleCount());
+        assertEquals(2, reader.getSampleChannels());
+        assertEquals(chunks, reader.size());
+        for(long i = 0; i < samples; i += 111){
+            assertEquals((float) (i * 0.001), reader.getSample(0, i), DELTA);
+            assertEquals((float) (-i * 0.5), reader.getSample(1, i), DELTA);
+        }
+        double[] copied = new double[(int) samples];
+        reader.copySamples(1, 0, copied, 0, copied.length);
+        for(int i = 0; i < copied.length; i++){
+            assertEquals((float) (-i * 0.5), copied[i], DELTA);
+        }
+    }
+
+    @Test
+    void findsTheGapsInRawSamples() throws IOException{
+        File file = tempFile();
+        double[][] chunk = new double[1][500];
+        try(RunFileWriter writer = new RunFileWriter(file, header())){
+            for(int c = 0; c < 100; c++){
+                if(c >= 50 && c < 55){
+                    //lost before they reached the recorder
+                    continue;
+                }
+                for(int i = 0; i < 500; i++){
+                    chunk[0][i] = c * 500 + i;
+                }
+                writer.appendSamples(chunk, 500, c * 500L);
+            }
+        }
+
+        RunFileReader reader = RunFileReader.open(file);
+        assertEquals(50000, reader.getSampleCount());
+        assertEquals(0, reader.nextRecordedSample(0));
+        assertEquals(24999, reader.nextRecordedSample(24999));
+        assertEquals(27500, reader.nextRecordedSample(25000));
+        assertEquals(27500, reader.nextRecordedSample(26000));
+        assertEquals(50000, reader.nextRecordedSample(50000));
+        assertEquals(25000, reader.endOfRecordedRange(0));
+        assertEquals(25000, reader.endOfRecordedRange(24999));
+        assertEquals(50000, reader.endOfRecordedRange(27500));
+        assertEquals(27500, reader.getSample(0, 27500), DELTA);
+        assertThrows(IndexOutOfBoundsException.class, () -> reader.getSample(0, 25000));
+    }
+
+    @Test
+    void ignoresABlockCutShortByACrash() throws IOException{
+        File file = tempFile();
+        write(file, RunFileWriter.BLOCK_POINTS + 100, false);
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")){
+            raf.setLength(raf.length() - 8);
+        }
+        assertEquals(RunFileWriter.BLOCK_POINTS, RunFileReader.open(file).size());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException{
+        File file = tempFile();
+        try(RandomAccessFile raf = new RandomAccessFile(file, "rw")){
+            raf.writeBytes("Strain,Stress\n0.1,0.2\n");
+        }
+        assertThrows(IOException.class, () -> RunFileReader.open(file));
+    }
+}
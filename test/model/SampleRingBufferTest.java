@@ -0,0 +1,124 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import java.nio.DoubleBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleRingBufferTest {
+
+    private static final double DELTA = 0.0;
+
+    //builds a two channel block starting at sample start where channel 0 counts up from start and channel 1 is its negative
+    private static SampleBlock block(int start, int size){
+        double[] interleaved = new double[size * 2];
+        for(int i = 0; i < size; i++){
+            interleaved[i * 2] = start + i;
+            interleaved[i * 2 + 1] = -(start + i);
+        }
+        SampleBlock block = new SampleBlock(2, size);
+        block.fillInterleaved(DoubleBuffer.wrap(interleaved), size);
+        block.stamp(start);
+        return block;
+    }
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo(){
+        assertEquals(16, new SampleRingBuffer(2, 10).getCapacity());
+        assertEquals(16, new SampleRingBuffer(2, 16).getCapacity());
+    }
+
+    @Test
+    void readReturnsFramesInOrderSplitByChannel(){
+        SampleRingBuffer ring = new SampleRingBuffer(2, 8);
+        assertEquals(5, ring.write(block(0, 5)));
+        assertEquals(5, ring.size());
+
+        double[][] dst = new double[2][8];
+        assertEquals(5, ring.read(dst, 8));
+        for(int i = 0; i < 5; i++){
+            assertEquals(i, dst[0][i], DELTA);
+            assertEquals(-i, dst[1][i], DELTA);
+        }
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void wrapsAroundTheEnd(){
+        SampleRingBuffer ring = new SampleRingBuffer(2, 8);
+        double[][] dst = new double[2][8];
+        ring.write(block(0, 6));
+        ring.read(dst, 6);
+        ring.write(block(6, 6));
+
+        assertEquals(6, ring.read(dst, 8));
+        for(int i = 0; i < 6; i++){
+            assertEquals(6 + i, dst[0][i], DELTA);
+        }
+    }
+
+    @Test
+    void overflowDropsNewestFramesAndCountsThem(){
+        SampleRingBuffer ring = new SampleRingBuffer(2, 8);
+        assertEquals(6, ring.write(block(0, 6)));
+        assertEquals(2, ring.write(block(6, 5)));
+
+        assertEquals(1, ring.getOverflowCount());
+        assertEquals(3, ring.getDroppedFrames());
+        assertEquals(8, ring.getWrittenFrames());
+
+        double[][] dst = new double[2][8];
+        assertEquals(8, ring.read(dst, 8));
+        assertEquals(7, dst[0][7], DELTA);
+    }
+
+    @Test
+    void readStopsAtAGapInTheSampleClock(){
+        SampleRingBuffer ring = new SampleRingBuffer(2, 16);
+        ring.write(block(0, 4));
+        ring.write(block(10, 4)); //samples 4 to 9 were lost before reaching the ring
+
+        double[][] dst = new double[2][8];
+        assertEquals(4, ring.read(dst, 8));
+        assertEquals(0, ring.getReadFirstSample());
+        assertEquals(4, ring.read(dst, 8));
+        assertEquals(10, ring.getReadFirstSample());
+        assertEquals(10, dst[0][0], DELTA);
+    }
+
+    @Test
+    void discardEmptiesTheRing(){
+        SampleRingBuffer ring = new SampleRingBuffer(2, 8);
+        ring.write(block(0, 4));
+        ring.discard();
+        assertEquals(0, ring.size());
+        assertEquals(0, ring.read(new double[2][8], 8));
+    }
+
+    @Test
+    void producerAndConsumerOnSeparateThreads() throws InterruptedException{
+        final int total = 200000;
+        SampleRingBuffer ring = new SampleRingBuffer(2, 1024);
+        Thread producer = new Thread(() -> {
+            int next = 0;
+            while(next < total){
+                //a partial write keeps the oldest frames, so retry from the first one dropped
+                next += ring.write(block(next, Math.min(100, total - next)));
+            }
+        });
+        producer.start();
+
+        double[][] dst = new double[2][64];
+        int expected = 0;
+        while(expected < total){
+            int read = ring.read(dst, 64);
+            for(int i = 0; i < read; i++){
+                assertEquals(expected, dst[0][i], DELTA);
+                assertEquals(-expected, dst[1][i], DELTA);
+                expected++;
+            }
+        }
+        producer.join();
+        assertEquals(total, ring.getWrittenFrames());
+    }
+}
@@ -0,0 +1,77 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import model.SampleStore.Column;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampleStoreTest {
+
+    private static final double DELTA = 0.0;
+
+    private static SampleStore filled(int points){
+        SampleStore store = new SampleStore();
+        for(int i = 0; i < points; i++){
+            store.append(i, i + 0.1, i + 0.2, i * 2.0, i * 3.0);
+        }
+        return store;
+    }
+
+    @Test
+    void appendKeepsColumnsAligned(){
+        SampleStore store = filled(10);
+        assertEquals(10, store.size());
+        assertEquals(7.0, store.get(Column.TIME, 7), DELTA);
+        assertEquals(7.1, store.get(Column.FORCE_VOLTS, 7), DELTA);
+        assertEquals(7.2, store.get(Column.ELONGATION_VOLTS, 7), DELTA);
+        assertEquals(14.0, store.get(Column.STRESS, 7), DELTA);
+        assertEquals(21.0, store.get(Column.STRAIN, 7), DELTA);
+    }
+
+    @Test
+    void growsPastManyChunks(){
+        int points = SampleStore.CHUNK_SIZE * 20 + 5;
+        SampleStore store = filled(points);
+        assertEquals(points, store.size());
+        assertEquals(points - 1, store.get(Column.TIME, points - 1), DELTA);
+        assertEquals(SampleStore.CHUNK_SIZE, store.get(Column.TIME, SampleStore.CHUNK_SIZE), DELTA);
+    }
+
+    @Test
+    void copySpansChunkBoundaries(){
+        SampleStore store = filled(SampleStore.CHUNK_SIZE * 2 + 10);
+        int from = SampleStore.CHUNK_SIZE - 3;
+        double[] dst = new double[SampleStore.CHUNK_SIZE + 8];
+        store.copy(Column.TIME, from, dst, 1, dst.length - 1);
+        for(int i = 1; i < dst.length; i++){
+            assertEquals(from + i - 1, dst[i], DELTA);
+        }
+    }
+
+    @Test
+    void viewDoesNotSeeLaterAppends(){
+        SampleStore store = filled(5);
+        SampleStore.View view = store.view();
+        store.append(5, 0, 0, 0, 0);
+        assertEquals(5, view.size());
+        assertEquals(6, store.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(Column.TIME, 5));
+    }
+
+    @Test
+    void scaleOnlyTouchesOneColumn(){
+        SampleStore store = filled(SampleStore.CHUNK_SIZE + 1);
+        store.scale(Column.STRESS, 0.5);
+        assertEquals(SampleStore.CHUNK_SIZE, store.get(Column.STRESS, SampleStore.CHUNK_SIZE), DELTA);
+        assertEquals(3.0 * SampleStore.CHUNK_SIZE, store.get(Column.STRAIN, SampleStore.CHUNK_SIZE), DELTA);
+    }
+
+    @Test
+    void clearEmptiesTheStore(){
+        SampleStore store = filled(100);
+        store.clear();
+        assertTrue(store.isEmpty());
+        store.append(1, 2, 3, 4, 5);
+        assertEquals(4.0, store.get(Column.STRESS, 0), DELTA);
+    }
+}
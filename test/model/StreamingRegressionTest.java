@@ -0,0 +1,74 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingRegressionTest {
+
+    /*
+     * Two pass least squares slope for comparison
+     */
+    private static double slope(double[] x, double[] y, int from, int to){
+        double meanX = 0.0, meanY = 0.0;
+        for(int i = from; i < to; i++){
+            meanX += x[i];
+            meanY += y[i];
+        }
+        meanX /= to - from;
+        meanY /= to - from;
+        double sxy = 0.0, sxx = 0.0;
+        for(int i = from; i < to; i++){
+            sxy += (x[i] - meanX) * (y[i] - meanY);
+            sxx += (x[i] - meanX) * (x[i] - meanX);
+        }
+        return sxy / sxx;
+    }
+
+    @Test
+    void exactLineFarFromTheOrigin(){
+        StreamingRegression regression = new StreamingRegression();
+        for(int i = 0; i < 1000; i++){
+            double x = 1e4 + i * 1e-3;
+            regression.add(x, 3.0 * x - 7.0);
+        }
+        assertEquals(3.0, regression.getSlope(), 1e-6);
+        assertEquals(-7.0, regression.getIntercept(), 1e-3);
+        assertEquals(1.0, regression.getRSquared(), 1e-9);
+        assertEquals(1e4, regression.getMinX(), 0.0);
+    }
+
+    @Test
+    void windowMatchesBatchFitOfTheLastPoints(){
+        Random random = new Random(8);
+        int window = 25;
+        double[] x = new double[500];
+        double[] y = new double[500];
+        StreamingRegression regression = new StreamingRegression(window);
+        for(int i = 0; i < x.length; i++){
+            x[i] = i * 0.01;
+            y[i] = (i < 250 ? 2.0 : -0.5) * x[i] + random.nextGaussian() * 0.01;
+            regression.add(x[i], y[i]);
+            if(i >= window){
+                assertEquals(slope(x, y, i + 1 - window, i + 1), regression.getSlope(), 1e-9);
+            }
+        }
+        assertEquals(window, regression.getCount());
+        assertEquals(x[x.length - window], regression.getMinX(), 0.0);
+        assertEquals(x[x.length - 1], regression.getMaxX(), 0.0);
+    }
+
+    @Test
+    void scaleYScalesTheLine(){
+        StreamingRegression regression = new StreamingRegression(10);
+        for(int i = 0; i < 30; i++){
+            regression.add(i, 2.0 * i + 1.0);
+        }
+        regression.scaleY(0.5);
+        assertEquals(1.0, regression.getSlope(), 1e-12);
+        regression.add(30, 0.5 * (2.0 * 30 + 1.0));
+        assertEquals(1.0, regression.getSlope(), 1e-12);
+        assertEquals(0.5, regression.getIntercept(), 1e-12);
+    }
+}
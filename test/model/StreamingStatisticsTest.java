@@ -0,0 +1,92 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingStatisticsTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void matchesTwoPassStatistics(){
+        double[] values = new double[10000];
+        Random random = new Random(4);
+        for(int i = 0; i < values.length; i++){
+            values[i] = 1e6 + random.nextGaussian() * 1e-3; //small noise on a large offset
+        }
+        StreamingStatistics statistics = new StreamingStatistics();
+        statistics.add(values, 0, values.length);
+
+        double mean = 0.0;
+        for(double value : values){
+            mean += value;
+        }
+        mean /= values.length;
+        double squares = 0.0, min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+        for(double value : values){
+            squares += (value - mean) * (value - mean);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        assertEquals(values.length, statistics.getCount());
+        assertEquals(mean, statistics.getMean(), 1e-8);
+        assertEquals(Math.sqrt(squares / (values.length - 1)), statistics.getStandardDeviation(), 1e-9);
+        assertEquals(min, statistics.getMin(), 0.0);
+        assertEquals(max, statistics.getMax(), 0.0);
+        assertEquals(1e6, statistics.getRms(), 1e-3);
+    }
+
+    @Test
+    void mergeMatchesAddingEverything(){
+        Random random = new Random(5);
+        StreamingStatistics all = new StreamingStatistics();
+        StreamingStatistics first = new StreamingStatistics();
+        StreamingStatistics second = new StreamingStatistics();
+        for(int i = 0; i < 1000; i++){
+            double value = random.nextDouble() * 10 - 3;
+            all.add(value);
+            (i < 300 ? first : second).add(value);
+        }
+        first.merge(second);
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMean(), first.getMean(), DELTA);
+        assertEquals(all.getVariance(), first.getVariance(), DELTA);
+        assertEquals(all.getRms(), first.getRms(), DELTA);
+        assertEquals(all.getPeakToPeak(), first.getPeakToPeak(), 0.0);
+    }
+
+    @Test
+    void windowOnlyCoversRecentBlocks(){
+        ChannelStatistics statistics = new ChannelStatistics(2, 1000, 0.5);
+        SampleBlock block = new SampleBlock(2, 100);
+        block.setSize(100);
+        for(int b = 0; b < 20; b++){
+            for(int i = 0; i < 100; i++){
+                block.set(0, i, b);
+                block.set(1, i, -b);
+            }
+            statistics.blockAcquired(block);
+        }
+
+        StreamingStatistics run = new StreamingStatistics();
+        StreamingStatistics window = new StreamingStatistics();
+        statistics.snapshot(0, run, window);
+        assertEquals(2000, run.getCount());
+        assertEquals(9.5, run.getMean(), DELTA);
+        //the last five blocks make half a second
+        assertEquals(500, window.getCount());
+        assertEquals(17.0, window.getMean(), DELTA);
+        assertEquals(15.0, window.getMin(), 0.0);
+
+        statistics.snapshot(1, null, window);
+        assertEquals(-17.0, window.getMean(), DELTA);
+
+        statistics.reset();
+        statistics.snapshot(0, run, window);
+        assertEquals(0, run.getCount());
+        assertEquals(0, window.getCount());
+    }
+}
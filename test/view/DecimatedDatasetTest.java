@@ -0,0 +1,81 @@
+package view;
+
+import model.SampleStore;
+import model.SampleStore.Column;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecimatedDatasetTest {
+
+    private static final int COLUMNS = 100;
+
+    private static DecimatedDataset dataset(SampleStore store){
+        DecimatedDataset dataset = new DecimatedDataset("test", store, Column.STRAIN, Column.STRESS);
+        dataset.setColumns(COLUMNS);
+        return dataset;
+    }
+
+    @Test
+    void itemCountIsBoundedByColumns(){
+        SampleStore store = new SampleStore();
+        DecimatedDataset dataset = dataset(store);
+        for(int i = 0; i < 1_000_000; i++){
+            store.append(i, 0, 0, Math.sin(i), i * 1e-6);
+            if(i % 10_000 == 0){
+                dataset.update();
+            }
+        }
+        dataset.update();
+        assertTrue(dataset.getItemCount(0) <= COLUMNS * 4, "items " + dataset.getItemCount(0));
+    }
+
+    @Test
+    void keepsExtremesAndBounds(){
+        SampleStore store = new SampleStore();
+        DecimatedDataset dataset = dataset(store);
+        for(int i = 0; i < 100_000; i++){
+            store.append(i, 0, 0, i == 54_321 ? 500.0 : i % 7, i * 1e-5);
+        }
+        dataset.update();
+
+        double max = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < dataset.getItemCount(0); i++){
+            max = Math.max(max, dataset.getYValue(0, i));
+            if(i > 0){
+                assertTrue(dataset.getXValue(0, i) >= dataset.getXValue(0, i - 1), "x out of order at " + i);
+            }
+        }
+        assertEquals(500.0, max, 0.0);
+        assertEquals(500.0, dataset.getRangeUpperBound(false), 0.0);
+        assertEquals(0.0, dataset.getDomainLowerBound(false), 0.0);
+    }
+
+    @Test
+    void skipsInfinitePoints(){
+        SampleStore store = new SampleStore();
+        DecimatedDataset dataset = dataset(store);
+        store.append(0, 0, 0, 1.0, 0.001);
+        store.append(1, 0, 0, 2.0, Double.POSITIVE_INFINITY); //strain over a zero gauge length
+        store.append(2, 0, 0, Double.NEGATIVE_INFINITY, 0.002);
+        store.append(3, 0, 0, 3.0, 0.003);
+        dataset.update();
+        assertEquals(2, dataset.getItemCount(0));
+        assertEquals(0.003, dataset.getDomainUpperBound(false), 0.0);
+        assertEquals(1.0, dataset.getRangeLowerBound(false), 0.0);
+    }
+
+    @Test
+    void followsAClearedStore(){
+        SampleStore store = new SampleStore();
+        DecimatedDataset dataset = dataset(store);
+        for(int i = 0; i < 1000; i++){
+            store.append(i, 0, 0, i, i);
+        }
+        dataset.update();
+        store.clear();
+        dataset.update();
+        assertEquals(0, dataset.getItemCount(0));
+        assertNull(dataset.getDomainBounds(false));
+    }
+}